@@ -0,0 +1,75 @@
+package com.cw.scheduler.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Tells the other nodes that a provider's bookings or schedule changed, so they drop their copy of
+ * its availability index and rebuild it from the database. Messages are {@code nodeId|providerId}.
+ */
+@Component
+@Slf4j
+public class AvailabilityInvalidationChannel {
+
+    public static final String CHANNEL = "availability:invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public AvailabilityInvalidationChannel(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * Calls {@code onRemoteChange} with the provider id of every change published by another node.
+     */
+    public void subscribe(LongConsumer onRemoteChange) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length < 2 || parts[0].equals(nodeId)) {
+                return;
+            }
+            try {
+                onRemoteChange.accept(Long.parseLong(parts[1]));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed availability invalidation {}", parts[1]);
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Publishes the change once the current transaction commits, so other nodes reload committed rows.
+     */
+    public void publish(Long providerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(providerId);
+                }
+            });
+        } else {
+            send(providerId);
+        }
+    }
+
+    private void send(Long providerId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + providerId);
+        } catch (Exception e) {
+            // other nodes fall back to the index max age
+            log.warn("Failed to publish availability invalidation for providerId={}: {}", providerId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cw.scheduler.availability;
+
+import java.time.LocalDateTime;
+
+/**
+ * A non-cancelled appointment as seen by the availability index: [start, end).
+ */
+public record BookedInterval(Long appointmentId, LocalDateTime start, int durationMinutes) {
+
+    public LocalDateTime end() {
+        // legacy rows may carry a zero duration, they still occupy their start minute
+        return start.plusMinutes(Math.max(durationMinutes, 1));
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end());
+    }
+}
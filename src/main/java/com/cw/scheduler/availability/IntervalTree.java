@@ -0,0 +1,91 @@
+package com.cw.scheduler.availability;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Static interval tree over closed intervals [start, end], built once from a list of values.
+ * The intervals are sorted by start and laid out as an implicit balanced tree where every node
+ * carries the largest end of its subtree, so a covering lookup descends only into subtrees that
+ * can still contain a match: O(log n) for the non-overlapping windows of a schedule.
+ */
+public final class IntervalTree<T> {
+
+    private static final IntervalTree<?> EMPTY = new IntervalTree<>(List.of(), value -> 0, value -> 0);
+
+    private final Object[] values;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    public IntervalTree(List<T> intervals, ToLongFunction<T> start, ToLongFunction<T> end) {
+        Object[] sorted = intervals.stream()
+                .sorted(Comparator.comparingLong(start).thenComparingLong(end))
+                .toArray();
+        int size = sorted.length;
+        this.values = sorted;
+        this.starts = new long[size];
+        this.ends = new long[size];
+        this.maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            T value = (T) sorted[i];
+            starts[i] = start.applyAsLong(value);
+            ends[i] = end.applyAsLong(value);
+        }
+        Arrays.fill(maxEnds, Long.MIN_VALUE);
+        build(0, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> IntervalTree<T> empty() {
+        return (IntervalTree<T>) EMPTY;
+    }
+
+    /**
+     * Returns an interval containing all of [from, to], or null when there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public T findCovering(long from, long to) {
+        int index = search(0, values.length, from, to);
+        return index < 0 ? null : (T) values[index];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    private long build(int low, int high) {
+        if (low >= high) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (low + high) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(build(low, mid), build(mid + 1, high)));
+        return maxEnds[mid];
+    }
+
+    private int search(int low, int high, long from, long to) {
+        if (low >= high) {
+            return -1;
+        }
+        int mid = (low + high) >>> 1;
+        if (maxEnds[mid] < to) {
+            return -1;
+        }
+
+        int left = search(low, mid, from, to);
+        if (left >= 0) {
+            return left;
+        }
+        // everything from here on starts too late
+        if (starts[mid] > from) {
+            return -1;
+        }
+        if (ends[mid] >= to) {
+            return mid;
+        }
+        return search(mid + 1, high, from, to);
+    }
+}
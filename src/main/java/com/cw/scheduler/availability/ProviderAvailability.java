@@ -0,0 +1,268 @@
+package com.cw.scheduler.availability;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * In-memory availability of a single provider: the weekly working windows from
+ * {@code ProviderSchedule}, date-specific overrides that replace the weekly windows of one date,
+ * plus every booked interval from the retention point onwards. Working windows are looked up
+ * through {@link IntervalTree}s (one over the minutes of the week, one per overridden date).
+ * Per-day bitmaps of 5-minute granules are derived from windows and bookings for free-slot searches; booked
+ * bitmaps are kept only for the next {@link #BITMAP_HORIZON_DAYS} days and updated in place.
+ * All methods are synchronized on the instance, so each provider is guarded independently.
+ */
+public class ProviderAvailability {
+
+    private static final Comparator<BookedInterval> BY_START =
+            Comparator.comparing(BookedInterval::start).thenComparing(BookedInterval::appointmentId);
+
+    public static final int BITMAP_HORIZON_DAYS = 60;
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    // LocalTime has no 24:00, so a window ending in the last minute of the day runs until midnight
+    private static final LocalTime LAST_MINUTE = LocalTime.of(23, 59);
+
+    private final Long providerId;
+    private final Map<DayOfWeek, SlotBitmap> weeklyBitmaps = new EnumMap<>(DayOfWeek.class);
+    private IntervalTree<WeeklyWindow> weeklyTree = IntervalTree.empty();
+    private final NavigableMap<LocalDate, DateOverride> overrides = new TreeMap<>();
+    private final Map<LocalDate, SlotBitmap> bookedBitmaps = new HashMap<>();
+    private final NavigableSet<BookedInterval> booked = new TreeSet<>(BY_START);
+    private final Map<Long, BookedInterval> bookedById = new HashMap<>();
+    private int maxDurationMinutes = 1;
+
+    public ProviderAvailability(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public synchronized void replaceWeeklyWindows(Map<DayOfWeek, List<TimeWindow>> windows) {
+        weeklyBitmaps.clear();
+        List<WeeklyWindow> all = new ArrayList<>();
+        windows.forEach((day, list) -> {
+            weeklyBitmaps.put(day, workingBitmap(list));
+            list.forEach(window -> all.add(new WeeklyWindow(day, window)));
+        });
+        weeklyTree = new IntervalTree<>(all, WeeklyWindow::start, WeeklyWindow::end);
+    }
+
+    /**
+     * Replaces the date-specific overrides; a date mapped to no windows is closed.
+     */
+    public synchronized void replaceOverrides(Map<LocalDate, List<TimeWindow>> windowsByDate) {
+        overrides.clear();
+        windowsByDate.forEach((date, list) -> overrides.put(date, new DateOverride(
+                new IntervalTree<>(list, window -> secondOfDay(window.startTime()), window -> windowEndSecond(window.endTime())),
+                workingBitmap(list))));
+    }
+
+    /**
+     * Whether the weekly schedule has a window containing the given time, ignoring date overrides.
+     */
+    public synchronized boolean isWithinSchedule(DayOfWeek dayOfWeek, LocalTime time) {
+        long at = secondOfWeek(dayOfWeek, time);
+        return weeklyTree.findCovering(at, at) != null;
+    }
+
+    /**
+     * Whether [start, start + durationMinutes] lies inside a single working window of that date,
+     * taking overrides of the date into account. A service may end exactly at midnight.
+     */
+    public synchronized boolean isWithinSchedule(LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(Math.max(durationMinutes, 0));
+        LocalDate date = start.toLocalDate();
+        long endSecond;
+        if (end.toLocalDate().equals(date)) {
+            endSecond = secondOfDay(end.toLocalTime());
+        } else if (end.equals(date.plusDays(1).atStartOfDay())) {
+            endSecond = SECONDS_PER_DAY;
+        } else {
+            // working windows never span midnight
+            return false;
+        }
+
+        DateOverride override = overrides.get(date);
+        if (override != null) {
+            return override.windows().findCovering(secondOfDay(start.toLocalTime()), endSecond) != null;
+        }
+        DayOfWeek day = date.getDayOfWeek();
+        return weeklyTree.findCovering(secondOfWeek(day, start.toLocalTime()), startOfWeekDay(day) + endSecond) != null;
+    }
+
+    /**
+     * Returns the first booked interval overlapping [start, end), if any.
+     */
+    public synchronized Optional<BookedInterval> findConflict(LocalDateTime start, LocalDateTime end) {
+        // anything starting before (start - longest booking) cannot reach into the candidate
+        BookedInterval from = new BookedInterval(Long.MIN_VALUE, start.minusMinutes(maxDurationMinutes), 0);
+        BookedInterval to = new BookedInterval(Long.MIN_VALUE, end, 0);
+
+        for (BookedInterval interval : booked.subSet(from, true, to, false)) {
+            if (interval.overlaps(start, end)) {
+                return Optional.of(interval);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void book(BookedInterval interval) {
+        release(interval.appointmentId());
+        booked.add(interval);
+        bookedById.put(interval.appointmentId(), interval);
+        maxDurationMinutes = Math.max(maxDurationMinutes, Math.max(interval.durationMinutes(), 1));
+
+        forEachDay(interval, (date, fromGranule, toGranule) -> {
+            SlotBitmap bitmap = bookedBitmaps.get(date);
+            if (bitmap != null) {
+                bitmap.set(fromGranule, toGranule);
+            }
+        });
+    }
+
+    public synchronized void release(Long appointmentId) {
+        BookedInterval existing = bookedById.remove(appointmentId);
+        if (existing != null) {
+            booked.remove(existing);
+            // other bookings may share a granule, so rebuild the affected days lazily
+            forEachDay(existing, (date, fromGranule, toGranule) -> bookedBitmaps.remove(date));
+        }
+    }
+
+    /**
+     * Free windows on the given date that can hold at least {@code durationMinutes},
+     * ignoring anything before {@code notBefore}.
+     */
+    public synchronized List<TimeWindow> findFreeWindows(LocalDate date, int durationMinutes, LocalDateTime notBefore) {
+        DateOverride override = overrides.get(date);
+        SlotBitmap working = override != null ? override.bitmap() : weeklyBitmaps.get(date.getDayOfWeek());
+        if (working == null || date.isBefore(notBefore.toLocalDate())) {
+            return List.of();
+        }
+
+        SlotBitmap free = working.copy();
+        free.andNot(bookedBitmap(date));
+        if (date.equals(notBefore.toLocalDate())) {
+            SlotBitmap past = new SlotBitmap();
+            past.set(0, SlotBitmap.granuleCeil(notBefore.toLocalTime()));
+            free.andNot(past);
+        }
+
+        List<TimeWindow> windows = new ArrayList<>();
+        free.forEachRun(SlotBitmap.granulesFor(durationMinutes), (from, to) ->
+                windows.add(new TimeWindow(SlotBitmap.timeOf(from), SlotBitmap.timeOf(to))));
+        return windows;
+    }
+
+    private SlotBitmap bookedBitmap(LocalDate date) {
+        SlotBitmap cached = bookedBitmaps.get(date);
+        if (cached != null) {
+            return cached;
+        }
+
+        SlotBitmap bitmap = new SlotBitmap();
+        LocalDateTime dayStart = date.atStartOfDay();
+        BookedInterval from = new BookedInterval(Long.MIN_VALUE, dayStart.minusMinutes(maxDurationMinutes), 0);
+        BookedInterval to = new BookedInterval(Long.MIN_VALUE, dayStart.plusDays(1), 0);
+        for (BookedInterval interval : booked.subSet(from, true, to, false)) {
+            forEachDay(interval, (day, fromGranule, toGranule) -> {
+                if (day.equals(date)) {
+                    bitmap.set(fromGranule, toGranule);
+                }
+            });
+        }
+
+        LocalDate today = LocalDate.now();
+        if (!date.isBefore(today) && !date.isAfter(today.plusDays(BITMAP_HORIZON_DAYS))) {
+            bookedBitmaps.put(date, bitmap);
+        }
+        return bitmap;
+    }
+
+    private void forEachDay(BookedInterval interval, DayGranules consumer) {
+        LocalDateTime start = interval.start();
+        LocalDateTime end = interval.end();
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            int fromGranule = date.equals(start.toLocalDate()) ? SlotBitmap.granuleFloor(start.toLocalTime()) : 0;
+            int toGranule = date.equals(end.toLocalDate())
+                    ? SlotBitmap.granuleCeil(end.toLocalTime())
+                    : SlotBitmap.GRANULES_PER_DAY;
+            consumer.accept(date, fromGranule, toGranule);
+        }
+    }
+
+    @FunctionalInterface
+    private interface DayGranules {
+        void accept(LocalDate date, int fromGranule, int toGranule);
+    }
+
+    /**
+     * Drops intervals that ended before the given instant, keeping the index bounded to the future.
+     */
+    public synchronized void prune(LocalDateTime before) {
+        BookedInterval cutoff = new BookedInterval(Long.MIN_VALUE, before.minusMinutes(maxDurationMinutes), 0);
+        Iterator<BookedInterval> iterator = booked.headSet(cutoff, false).iterator();
+        while (iterator.hasNext()) {
+            BookedInterval interval = iterator.next();
+            if (!interval.end().isAfter(before)) {
+                bookedById.remove(interval.appointmentId());
+                iterator.remove();
+            }
+        }
+        bookedBitmaps.keySet().removeIf(date -> date.isBefore(before.toLocalDate()));
+        overrides.headMap(before.toLocalDate()).clear();
+    }
+
+    public synchronized int bookedCount() {
+        return booked.size();
+    }
+
+    private static SlotBitmap workingBitmap(List<TimeWindow> windows) {
+        SlotBitmap bitmap = new SlotBitmap();
+        // only granules lying completely inside a window are workable
+        windows.forEach(window -> bitmap.set(
+                SlotBitmap.granuleCeil(window.startTime()),
+                endsAtMidnight(window.endTime()) ? SlotBitmap.GRANULES_PER_DAY : SlotBitmap.granuleFloor(window.endTime())));
+        return bitmap;
+    }
+
+    private static long secondOfDay(LocalTime time) {
+        return time.toSecondOfDay();
+    }
+
+    private static long windowEndSecond(LocalTime endTime) {
+        return endsAtMidnight(endTime) ? SECONDS_PER_DAY : secondOfDay(endTime);
+    }
+
+    private static boolean endsAtMidnight(LocalTime endTime) {
+        return !endTime.isBefore(LAST_MINUTE);
+    }
+
+    private static long startOfWeekDay(DayOfWeek day) {
+        return (day.getValue() - 1) * SECONDS_PER_DAY;
+    }
+
+    private static long secondOfWeek(DayOfWeek day, LocalTime time) {
+        return startOfWeekDay(day) + time.toSecondOfDay();
+    }
+
+    private record WeeklyWindow(DayOfWeek day, TimeWindow window) {
+
+        long start() {
+            return secondOfWeek(day, window.startTime());
+        }
+
+        long end() {
+            return startOfWeekDay(day) + windowEndSecond(window.endTime());
+        }
+    }
+
+    private record DateOverride(IntervalTree<TimeWindow> windows, SlotBitmap bitmap) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.cw.scheduler.availability;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks keyed by provider id, so bookings for the same provider serialize
+ * while bookings for different providers mostly land on different stripes.
+ */
+public class ProviderLockStripes {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public ProviderLockStripes(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(minStripes, 1) - 1) << 1;
+        this.locks = new ReentrantLock[Math.max(size, 1)];
+        this.mask = locks.length - 1;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(Long providerId) {
+        int hash = providerId.hashCode();
+        // fold the high bits in so ids that differ only above the mask still spread
+        hash ^= (hash >>> 16);
+        return locks[hash & mask];
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
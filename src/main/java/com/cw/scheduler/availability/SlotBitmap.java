@@ -0,0 +1,87 @@
+package com.cw.scheduler.availability;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * One day split into 5-minute granules, one bit per granule (288 bits in five longs).
+ */
+public final class SlotBitmap {
+
+    public static final int GRANULE_MINUTES = 5;
+    public static final int GRANULES_PER_DAY = 24 * 60 / GRANULE_MINUTES;
+
+    private final long[] words = new long[(GRANULES_PER_DAY + 63) / 64];
+
+    public SlotBitmap copy() {
+        SlotBitmap copy = new SlotBitmap();
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+    /**
+     * Sets granules [fromGranule, toGranule).
+     */
+    public void set(int fromGranule, int toGranule) {
+        for (int i = Math.max(fromGranule, 0); i < Math.min(toGranule, GRANULES_PER_DAY); i++) {
+            words[i >>> 6] |= 1L << i;
+        }
+    }
+
+    public boolean get(int granule) {
+        return (words[granule >>> 6] & (1L << granule)) != 0;
+    }
+
+    public void andNot(SlotBitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    public boolean isEmpty() {
+        return Arrays.stream(words).allMatch(word -> word == 0);
+    }
+
+    /**
+     * Reports every run of consecutive set granules that is at least {@code minLength} long
+     * as (fromGranule, toGranule) with an exclusive end.
+     */
+    public void forEachRun(int minLength, BiConsumer<Integer, Integer> consumer) {
+        int granule = 0;
+        while (granule < GRANULES_PER_DAY) {
+            if (!get(granule)) {
+                granule++;
+                continue;
+            }
+            int runStart = granule;
+            while (granule < GRANULES_PER_DAY && get(granule)) {
+                granule++;
+            }
+            if (granule - runStart >= Math.max(minLength, 1)) {
+                consumer.accept(runStart, granule);
+            }
+        }
+    }
+
+    public static int granuleFloor(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / GRANULE_MINUTES;
+    }
+
+    public static int granuleCeil(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute();
+        boolean partial = minutes % GRANULE_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0;
+        return minutes / GRANULE_MINUTES + (partial ? 1 : 0);
+    }
+
+    public static int granulesFor(int minutes) {
+        return (Math.max(minutes, 1) + GRANULE_MINUTES - 1) / GRANULE_MINUTES;
+    }
+
+    public static LocalTime timeOf(int granule) {
+        if (granule >= GRANULES_PER_DAY) {
+            return LocalTime.MAX;
+        }
+        return LocalTime.MIN.plusMinutes((long) granule * GRANULE_MINUTES);
+    }
+}
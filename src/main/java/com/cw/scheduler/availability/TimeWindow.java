@@ -0,0 +1,13 @@
+package com.cw.scheduler.availability;
+
+import java.time.LocalTime;
+
+/**
+ * A working window of a provider on a day of the week.
+ */
+public record TimeWindow(LocalTime startTime, LocalTime endTime) {
+
+    public boolean contains(LocalTime time) {
+        return !time.isBefore(startTime) && !time.isAfter(endTime);
+    }
+}
@@ -0,0 +1,78 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.entity.Appointment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The one place that knows which cached appointment views an appointment appears in: its customer's
+ * listing, its provider's listing and upcoming pages, and the provider's day view. Every key is derived
+ * from the appointment itself, never from the caller, and all of them are evicted together once the
+ * write commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentCacheCoordinator {
+
+    private final CachePrefixEvictor cachePrefixEvictor;
+    private final CacheDependencyTracker cacheDependencies;
+
+    /**
+     * Evicts the views of the appointment after the current transaction commits, or right away
+     * outside a transaction. Nothing is evicted when the transaction rolls back.
+     */
+    public void evictAfterCommit(Appointment appointment, String write) {
+        // read the ids now, the entity may be detached by the time the transaction completes
+        AffectedViews views = AffectedViews.of(appointment);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(views, write);
+                }
+            });
+        } else {
+            evict(views, write);
+        }
+    }
+
+    /**
+     * Evicts the views of the appointment immediately.
+     */
+    public void evictNow(Appointment appointment, String write) {
+        evict(AffectedViews.of(appointment), write);
+    }
+
+    void evict(AffectedViews views, String write) {
+        try {
+            // the listings are cached per page, keyed owner:cursor:size
+            cachePrefixEvictor.evictByPrefix("providerAppointments", views.providerId() + ":");
+            cachePrefixEvictor.evictByPrefix("upcomingAppointments", views.providerId() + ":");
+            if (views.userId() != null) {
+                cachePrefixEvictor.evictByPrefix("userAppointments", views.userId() + ":");
+            }
+            // called after commit already, so straight to the eviction
+            cacheDependencies.evictDependents(write, List.of(CacheDependency.providerDay(views.providerId(), views.date())));
+        } catch (Exception e) {
+            // the outbox cache step evicts again for booking and cancellation
+            log.error("Evicting appointment views {} after {} failed: {}", views, write, e.getMessage(), e);
+        }
+    }
+
+    record AffectedViews(Long providerId, Long userId, LocalDate date) {
+
+        static AffectedViews of(Appointment appointment) {
+            return new AffectedViews(
+                    appointment.getProvider().getId(),
+                    appointment.getUser() != null ? appointment.getUser().getId() : null,
+                    appointment.getAppointmentTime().toLocalDate());
+        }
+    }
+}
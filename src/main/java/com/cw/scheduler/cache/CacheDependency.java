@@ -0,0 +1,41 @@
+package com.cw.scheduler.cache;
+
+import java.time.LocalDate;
+
+/**
+ * Something a cached value was built from: a single row ({@code user:42}) or a set whose membership
+ * can change ({@code users:inactive}). Entries register the dependencies they were built from;
+ * writes invalidate the dependencies they change.
+ */
+public record CacheDependency(String type, String id) {
+
+    public static CacheDependency user(Long userId) {
+        return new CacheDependency("user", String.valueOf(userId));
+    }
+
+    // "all", "active", "inactive" or "role:<name>"
+    public static CacheDependency userSet(String name) {
+        return new CacheDependency("users", name);
+    }
+
+    public static CacheDependency category(Long categoryId) {
+        return new CacheDependency("category", String.valueOf(categoryId));
+    }
+
+    public static CacheDependency categorySet() {
+        return new CacheDependency("categories", "all");
+    }
+
+    // the offered services counted under a category
+    public static CacheDependency categoryServices(Long categoryId) {
+        return new CacheDependency("categoryServices", String.valueOf(categoryId));
+    }
+
+    public static CacheDependency providerDay(Long providerId, LocalDate date) {
+        return new CacheDependency("providerDay", providerId + "_" + date);
+    }
+
+    public String asKey() {
+        return type + ":" + id;
+    }
+}
@@ -0,0 +1,18 @@
+package com.cw.scheduler.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Reverse index from a dependency to the cache entries built from it. Entries are stored as
+ * {@code cacheName|key} strings.
+ */
+public interface CacheDependencyIndex {
+
+    void add(Collection<String> dependencyKeys, String entry);
+
+    /**
+     * Returns and removes, atomically, every entry registered under the dependency.
+     */
+    Set<String> drain(String dependencyKey);
+}
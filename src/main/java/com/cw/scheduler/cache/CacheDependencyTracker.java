@@ -0,0 +1,103 @@
+package com.cw.scheduler.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Dependency-tracked cache invalidation. A cached method registers the rows and sets its value was
+ * built from while computing it; a write then invalidates what it changed and only the entries
+ * registered under those dependencies are evicted, instead of whole caches.
+ * <p>
+ * Eviction fan-out is published per write as {@code cache.invalidation.fanout{write}}, together
+ * with {@code cache.invalidation.evictions{cache}}. A failed registration only leaves the entry
+ * to expire by its TTL.
+ */
+@Component
+@Slf4j
+public class CacheDependencyTracker {
+
+    private static final String SEPARATOR = "|";
+
+    private final CacheDependencyIndex index;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    public CacheDependencyTracker(CacheDependencyIndex index, CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records that the entry {@code key} of {@code cacheName} is built from the given dependencies.
+     * Call it from the cached method, so it runs exactly when the entry is (re)computed.
+     */
+    public void register(String cacheName, Object key, Collection<CacheDependency> dependencies) {
+        if (dependencies.isEmpty()) {
+            return;
+        }
+        List<String> dependencyKeys = dependencies.stream().map(CacheDependency::asKey).distinct().toList();
+        try {
+            index.add(dependencyKeys, cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            log.warn("Could not register {} dependencies of {}::{}: {}", dependencyKeys.size(), cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts every entry built from any of the changed dependencies, after the current transaction
+     * commits when there is one. {@code write} names the operation in the fan-out metrics.
+     */
+    public void invalidate(String write, CacheDependency... changed) {
+        List<CacheDependency> dependencies = List.of(changed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictDependents(write, dependencies);
+                }
+            });
+        } else {
+            evictDependents(write, dependencies);
+        }
+    }
+
+    int evictDependents(String write, Collection<CacheDependency> changed) {
+        Set<String> entries = new LinkedHashSet<>();
+        for (CacheDependency dependency : changed) {
+            try {
+                entries.addAll(index.drain(dependency.asKey()));
+            } catch (Exception e) {
+                log.warn("Could not read dependents of {} for {}: {}", dependency.asKey(), write, e.getMessage());
+            }
+        }
+
+        for (String entry : entries) {
+            int separator = entry.indexOf(SEPARATOR);
+            String cacheName = entry.substring(0, separator);
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                // keys are kept in their string form, which is how both cache tiers store them
+                cache.evict(entry.substring(separator + 1));
+                Counter.builder("cache.invalidation.evictions").tag("cache", cacheName).register(meterRegistry).increment();
+            }
+        }
+
+        DistributionSummary.builder("cache.invalidation.fanout")
+                .description("Cache entries evicted by one write")
+                .tag("write", write)
+                .register(meterRegistry)
+                .record(entries.size());
+        log.debug("{} invalidated {} -> evicted {}", write, changed, entries);
+        return entries.size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.cw.scheduler.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Tells the other nodes to drop their local copy of a key (or a whole cache) over Redis pub/sub.
+ * Messages are {@code nodeId|cacheName|key}, with an empty key meaning the whole cache and a key
+ * ending in {@code *} meaning every key with that prefix.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName + "|" + key);
+    }
+
+    public void publishEvictPrefix(String cacheName, String keyPrefix) {
+        publish(cacheName + "|" + keyPrefix + "*");
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName + "|");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void publish(String body) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + body);
+        } catch (Exception e) {
+            // other nodes fall back to their local TTL
+            log.warn("Failed to publish cache invalidation {}: {}", body, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cw.scheduler.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Evicts every key of a cache that starts with a prefix, e.g. all cached pages of one provider.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CachePrefixEvictor {
+
+    private final CacheManager cacheManager;
+
+    public void evictByPrefix(String cacheName, String keyPrefix) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        evictByPrefix(cache, keyPrefix);
+        log.debug("Evicted keys {}* from cache {}", keyPrefix, cacheName);
+    }
+
+    /**
+     * Evicts the prefix from one cache; decorators evict their own layer and pass it on to the cache they wrap.
+     */
+    static void evictByPrefix(Cache cache, String keyPrefix) {
+        if (cache instanceof PrefixEvictableCache decorator) {
+            decorator.evictByPrefix(keyPrefix);
+        } else if (cache instanceof RedisCache redisCache) {
+            String pattern = redisCache.getCacheConfiguration().getKeyPrefixFor(cache.getName()) + keyPrefix + "*";
+            redisCache.getNativeCache().clean(cache.getName(), pattern.getBytes(StandardCharsets.UTF_8));
+        } else if (cache.getNativeCache() instanceof Map<?, ?> entries) {
+            // in-memory caches (local profile, tests)
+            entries.keySet().removeIf(key -> String.valueOf(key).startsWith(keyPrefix));
+        } else {
+            // no key scan available, dropping the whole cache is still correct
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.cw.scheduler.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+public final class CacheSerializers {
+
+    private CacheSerializers() {
+    }
+
+    /**
+     * JSON with a class name on every non-final value; handles any type, at the cost of size.
+     */
+    public static RedisSerializer<Object> defaultTypedJson() {
+        // Configure type validator
+        PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType(Object.class)
+                .build();
+
+        // Configure ObjectMapper
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // Store type info as a property instead of wrapper array
+        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+
+        return new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+    }
+
+    public static RedisSerializer<Object> compact(CacheTypeRegistry registry, int compressionThresholdBytes) {
+        return new CompactCacheSerializer(registry, compressionThresholdBytes, defaultTypedJson());
+    }
+}
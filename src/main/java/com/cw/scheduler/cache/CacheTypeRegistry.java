@@ -0,0 +1,40 @@
+package com.cw.scheduler.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explicit numeric ids for the types stored in the cache. The ids are part of the stored
+ * format, so an id must never be renumbered or reused for a different type.
+ */
+public class CacheTypeRegistry {
+
+    private final Map<Class<?>, Integer> idsByType = new HashMap<>();
+    private final Map<Integer, Class<?>> typesById = new HashMap<>();
+
+    public CacheTypeRegistry register(int id, Class<?> type) {
+        if (id <= 0 || id > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Cache type id must be between 1 and " + Short.MAX_VALUE + ": " + id);
+        }
+        if (typesById.containsKey(id) || idsByType.containsKey(type)) {
+            throw new IllegalArgumentException("Duplicate cache type registration: " + id + " -> " + type.getName());
+        }
+        idsByType.put(type, id);
+        typesById.put(id, type);
+        return this;
+    }
+
+    public Integer idOf(Class<?> type) {
+        return idsByType.get(type);
+    }
+
+    public Class<?> typeOf(int id) {
+        return typesById.get(id);
+    }
+
+    public Set<Class<?>> types() {
+        return Collections.unmodifiableSet(idsByType.keySet());
+    }
+}
@@ -0,0 +1,217 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.util.BoundedMaps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts single-flight loading and probabilistic early refresh in front of a cache, for the
+ * {@code @Cacheable(sync = true)} path.
+ * <p>
+ * On a miss one caller runs the loader and every concurrent caller for the same key waits on its
+ * future instead of running the query too. On a hit, the entry is recomputed ahead of its TTL with a
+ * probability that grows as the expiry gets closer and with how long the value took to load (XFetch),
+ * so hot keys are refreshed by a single caller while everyone else keeps being served the cached
+ * value. The loader always runs on the calling thread, since cached methods read the current user.
+ * <p>
+ * Load times are only known for values loaded by this node; entries loaded elsewhere simply expire.
+ */
+@Slf4j
+public class CoalescingCache implements PrefixEvictableCache {
+
+    private final Cache delegate;
+    private final long ttlNanos;
+    private final double beta;
+    private final int maxTrackedKeys;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LoadStamp> stamps = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+    private final Timer loads;
+    private final Timer failedLoads;
+
+    public CoalescingCache(Cache delegate, Duration ttl, double beta, int maxTrackedKeys, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.beta = beta;
+        this.maxTrackedKeys = maxTrackedKeys;
+
+        String name = delegate.getName();
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("cache.loads.coalesced")
+                .description("Misses that waited for a load already running for the same key")
+                .tag("cache", name).register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("cache.refreshes.early")
+                .description("Entries recomputed before their TTL")
+                .tag("cache", name).register(meterRegistry);
+        this.loads = Timer.builder("cache.loads").tag("cache", name).tag("result", "success").register(meterRegistry);
+        this.failedLoads = Timer.builder("cache.loads").tag("cache", name).tag("result", "failure").register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String stampKey = String.valueOf(key);
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            hits.increment();
+            if (!shouldRefreshEarly(stampKey)) {
+                return (T) cached.get();
+            }
+            CompletableFuture<Object> refresh = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(stampKey, refresh) != null) {
+                // somebody is already refreshing it
+                return (T) cached.get();
+            }
+            earlyRefreshes.increment();
+            try {
+                return (T) load(key, stampKey, refresh, valueLoader);
+            } catch (ValueRetrievalException e) {
+                log.warn("Early refresh of {}::{} failed, serving the cached value: {}",
+                        getName(), stampKey, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                return (T) cached.get();
+            }
+        }
+
+        misses.increment();
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(stampKey, mine);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(key, running, valueLoader);
+        }
+        // the previous load may have finished between the read and taking over the key
+        ValueWrapper loaded = delegate.get(key);
+        if (loaded != null) {
+            inFlight.remove(stampKey, mine);
+            mine.complete(loaded.get());
+            return (T) loaded.get();
+        }
+        return (T) load(key, stampKey, mine, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        stamps.remove(String.valueOf(key));
+        delegate.evict(key);
+    }
+
+    @Override
+    public void evictByPrefix(String keyPrefix) {
+        stamps.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        CachePrefixEvictor.evictByPrefix(delegate, keyPrefix);
+    }
+
+    @Override
+    public void clear() {
+        stamps.clear();
+        delegate.clear();
+    }
+
+    private Object load(Object key, String stampKey, CompletableFuture<Object> future, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        try {
+            Object value = valueLoader.call();
+            long end = System.nanoTime();
+            loads.record(end - start, TimeUnit.NANOSECONDS);
+            delegate.put(key, value);
+            stamp(stampKey, new LoadStamp(end + ttlNanos, end - start));
+            future.complete(value);
+            return value;
+        } catch (Exception e) {
+            failedLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(stampKey, future);
+        }
+    }
+
+    private Object await(Object key, CompletableFuture<Object> running, Callable<?> valueLoader) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            // the waiters fail the same way the loading caller did
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    // XFetch: refresh once now - delta * beta * ln(rand) reaches the expiry
+    private boolean shouldRefreshEarly(String stampKey) {
+        LoadStamp stamp = stamps.get(stampKey);
+        if (stamp == null || beta <= 0) {
+            return false;
+        }
+        double gap = -stamp.loadNanos() * beta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + (long) gap - stamp.expiresAtNanos() >= 0;
+    }
+
+    private void stamp(String stampKey, LoadStamp stamp) {
+        if (!stamps.containsKey(stampKey)) {
+            // untracked keys just lose refresh-ahead, so dropping arbitrary ones is fine
+            long now = System.nanoTime();
+            BoundedMaps.makeRoom(stamps, maxTrackedKeys, existing -> now - existing.expiresAtNanos() >= 0);
+        }
+        stamps.put(stampKey, stamp);
+    }
+
+    /**
+     * When this node's copy of the entry expires and how long computing it took.
+     */
+    private record LoadStamp(long expiresAtNanos, long loadNanos) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.cw.scheduler.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of another manager in a {@link CoalescingCache}. {@code ttls} are the entry TTLs
+ * of the underlying store, which the early refresh counts down from.
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final double beta;
+    private final int maxTrackedKeys;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CoalescingCache> caches = new ConcurrentHashMap<>();
+
+    public CoalescingCacheManager(CacheManager delegate, Map<String, Duration> ttls, Duration defaultTtl,
+                                  double beta, int maxTrackedKeys, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttls = Map.copyOf(ttls);
+        this.defaultTtl = defaultTtl;
+        this.beta = beta;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = delegate.getCache(cacheName);
+            return cache != null
+                    ? new CoalescingCache(cache, ttls.getOrDefault(cacheName, defaultTtl), beta, maxTrackedKeys, meterRegistry)
+                    : null;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,368 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache value serializer that replaces per-object class names with registered type ids.
+ * <p>
+ * Layout: {@code version, flags, body}, where the body (gzipped above the threshold) is a
+ * binary header describing the value — {@code ApiResponse} envelope, single/list/page/cursor page, element
+ * type id plus a schema fingerprint — followed by the data as positional JSON arrays. Values
+ * of unregistered types are stored with the fallback serializer. Entries written by another
+ * format version or against a changed DTO read back as a cache miss.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    // 2: pages carry their sort orders
+    static final byte FORMAT_VERSION = 2;
+    private static final byte FLAG_GZIP = 1;
+
+    private static final byte SHAPE_RESPONSE = 1;
+    private static final byte SHAPE_DATA = 2;
+    private static final byte SHAPE_FALLBACK = 3;
+
+    private static final byte KIND_NULL = 0;
+    private static final byte KIND_SINGLE = 1;
+    private static final byte KIND_LIST = 2;
+    private static final byte KIND_PAGE = 3;
+    private static final byte KIND_CURSOR_PAGE = 4;
+
+    private final CacheTypeRegistry registry;
+    private final int compressionThresholdBytes;
+    private final RedisSerializer<Object> fallback;
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, Short> fingerprints = new HashMap<>();
+
+    public CompactCacheSerializer(CacheTypeRegistry registry, int compressionThresholdBytes,
+                                  RedisSerializer<Object> fallback) {
+        this.registry = registry;
+        this.compressionThresholdBytes = compressionThresholdBytes;
+        this.fallback = fallback;
+
+        JsonMapper jsonMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                .build();
+        // registered types are written as arrays of property values, without field names
+        registry.types().forEach(type -> jsonMapper.configOverride(type)
+                .setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.ARRAY)));
+        this.mapper = jsonMapper;
+        registry.types().forEach(type -> fingerprints.put(type, fingerprint(type)));
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] body = encode(value);
+            boolean compress = body.length > compressionThresholdBytes;
+            if (compress) {
+                body = gzip(body);
+            }
+
+            byte[] bytes = new byte[body.length + 2];
+            bytes[0] = FORMAT_VERSION;
+            bytes[1] = compress ? FLAG_GZIP : 0;
+            System.arraycopy(body, 0, bytes, 2, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+            // written by another format; treated as a miss and overwritten on the next put
+            return null;
+        }
+        try {
+            InputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+            if ((bytes[1] & FLAG_GZIP) != 0) {
+                body = new GZIPInputStream(body);
+            }
+            return decode(new DataInputStream(body));
+        } catch (StaleEntryException e) {
+            return null;
+        } catch (IOException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    private byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        if (value instanceof ApiResponse<?> response && isCompact(response.getData())) {
+            out.writeByte(SHAPE_RESPONSE);
+            out.writeBoolean(response.isSuccess());
+            writeNullableString(out, response.getMessage());
+            writeData(out, response.getData());
+        } else if (isCompact(value)) {
+            out.writeByte(SHAPE_DATA);
+            writeData(out, value);
+        } else {
+            out.writeByte(SHAPE_FALLBACK);
+            out.write(fallback.serialize(value));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private Object decode(DataInputStream in) throws IOException {
+        byte shape = in.readByte();
+        switch (shape) {
+            case SHAPE_RESPONSE -> {
+                boolean success = in.readBoolean();
+                String message = readNullableString(in);
+                return new ApiResponse<>(success, message, readData(in));
+            }
+            case SHAPE_DATA -> {
+                return readData(in);
+            }
+            case SHAPE_FALLBACK -> {
+                return fallback.deserialize(in.readAllBytes());
+            }
+            default -> throw new IOException("Unknown cache value shape " + shape);
+        }
+    }
+
+    private boolean isCompact(Object data) {
+        if (data == null) {
+            return true;
+        }
+        if (data instanceof Page<?> page) {
+            return page.getPageable().isPaged() && isHomogeneous(page.getContent());
+        }
+        if (data instanceof CursorPageResponseDTO<?> page) {
+            return isHomogeneous(page.getItems());
+        }
+        if (data instanceof List<?> list) {
+            return isHomogeneous(list);
+        }
+        return registry.idOf(data.getClass()) != null;
+    }
+
+    private boolean isHomogeneous(List<?> list) {
+        if (list.isEmpty()) {
+            return true;
+        }
+        Object first = list.get(0);
+        if (first == null || registry.idOf(first.getClass()) == null) {
+            return false;
+        }
+        return list.stream().allMatch(element -> element != null && element.getClass() == first.getClass());
+    }
+
+    private void writeData(DataOutputStream out, Object data) throws IOException {
+        if (data == null) {
+            out.writeByte(KIND_NULL);
+        } else if (data instanceof Page<?> page) {
+            out.writeByte(KIND_PAGE);
+            out.writeInt(page.getNumber());
+            out.writeInt(page.getSize());
+            out.writeLong(page.getTotalElements());
+            writeSort(out, page.getSort());
+            writeElementType(out, page.getContent());
+            mapper.writeValue((OutputStream) out, page.getContent());
+        } else if (data instanceof CursorPageResponseDTO<?> page) {
+            out.writeByte(KIND_CURSOR_PAGE);
+            writeNullableString(out, page.getNextCursor());
+            out.writeBoolean(page.isHasNext());
+            writeElementType(out, page.getItems());
+            mapper.writeValue((OutputStream) out, page.getItems());
+        } else if (data instanceof List<?> list) {
+            out.writeByte(KIND_LIST);
+            writeElementType(out, list);
+            mapper.writeValue((OutputStream) out, list);
+        } else {
+            out.writeByte(KIND_SINGLE);
+            writeType(out, data.getClass());
+            mapper.writeValue((OutputStream) out, data);
+        }
+    }
+
+    private Object readData(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case KIND_NULL -> {
+                return null;
+            }
+            case KIND_PAGE -> {
+                int number = in.readInt();
+                int size = in.readInt();
+                long total = in.readLong();
+                Sort sort = readSort(in);
+                List<?> content = readList(in);
+                return new PageImpl<>(content, PageRequest.of(number, size, sort), total);
+            }
+            case KIND_CURSOR_PAGE -> {
+                String nextCursor = readNullableString(in);
+                boolean hasNext = in.readBoolean();
+                return new CursorPageResponseDTO<>(readList(in), nextCursor, hasNext);
+            }
+            case KIND_LIST -> {
+                return readList(in);
+            }
+            case KIND_SINGLE -> {
+                return mapper.readValue((InputStream) in, readType(in));
+            }
+            default -> throw new IOException("Unknown cache data kind " + kind);
+        }
+    }
+
+    private static void writeSort(DataOutputStream out, Sort sort) throws IOException {
+        List<Sort.Order> orders = sort.toList();
+        out.writeShort(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeUTF(order.getProperty());
+            out.writeByte(order.getDirection().ordinal());
+            out.writeBoolean(order.isIgnoreCase());
+            out.writeByte(order.getNullHandling().ordinal());
+        }
+    }
+
+    private static Sort readSort(DataInputStream in) throws IOException {
+        int count = in.readShort();
+        if (count == 0) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String property = in.readUTF();
+            Sort.Direction direction = Sort.Direction.values()[in.readByte()];
+            boolean ignoreCase = in.readBoolean();
+            Sort.NullHandling nullHandling = Sort.NullHandling.values()[in.readByte()];
+            Sort.Order order = new Sort.Order(direction, property, nullHandling);
+            orders.add(ignoreCase ? order.ignoreCase() : order);
+        }
+        return Sort.by(orders);
+    }
+
+    private List<?> readList(DataInputStream in) throws IOException {
+        Class<?> elementType = readType(in);
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(ArrayList.class, elementType);
+        return mapper.readValue((InputStream) in, listType);
+    }
+
+    private void writeElementType(DataOutputStream out, List<?> list) throws IOException {
+        if (list.isEmpty()) {
+            out.writeShort(0);
+            out.writeShort(0);
+        } else {
+            writeType(out, list.get(0).getClass());
+        }
+    }
+
+    private void writeType(DataOutputStream out, Class<?> type) throws IOException {
+        out.writeShort(registry.idOf(type));
+        out.writeShort(fingerprints.get(type));
+    }
+
+    private Class<?> readType(DataInputStream in) throws IOException {
+        int id = in.readShort();
+        short fingerprint = in.readShort();
+        if (id == 0) {
+            return Object.class;
+        }
+
+        Class<?> type = registry.typeOf(id);
+        if (type == null || fingerprints.get(type) != fingerprint) {
+            throw new StaleEntryException();
+        }
+        return type;
+    }
+
+    private short fingerprint(Class<?> type) {
+        int hash = layoutHash(type, new HashSet<>());
+        return (short) (hash ^ (hash >>> 16));
+    }
+
+    private int layoutHash(Class<?> type, Set<Class<?>> visiting) {
+        int hash = type.getName().hashCode();
+        if (!visiting.add(type)) {
+            // a type nested in itself is already covered by the enclosing pass
+            return hash;
+        }
+        BeanDescription description = mapper.getSerializationConfig().introspect(mapper.constructType(type));
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            hash = 31 * hash + property.getName().hashCode();
+            hash = 31 * hash + property.getRawPrimaryType().getName().hashCode();
+            hash = 31 * hash + nestedLayoutHash(property.getPrimaryType(), visiting);
+        }
+        visiting.remove(type);
+        return hash;
+    }
+
+    // registered types inside a property (directly or as collection/map content) are positional too
+    private int nestedLayoutHash(JavaType type, Set<Class<?>> visiting) {
+        int hash = 0;
+        for (JavaType current = type; current != null; current = current.getContentType()) {
+            if (registry.idOf(current.getRawClass()) != null) {
+                hash = 31 * hash + layoutHash(current.getRawClass(), visiting);
+            }
+        }
+        return hash;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * The entry refers to a type id or DTO layout this node does not know.
+     */
+    private static class StaleEntryException extends IOException {
+    }
+}
@@ -0,0 +1,79 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.util.BoundedMaps;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size- and TTL-bounded map of cache values held in the JVM, in front of the shared Redis cache.
+ * Values are kept serialized, the same way Redis holds them, and every hit returns a fresh copy:
+ * cached entities and DTOs are mutable, and a caller changing its copy must not change everyone else's.
+ * A cached null is kept as a null entry so it stays distinguishable from a miss.
+ */
+public class LocalCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LocalCachePolicy policy;
+    private final RedisSerializationContext.SerializationPair<Object> values;
+
+    public LocalCache(LocalCachePolicy policy, RedisSerializationContext.SerializationPair<Object> values) {
+        this.policy = policy;
+        this.values = values;
+    }
+
+    public Cache.ValueWrapper get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return new SimpleValueWrapper(entry.value() != null ? values.read(ByteBuffer.wrap(entry.value())) : null);
+    }
+
+    public void put(String key, Cache.ValueWrapper value) {
+        // expired entries go first; a live one dropped beyond that only costs a Redis round trip
+        long now = System.nanoTime();
+        BoundedMaps.makeRoom(entries, policy.maxEntries(), entry -> entry.isExpired(now));
+        entries.put(key, new Entry(serialize(value.get()), now + policy.ttl().toNanos()));
+    }
+
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    public void evictByPrefix(String keyPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer buffer = values.write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private record Entry(byte[] value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.cw.scheduler.cache;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-process copy of a cache: at most {@code maxEntries}, each kept for {@code ttl}.
+ */
+public record LocalCachePolicy(int maxEntries, Duration ttl) {
+}
@@ -0,0 +1,12 @@
+package com.cw.scheduler.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache decorator that can evict keys by prefix through all of its layers, instead of leaving
+ * {@link CachePrefixEvictor} to fall back to clearing it.
+ */
+public interface PrefixEvictableCache extends Cache {
+
+    void evictByPrefix(String keyPrefix);
+}
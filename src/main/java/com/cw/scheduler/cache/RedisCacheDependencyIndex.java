@@ -0,0 +1,65 @@
+package com.cw.scheduler.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * One Redis set per dependency, shared by all nodes. Sets expire after {@code cache.dependencies.ttl}
+ * (refreshed on every registration), which must outlive the longest cache TTL.
+ */
+@Component
+public class RedisCacheDependencyIndex implements CacheDependencyIndex {
+
+    private static final String KEY_PREFIX = "cache:deps:";
+
+    // a registration landing between SMEMBERS and DEL would otherwise be lost
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN = new DefaultRedisScript<>(
+            "local members = redis.call('SMEMBERS', KEYS[1]) " +
+                    "redis.call('DEL', KEYS[1]) " +
+                    "return members", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public RedisCacheDependencyIndex(StringRedisTemplate redisTemplate,
+                                     @Value("${cache.dependencies.ttl:P1D}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void add(Collection<String> dependencyKeys, String entry) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String dependencyKey : dependencyKeys) {
+                    operations.opsForSet().add(KEY_PREFIX + dependencyKey, entry);
+                    operations.expire(KEY_PREFIX + dependencyKey, ttl);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public Set<String> drain(String dependencyKey) {
+        List<?> members = redisTemplate.execute(DRAIN, List.of(KEY_PREFIX + dependencyKey));
+        if (members == null || members.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> entries = new HashSet<>();
+        members.forEach(member -> entries.add(String.valueOf(member)));
+        return entries;
+    }
+}
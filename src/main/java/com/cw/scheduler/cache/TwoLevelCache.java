@@ -0,0 +1,134 @@
+package com.cw.scheduler.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A Redis cache with an in-process L1 in front of it. Reads are served locally when possible;
+ * writes and evictions go to Redis first and are then broadcast so every node drops its L1 copy.
+ * L1 keys use the same string form as the Redis keys.
+ */
+public class TwoLevelCache implements PrefixEvictableCache {
+
+    private final Cache remote;
+    private final LocalCache local;
+    private final CacheInvalidationPublisher publisher;
+
+    public TwoLevelCache(Cache remote, LocalCachePolicy policy, RedisSerializationContext.SerializationPair<Object> values,
+                         CacheInvalidationPublisher publisher) {
+        this.remote = remote;
+        this.local = new LocalCache(policy, values);
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.get(localKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        ValueWrapper loaded = remote.get(key);
+        if (loaded != null) {
+            local.put(localKey, new SimpleValueWrapper(loaded.get()));
+        }
+        return loaded;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.get(localKey);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.get();
+            return value;
+        }
+
+        T value = remote.get(key, valueLoader);
+        local.put(localKey, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        local.put(localKey, new SimpleValueWrapper(value));
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        local.evict(localKey);
+        if (existing == null) {
+            publisher.publishEvict(getName(), localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.evict(localKey);
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public void evictByPrefix(String keyPrefix) {
+        CachePrefixEvictor.evictByPrefix(remote, keyPrefix);
+        local.evictByPrefix(keyPrefix);
+        publisher.publishEvictPrefix(getName(), keyPrefix);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        publisher.publishClear(getName());
+    }
+
+    void evictLocal(String localKey) {
+        local.evict(localKey);
+    }
+
+    void evictLocalByPrefix(String keyPrefix) {
+        local.evictByPrefix(keyPrefix);
+    }
+
+    void clearLocal() {
+        local.clear();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
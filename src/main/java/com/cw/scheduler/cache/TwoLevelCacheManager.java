@@ -0,0 +1,85 @@
+package com.cw.scheduler.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager and puts a local L1 in front of every cache that has a
+ * {@link LocalCachePolicy}; all other caches are returned unchanged. Also receives the
+ * invalidations published by other nodes.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remote;
+    private final Map<String, LocalCachePolicy> localPolicies;
+    private final CacheInvalidationPublisher publisher;
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, Map<String, LocalCachePolicy> localPolicies,
+                                CacheInvalidationPublisher publisher) {
+        this.remote = remote;
+        this.localPolicies = Map.copyOf(localPolicies);
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LocalCachePolicy policy = localPolicies.get(name);
+        if (policy == null) {
+            return remote.getCache(name);
+        }
+
+        return twoLevelCaches.computeIfAbsent(name, cacheName -> {
+            Cache remoteCache = remote.getCache(cacheName);
+            return remoteCache != null
+                    ? new TwoLevelCache(remoteCache, policy, valueSerialization(remoteCache), publisher)
+                    : null;
+        });
+    }
+
+    // the L1 copy is serialized like the Redis value; other remotes fall back to JDK serialization
+    private static RedisSerializationContext.SerializationPair<Object> valueSerialization(Cache remoteCache) {
+        if (remoteCache instanceof RedisCache redisCache) {
+            return redisCache.getCacheConfiguration().getValueSerializationPair();
+        }
+        return RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.java());
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(publisher.getNodeId())) {
+            return;
+        }
+
+        TwoLevelCache cache = twoLevelCaches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else if (parts[2].endsWith("*")) {
+            cache.evictLocalByPrefix(parts[2].substring(0, parts[2].length() - 1));
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Applied remote invalidation of {} in cache {}", parts[2].isEmpty() ? "all keys" : parts[2], parts[1]);
+    }
+}
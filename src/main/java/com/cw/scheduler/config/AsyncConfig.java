@@ -1,23 +1,52 @@
 package com.cw.scheduler.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
 
-    @Bean(name = "emailExecutor")
-    public Executor taskExecutor() {
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        // void @Async methods have no caller to rethrow to
+        return (e, method, params) -> log.error("Async {}.{} failed: {}",
+                method.getDeclaringClass().getSimpleName(), method.getName(), e.getMessage(), e);
+    }
+
+    // one thread per SMTP connection; MailDeliveryEngine never starts more workers than that
+    @Bean(name = "mailExecutor")
+    public Executor mailExecutor(@Value("${mail.delivery.connections:2}") int connections) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(connections);
+        executor.setMaxPoolSize(connections);
+        executor.setQueueCapacity(connections);
+        executor.setThreadNamePrefix("Mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "outboxExecutor")
+    public Executor outboxExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(500);
-        executor.setThreadNamePrefix("Email-Async-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        // a wake-up only needs to run once, extra ones are picked up by the scheduled poll
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("Outbox-");
         executor.initialize();
         return executor;
     }
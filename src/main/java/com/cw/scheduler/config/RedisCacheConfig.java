@@ -1,19 +1,30 @@
 package com.cw.scheduler.config;
 
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
-import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.cw.scheduler.cache.CacheInvalidationPublisher;
+import com.cw.scheduler.cache.CacheSerializers;
+import com.cw.scheduler.cache.CacheTypeRegistry;
+import com.cw.scheduler.cache.CoalescingCacheManager;
+import com.cw.scheduler.cache.LocalCachePolicy;
+import com.cw.scheduler.cache.TwoLevelCacheManager;
+import com.cw.scheduler.dto.response.*;
+import com.cw.scheduler.entity.Authority;
+import com.cw.scheduler.entity.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -23,71 +34,129 @@ import java.util.Map;
 @EnableCaching
 public class RedisCacheConfig {
 
-    @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    private static final Duration DEFAULT_TTL = Duration.ofHours(1);
 
-        // Configure type validator
-        PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
-                .allowIfSubType(Object.class)
-                .build();
+    // TTL of every Redis cache, also what the early refresh counts down from
+    private final Map<String, Duration> ttls = cacheTtls();
 
-        // Configure ObjectMapper
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * The cache manager used by {@code @Cacheable}: single-flight loading and early refresh in front
+     * of the two-level caches.
+     */
+    @Bean
+    @Primary
+    public CoalescingCacheManager cacheManager(TwoLevelCacheManager twoLevelCacheManager,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${cache.early-refresh.beta:1.0}") double beta,
+                                               @Value("${cache.early-refresh.max-tracked-keys:10000}") int maxTrackedKeys) {
+        return new CoalescingCacheManager(twoLevelCacheManager, ttls, DEFAULT_TTL, beta, maxTrackedKeys, meterRegistry);
+    }
 
-        // Store type info as a property instead of wrapper array
-        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+    @Bean
+    public TwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory connectionFactory,
+                                                     StringRedisTemplate stringRedisTemplate,
+                                                     @Value("${cache.serializer:compact}") String serializerName,
+                                                     @Value("${cache.compression-threshold-bytes:1024}") int compressionThresholdBytes) {
 
-        // Create serializer with configured ObjectMapper
-        Jackson2JsonRedisSerializer<Object> serializer =
-                new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        RedisSerializer<Object> serializer = "json".equalsIgnoreCase(serializerName)
+                ? CacheSerializers.defaultTypedJson()
+                : CacheSerializers.compact(cacheTypes(), compressionThresholdBytes);
 
         // Default cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl(DEFAULT_TTL)
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
 
-        // Custom TTLs per cache name
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        cacheConfigurations.put("userProfiles", defaultConfig.entryTtl(Duration.ofHours(6)));
-        cacheConfigurations.put("roles", defaultConfig.entryTtl(Duration.ofDays(1)));
-        cacheConfigurations.put("allUsers", defaultConfig.entryTtl(Duration.ofHours(1)));
-        cacheConfigurations.put("usersByRole", defaultConfig.entryTtl(Duration.ofHours(1)));
-        cacheConfigurations.put("inactiveUsers", defaultConfig.entryTtl(Duration.ofHours(1)));
-        cacheConfigurations.put("activeUsers", defaultConfig.entryTtl(Duration.ofHours(1)));
-        cacheConfigurations.put("userById", defaultConfig.entryTtl(Duration.ofHours(1)));
-
-        cacheConfigurations.put("providerProfiles", defaultConfig.entryTtl(Duration.ofHours(24)));
-        cacheConfigurations.put("providerApplications", defaultConfig.entryTtl(Duration.ofHours(24)));
-
-        cacheConfigurations.put("providerSchedules", defaultConfig.entryTtl(Duration.ofHours(6)));
-        cacheConfigurations.put("allSchedulesByDay", defaultConfig.entryTtl(Duration.ofHours(6)));
-        cacheConfigurations.put("providerScheduleForDay", defaultConfig.entryTtl(Duration.ofHours(6)));
-
-        cacheConfigurations.put("serviceReviews", defaultConfig.entryTtl(Duration.ofHours(12)));
-        cacheConfigurations.put("userReviews", defaultConfig.entryTtl(Duration.ofHours(12)));
-
-        cacheConfigurations.put("providerOfferedServices", defaultConfig.entryTtl(Duration.ofHours(6)));
-        cacheConfigurations.put("allOfferedServices", defaultConfig.entryTtl(Duration.ofHours(3)));
-
-        cacheConfigurations.put("userNotifications", defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        cacheConfigurations.put("userNotificationsByType", defaultConfig.entryTtl(Duration.ofMinutes(30)));
+        ttls.forEach((name, ttl) -> cacheConfigurations.put(name, defaultConfig.entryTtl(ttl)));
+
+        // Hot, rarely changing caches also kept in-process (L1); keep these TTLs well below Redis'
+        Map<String, LocalCachePolicy> localPolicies = new HashMap<>();
+        localPolicies.put("roles", new LocalCachePolicy(100, Duration.ofHours(1)));
+        localPolicies.put("categories", new LocalCachePolicy(100, Duration.ofMinutes(30)));
+        localPolicies.put("categoriesWithServiceCount", new LocalCachePolicy(100, Duration.ofMinutes(10)));
+        localPolicies.put("allOfferedServices", new LocalCachePolicy(50, Duration.ofMinutes(5)));
+        localPolicies.put("individualServicesByOfferedService", new LocalCachePolicy(1_000, Duration.ofMinutes(10)));
+        localPolicies.put("allSchedulesByDay", new LocalCachePolicy(7, Duration.ofMinutes(5)));
+
+        // SCAN instead of KEYS for clear() and prefix evictions of paged caches
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(defaultConfig)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
+        // not a bean of its own, so initialize the configured caches here
+        redisCacheManager.afterPropertiesSet();
 
-        cacheConfigurations.put("individualServicesByOfferedService", defaultConfig.entryTtl(Duration.ofHours(6)));
+        return new TwoLevelCacheManager(redisCacheManager, localPolicies,
+                new CacheInvalidationPublisher(stringRedisTemplate));
+    }
 
-        cacheConfigurations.put("categories", defaultConfig.entryTtl(Duration.ofHours(12)));
-        cacheConfigurations.put("categoriesWithServiceCount", defaultConfig.entryTtl(Duration.ofHours(12)));
+    private static Map<String, Duration> cacheTtls() {
+        // Custom TTLs per cache name
+        Map<String, Duration> ttls = new HashMap<>();
+        ttls.put("userProfiles", Duration.ofHours(6));
+        ttls.put("roles", Duration.ofDays(1));
+        ttls.put("allUsers", Duration.ofHours(1));
+        ttls.put("usersByRole", Duration.ofHours(1));
+        ttls.put("inactiveUsers", Duration.ofHours(1));
+        ttls.put("activeUsers", Duration.ofHours(1));
+        ttls.put("userById", Duration.ofHours(1));
+
+        ttls.put("providerProfiles", Duration.ofHours(24));
+        ttls.put("providerApplications", Duration.ofHours(24));
+
+        ttls.put("providerSchedules", Duration.ofHours(6));
+        ttls.put("allSchedulesByDay", Duration.ofHours(6));
+        ttls.put("providerDaySchedules", Duration.ofHours(6));
+
+        ttls.put("serviceReviews", Duration.ofHours(12));
+        ttls.put("userReviews", Duration.ofHours(12));
+
+        ttls.put("providerOfferedServices", Duration.ofHours(6));
+        ttls.put("allOfferedServices", Duration.ofHours(3));
+
+        ttls.put("individualServicesByOfferedService", Duration.ofHours(6));
+
+        ttls.put("categories", Duration.ofHours(12));
+        ttls.put("categoriesWithServiceCount", Duration.ofHours(12));
+
+        ttls.put("userAppointments", Duration.ofMinutes(30));
+        ttls.put("providerAppointments", Duration.ofMinutes(30));
+        ttls.put("upcomingAppointments", Duration.ofMinutes(30));
+        ttls.put("appointmentsByDate", Duration.ofMinutes(30));
+        return Map.copyOf(ttls);
+    }
 
-        cacheConfigurations.put("userAppointments", defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        cacheConfigurations.put("providerAppointments", defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        cacheConfigurations.put("upcomingAppointments", defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        cacheConfigurations.put("appointmentsByDate", defaultConfig.entryTtl(Duration.ofMinutes(30)));
+    /**
+     * Types stored by the compact serializer. Ids are written into Redis: append new types,
+     * never renumber or reuse an id.
+     */
+    private static CacheTypeRegistry cacheTypes() {
+        return new CacheTypeRegistry()
+                .register(1, AppointmentResponseDTO.class)
+                .register(2, CategoryResponseDTO.class)
+                .register(3, CategoryWithServiceCountDTO.class)
+                .register(4, IndividualServiceResponseDTO.class)
+                .register(5, NotificationResponseDTO.class)
+                .register(6, OfferingServiceResponseDTO.class)
+                .register(7, ProviderScheduleResponseDTO.class)
+                .register(8, ReviewResponseDTO.class)
+                .register(9, ServiceProviderResponseDTO.class)
+                .register(10, UserProfileResponseDTO.class)
+                .register(11, UserResponseDTO.class)
+                .register(12, FreeSlotResponseDTO.class)
+                .register(13, Role.class)
+                .register(14, Authority.class);
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .build();
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
     }
 }
 
@@ -48,9 +48,14 @@ public class AdminProviderController {
     }
 
     @RateLimit(capacity = 15, refillTokens = 3, refillDurationSeconds = 60)
-    @Operation(summary = "Get approved service providers", description = "Retrieves the list of all approved service providers.")
+    @Operation(summary = "Get approved service providers", description = "Retrieves a paginated list of approved service providers, optionally filtered by city and specialization.")
     @GetMapping("/approved")
-    public ResponseEntity<ApiResponse<List<ServiceProviderResponseDTO>>> getApprovedProviders() {
-        return ResponseEntity.ok(adminProviderService.getAllApprovedServiceProviders());
+    public ResponseEntity<ApiResponse<List<ServiceProviderResponseDTO>>> getApprovedProviders(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(adminProviderService.getApprovedServiceProviders(city, specialization, page, size));
     }
 }
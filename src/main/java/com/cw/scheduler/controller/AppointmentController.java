@@ -3,15 +3,14 @@ package com.cw.scheduler.controller;
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.AppointmentRequestDTO;
 import com.cw.scheduler.dto.response.AppointmentResponseDTO;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.FreeSlotResponseDTO;
 import com.cw.scheduler.entity.Appointment;
-import com.cw.scheduler.entity.GoogleCalendarToken;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.AppointmentStatus;
 import com.cw.scheduler.ratelimit.RateLimit;
 import com.cw.scheduler.repository.GoogleCalendarTokenRepository;
 import com.cw.scheduler.service.interfaces.AppointmentService;
-import com.cw.scheduler.service.interfaces.CalendarIntegrationService;
-import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,15 +18,15 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Tag(name = "Appointment APIs")
 @RestController
@@ -39,28 +38,18 @@ public class AppointmentController {
     private final AppointmentService appointmentService;
     private final GoogleAuthorizationCodeFlow googleFlow;
     private final GoogleCalendarTokenRepository tokenRepository;
-    private final CalendarIntegrationService calendarIntegrationService;
 
     @RateLimit(capacity = 10, refillTokens = 3, refillDurationSeconds = 60)
     @Operation(summary = "Book appointment", description = "Books a new appointment for the logged-in customer. Handles Google Calendar integration consent flow.")
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<Map<String, String>> bookAppointment(@RequestBody @Valid AppointmentRequestDTO dto, HttpServletResponse response) throws IOException {
+    public ResponseEntity<Map<String, String>> bookAppointment(@RequestBody @Valid AppointmentRequestDTO dto, HttpServletResponse response) {
         Appointment appointment = appointmentService.bookAppointmentAndReturnEntity(dto);
         User user = appointment.getUser();
 
-        // If token exists, skip consent screen
-        Optional<GoogleCalendarToken> existingToken = tokenRepository.findById(user.getId());
-        if (existingToken.isPresent()) {
-            try {
-                Credential credential = calendarIntegrationService.getCredentialForUser(user, googleFlow);
-                String eventId = calendarIntegrationService.addEventToCalendar(appointment, user, credential);
-                appointment.setCalendarEventId(eventId);
-                appointmentService.save(appointment);
-                return ResponseEntity.ok(Map.of("redirect", "http://localhost:8085/api/v1/appointments/my"));
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        // If token exists, skip consent screen; the calendar event is added in the background
+        if (tokenRepository.existsById(user.getId())) {
+            return ResponseEntity.ok(Map.of("redirect", "http://localhost:8085/api/v1/appointments/my"));
         }
 
         // Else ask for consent
@@ -75,11 +64,13 @@ public class AppointmentController {
     }
 
     @RateLimit(capacity = 15, refillTokens = 5, refillDurationSeconds = 60)
-    @Operation(summary = "Get my appointments", description = "Fetches all appointments booked by the logged-in customer.")
+    @Operation(summary = "Get my appointments", description = "Fetches a page of appointments booked by the logged-in customer, oldest first. Pass nextCursor back as cursor for the next page.")
     @GetMapping("/my")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<ApiResponse<List<AppointmentResponseDTO>>> getMyAppointments() {
-        return ResponseEntity.ok(appointmentService.getAppointmentsForCurrentUser());
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>>> getMyAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.getAppointmentsForCurrentUser(cursor, size));
     }
 
     @RateLimit(capacity = 10, refillTokens = 3, refillDurationSeconds = 60)
@@ -91,19 +82,33 @@ public class AppointmentController {
     }
 
     @RateLimit(capacity = 15, refillTokens = 5, refillDurationSeconds = 60)
-    @Operation(summary = "Get provider appointments", description = "Fetches all appointments for the logged-in service provider.")
+    @Operation(summary = "Get provider appointments", description = "Fetches a page of appointments for the logged-in service provider, oldest first. Pass nextCursor back as cursor for the next page.")
     @GetMapping("/provider")
     @PreAuthorize("hasRole('SERVICE_PROVIDER')")
-    public ResponseEntity<ApiResponse<List<AppointmentResponseDTO>>> getProviderAppointments() {
-        return ResponseEntity.ok(appointmentService.getProviderAppointments());
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>>> getProviderAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.getProviderAppointments(cursor, size));
     }
 
     @RateLimit(capacity = 15, refillTokens = 5, refillDurationSeconds = 60)
-    @Operation(summary = "Get upcoming appointments", description = "Fetches upcoming appointments for the logged-in service provider.")
+    @Operation(summary = "Get upcoming appointments", description = "Fetches a page of upcoming appointments for the logged-in service provider. Pass nextCursor back as cursor for the next page.")
     @GetMapping("/provider/upcoming")
     @PreAuthorize("hasRole('SERVICE_PROVIDER')")
-    public ResponseEntity<ApiResponse<List<AppointmentResponseDTO>>> getUpcomingAppointments() {
-        return ResponseEntity.ok(appointmentService.getUpcomingAppointments());
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>>> getUpcomingAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.getUpcomingAppointments(cursor, size));
+    }
+
+    @RateLimit(capacity = 2, refillTokens = 1, refillDurationSeconds = 60)
+    @Operation(summary = "Export provider appointments", description = "Streams the full appointment history of the logged-in service provider as a JSON array.")
+    @GetMapping(value = "/provider/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('SERVICE_PROVIDER')")
+    public ResponseEntity<StreamingResponseBody> exportProviderAppointments() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(appointmentService.exportProviderAppointments());
     }
 
     @RateLimit(capacity = 10, refillTokens = 3, refillDurationSeconds = 60)
@@ -124,6 +129,17 @@ public class AppointmentController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         return ResponseEntity.ok(appointmentService.getAppointmentsForDate(date));
     }
+
+    @RateLimit(capacity = 30, refillTokens = 10, refillDurationSeconds = 60)
+    @Operation(summary = "Search free slots", description = "Lists the free time ranges of a provider, or of the provider offering a service, between two dates.")
+    @GetMapping("/free-slots")
+    public ResponseEntity<ApiResponse<List<FreeSlotResponseDTO>>> getFreeSlots(
+            @RequestParam(required = false) Long providerId,
+            @RequestParam(required = false) Long individualServiceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(appointmentService.getFreeSlots(providerId, individualServiceId, from, to));
+    }
 }
 
 
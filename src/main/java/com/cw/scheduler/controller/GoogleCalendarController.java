@@ -54,10 +54,11 @@ public class GoogleCalendarController {
         );
         tokenRepository.save(tokenEntity);
 
-        // Add event
-        String eventId = calendarIntegrationService.addEventToCalendar(appointment, user, credential);
-        appointment.setCalendarEventId(eventId);
-        appointmentRepository.save(appointment);
+        // Add event, unless the outbox dispatcher already did
+        if (appointment.getCalendarEventId() == null) {
+            String eventId = calendarIntegrationService.addEventToCalendar(appointment, user, credential);
+            appointmentRepository.updateCalendarEventId(appointment.getId(), eventId);
+        }
 
         response.sendRedirect("http://localhost:8085/api/v1/appointments/my");
     }
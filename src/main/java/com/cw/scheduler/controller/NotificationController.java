@@ -1,7 +1,10 @@
 package com.cw.scheduler.controller;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.NotificationInboxResponseDTO;
 import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
 import com.cw.scheduler.entity.enums.NotificationType;
 import com.cw.scheduler.ratelimit.RateLimit;
 import com.cw.scheduler.service.interfaces.NotificationService;
@@ -10,10 +13,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
@@ -26,18 +26,43 @@ public class NotificationController {
 
     private final NotificationService notificationService;
 
-    @RateLimit(capacity = 15, refillTokens = 3, refillDurationSeconds = 60)
-    @Operation(summary = "Get my notifications", description = "Retrieves all notifications for the logged-in user.")
+    @RateLimit(capacity = 30, refillTokens = 10, refillDurationSeconds = 60)
+    @Operation(summary = "Get my notification inbox", description = "Retrieves the unread count and a page of notifications for the logged-in user, newest first.")
     @GetMapping
-    public ResponseEntity<ApiResponse<List<NotificationResponseDTO>>> getMyNotifications() {
-        return ResponseEntity.ok(notificationService.getNotificationsForUser());
+    public ResponseEntity<ApiResponse<NotificationInboxResponseDTO>> getMyNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getInbox(cursor, size));
+    }
+
+    @RateLimit(capacity = 30, refillTokens = 10, refillDurationSeconds = 60)
+    @Operation(summary = "Mark a notification as read", description = "Marks one of the logged-in user's notifications as read.")
+    @PatchMapping("/{notificationId}/read")
+    public ResponseEntity<ApiResponse<String>> markAsRead(@PathVariable Long notificationId) {
+        return ResponseEntity.ok(notificationService.markAsRead(notificationId));
+    }
+
+    @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
+    @Operation(summary = "Mark all notifications as read", description = "Marks every unread notification of the logged-in user as read.")
+    @PatchMapping("/read-all")
+    public ResponseEntity<ApiResponse<Integer>> markAllAsRead() {
+        return ResponseEntity.ok(notificationService.markAllAsRead());
     }
 
     @RateLimit(capacity = 15, refillTokens = 3, refillDurationSeconds = 60)
-    @Operation(summary = "Get my notifications by type", description = "Retrieves notifications filtered by a specific notification type for the logged-in user.")
+    @Operation(summary = "Get my notifications by type", description = "Retrieves a page of notifications of a specific type for the logged-in user, newest first.")
     @GetMapping("/type")
-    public ResponseEntity<ApiResponse<List<NotificationResponseDTO>>> getMyNotificationsByType(
-            @RequestParam NotificationType type) {
-        return ResponseEntity.ok(notificationService.getNotificationsForUserByType(type));
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<NotificationResponseDTO>>> getMyNotificationsByType(
+            @RequestParam NotificationType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getNotificationsForUserByType(type, cursor, size));
+    }
+
+    @RateLimit(capacity = 15, refillTokens = 3, refillDurationSeconds = 60)
+    @Operation(summary = "Get my notification summary", description = "Retrieves total and unread notification counts per type for the logged-in user.")
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<List<NotificationTypeCountDTO>>> getMyNotificationSummary() {
+        return ResponseEntity.ok(notificationService.getNotificationSummary());
     }
 }
@@ -2,13 +2,16 @@ package com.cw.scheduler.controller;
 
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.CreateOfferingServiceRequestDTO;
+import com.cw.scheduler.dto.request.ServiceSearchRequestDTO;
 import com.cw.scheduler.dto.response.OfferingServiceResponseDTO;
+import com.cw.scheduler.dto.response.ServiceSearchResultDTO;
 import com.cw.scheduler.ratelimit.RateLimit;
 import com.cw.scheduler.service.interfaces.OfferingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -53,4 +56,13 @@ public class OfferedServiceController {
     ) {
         return ResponseEntity.ok(offeringService.getAllServices(page, size));
     }
+
+    @Operation(summary = "Search offered services", description = "Searches services of approved providers by text over service name, description and provider specialization, filtered by category, city, pin code, minimum rating and price range.")
+    @RateLimit(capacity = 30, refillTokens = 10, refillDurationSeconds = 60)
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponse<List<ServiceSearchResultDTO>>> searchServices(
+            @Valid @ParameterObject ServiceSearchRequestDTO request) {
+        return ResponseEntity.ok(offeringService.searchServices(request));
+    }
 }
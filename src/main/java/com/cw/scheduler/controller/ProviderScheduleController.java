@@ -1,19 +1,26 @@
 package com.cw.scheduler.controller;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.request.BulkScheduleRequestDTO;
 import com.cw.scheduler.dto.request.ProviderScheduleRequestDTO;
+import com.cw.scheduler.dto.request.ScheduleOverrideRequestDTO;
 import com.cw.scheduler.dto.response.ProviderScheduleResponseDTO;
+import com.cw.scheduler.dto.response.ScheduleOverrideResponseDTO;
 import com.cw.scheduler.ratelimit.RateLimit;
 import com.cw.scheduler.service.interfaces.ProviderScheduleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -33,6 +40,13 @@ public class ProviderScheduleController {
         return new ResponseEntity<>(scheduleService.createSchedule(dto), HttpStatus.CREATED);
     }
 
+    @RateLimit(capacity = 5, refillTokens = 1, refillDurationSeconds = 60)
+    @Operation(summary = "Save weekly schedule", description = "Creates or replaces the weekly schedule windows of the logged-in service provider in one request. All entries are validated together and written in one transaction.")
+    @PutMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<ProviderScheduleResponseDTO>>> saveWeeklySchedule(@RequestBody @Valid BulkScheduleRequestDTO dto) {
+        return ResponseEntity.ok(scheduleService.saveWeeklySchedule(dto));
+    }
+
     @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
     @Operation(summary = "Get my schedules", description = "Retrieves all schedules for the logged-in service provider.")
     @GetMapping
@@ -41,9 +55,9 @@ public class ProviderScheduleController {
     }
 
     @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
-    @Operation(summary = "Get schedule for a day", description = "Retrieves the schedule for the logged-in service provider for a specific day.")
+    @Operation(summary = "Get schedule for a day", description = "Retrieves the schedule windows of the logged-in service provider for a specific day.")
     @GetMapping("/day")
-    public ResponseEntity<ApiResponse<ProviderScheduleResponseDTO>> getScheduleForDay(
+    public ResponseEntity<ApiResponse<List<ProviderScheduleResponseDTO>>> getScheduleForDay(
             @RequestParam String day) {
         DayOfWeek dayOfWeek;
         try {
@@ -79,4 +93,38 @@ public class ProviderScheduleController {
         LocalTime parsedTime = LocalTime.parse(time);
         return ResponseEntity.ok(scheduleService.isProviderAvailable(providerId, dayOfWeek, parsedTime));
     }
+
+    @RateLimit(capacity = 20, refillTokens = 5, refillDurationSeconds = 60)
+    @Operation(summary = "Check provider availability for a service", description = "Checks if the provider can take the service at a date and time: the whole service duration must fit in a working window (date overrides included) and be free of bookings.")
+    @GetMapping("/available-at")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'SERVICE_PROVIDER')")
+    public ResponseEntity<Boolean> isProviderAvailableAt(
+            @RequestParam Long providerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestParam Long individualServiceId) {
+        return ResponseEntity.ok(scheduleService.isProviderAvailableAt(providerId, dateTime, individualServiceId));
+    }
+
+    @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
+    @Operation(summary = "Create schedule override", description = "Replaces the weekly schedule on one date: AVAILABLE windows become that date's only windows, UNAVAILABLE or HOLIDAY closes it.")
+    @PostMapping("/overrides")
+    public ResponseEntity<ApiResponse<ScheduleOverrideResponseDTO>> createOverride(@RequestBody @Valid ScheduleOverrideRequestDTO dto) {
+        return new ResponseEntity<>(scheduleService.createOverride(dto), HttpStatus.CREATED);
+    }
+
+    @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
+    @Operation(summary = "Get my schedule overrides", description = "Lists the schedule overrides of the logged-in service provider between two dates.")
+    @GetMapping("/overrides")
+    public ResponseEntity<ApiResponse<List<ScheduleOverrideResponseDTO>>> getOverrides(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(scheduleService.getOverrides(from, to));
+    }
+
+    @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
+    @Operation(summary = "Delete schedule override", description = "Removes a schedule override; the weekly schedule applies again once a date has none left.")
+    @DeleteMapping("/overrides/{id}")
+    public ResponseEntity<ApiResponse<String>> deleteOverride(@PathVariable Long id) {
+        return ResponseEntity.ok(scheduleService.deleteOverride(id));
+    }
 }
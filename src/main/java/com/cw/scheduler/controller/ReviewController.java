@@ -2,6 +2,7 @@ package com.cw.scheduler.controller;
 
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.ReviewRequestDTO;
+import com.cw.scheduler.dto.response.RatingSummaryResponseDTO;
 import com.cw.scheduler.dto.response.ReviewResponseDTO;
 import com.cw.scheduler.ratelimit.RateLimit;
 import com.cw.scheduler.service.interfaces.ReviewService;
@@ -33,17 +34,36 @@ public class ReviewController {
     }
 
     @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
-    @Operation(summary = "Get reviews for a service", description = "Retrieves all reviews for a specific service by service ID.")
+    @Operation(summary = "Get reviews for a service", description = "Retrieves a page of reviews for a specific service, newest first.")
     @GetMapping("/service/{serviceId}")
-    public ResponseEntity<ApiResponse<List<ReviewResponseDTO>>> getReviewsByService(@PathVariable Long serviceId) {
-        return ResponseEntity.ok(reviewService.getReviewsByService(serviceId));
+    public ResponseEntity<ApiResponse<List<ReviewResponseDTO>>> getReviewsByService(
+            @PathVariable Long serviceId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(reviewService.getReviewsByService(serviceId, page, size));
+    }
+
+    @RateLimit(capacity = 20, refillTokens = 5, refillDurationSeconds = 60)
+    @Operation(summary = "Get service rating", description = "Retrieves the review count, average rating and star histogram of a service.")
+    @GetMapping("/service/{serviceId}/summary")
+    public ResponseEntity<ApiResponse<RatingSummaryResponseDTO>> getServiceRating(@PathVariable Long serviceId) {
+        return ResponseEntity.ok(reviewService.getServiceRating(serviceId));
+    }
+
+    @RateLimit(capacity = 20, refillTokens = 5, refillDurationSeconds = 60)
+    @Operation(summary = "Get provider rating", description = "Retrieves the review count, average rating and star histogram across all services of a provider.")
+    @GetMapping("/provider/{providerId}/summary")
+    public ResponseEntity<ApiResponse<RatingSummaryResponseDTO>> getProviderRating(@PathVariable Long providerId) {
+        return ResponseEntity.ok(reviewService.getProviderRating(providerId));
     }
 
     @RateLimit(capacity = 10, refillTokens = 2, refillDurationSeconds = 60)
-    @Operation(summary = "Get my reviews", description = "Retrieves all reviews submitted by the logged-in user.")
+    @Operation(summary = "Get my reviews", description = "Retrieves a page of reviews submitted by the logged-in user, newest first.")
     @GetMapping("/user")
-    public ResponseEntity<ApiResponse<List<ReviewResponseDTO>>> getReviewsByUser() {
-        return ResponseEntity.ok(reviewService.getReviewsByUser());
+    public ResponseEntity<ApiResponse<List<ReviewResponseDTO>>> getReviewsByUser(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(reviewService.getReviewsByUser(page, size));
     }
 }
 
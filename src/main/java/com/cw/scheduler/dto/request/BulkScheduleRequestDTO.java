@@ -0,0 +1,18 @@
+package com.cw.scheduler.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkScheduleRequestDTO {
+    @NotEmpty(message = "At least one schedule entry is required")
+    @Size(max = 500, message = "At most 500 schedule entries per request")
+    private List<ProviderScheduleRequestDTO> entries;
+
+    // true: the entries become the whole weekly schedule of the services they name
+    // false: the entries are added next to the existing windows
+    private boolean replaceExisting = true;
+}
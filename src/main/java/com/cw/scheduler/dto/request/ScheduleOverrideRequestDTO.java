@@ -0,0 +1,25 @@
+package com.cw.scheduler.dto.request;
+
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class ScheduleOverrideRequestDTO {
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    // both null for UNAVAILABLE / HOLIDAY, which close the whole date
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    @NotNull(message = "Availability status is required")
+    private AvailabilityStatus status;
+
+    @Size(max = 255, message = "Reason must be at most 255 characters")
+    private String reason;
+}
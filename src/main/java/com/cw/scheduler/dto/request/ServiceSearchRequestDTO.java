@@ -0,0 +1,44 @@
+package com.cw.scheduler.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceSearchRequestDTO {
+
+    // matched against service name/description and provider specialization
+    @Size(min = 3, max = 100, message = "Search text must be between 3 and 100 characters")
+    private String q;
+
+    private Long categoryId;
+
+    private String city;
+
+    private String pinCode;
+
+    @DecimalMin(value = "0.0", message = "Minimum rating cannot be negative")
+    @DecimalMax(value = "5.0", message = "Minimum rating cannot exceed 5")
+    private Double minRating;
+
+    @PositiveOrZero(message = "Minimum price cannot be negative")
+    private Double minPrice;
+
+    @PositiveOrZero(message = "Maximum price cannot be negative")
+    private Double maxPrice;
+
+    @Min(value = 0, message = "Page cannot be negative")
+    private int page = 0;
+
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 100, message = "Size cannot exceed 100")
+    private int size = 20;
+}
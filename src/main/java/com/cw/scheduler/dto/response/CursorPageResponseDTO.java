@@ -0,0 +1,17 @@
+package com.cw.scheduler.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponseDTO<T> {
+    private List<T> items;
+    // pass back as ?cursor= to get the next page; null on the last page
+    private String nextCursor;
+    private boolean hasNext;
+}
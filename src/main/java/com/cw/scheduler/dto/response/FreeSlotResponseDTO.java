@@ -0,0 +1,17 @@
+package com.cw.scheduler.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FreeSlotResponseDTO {
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
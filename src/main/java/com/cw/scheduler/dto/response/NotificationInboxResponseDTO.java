@@ -0,0 +1,18 @@
+package com.cw.scheduler.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationInboxResponseDTO {
+    private long unreadCount;
+    private List<NotificationResponseDTO> items;
+    // pass back as ?cursor= to get older notifications; null on the last page
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -15,4 +15,5 @@ public class NotificationResponseDTO {
     private String message;
     private LocalDateTime sentAt;
     private NotificationType type;
+    private boolean read;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.cw.scheduler.dto.response;
+
+import com.cw.scheduler.entity.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationTypeCountDTO {
+    private NotificationType type;
+    private Long total;
+    private Long unread;
+}
@@ -0,0 +1,17 @@
+package com.cw.scheduler.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingSummaryResponseDTO {
+    private long reviewCount;
+    private double averageRating;
+    // star (1-5) -> number of reviews
+    private Map<Integer, Long> starCounts;
+}
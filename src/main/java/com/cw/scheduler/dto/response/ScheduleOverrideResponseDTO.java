@@ -0,0 +1,21 @@
+package com.cw.scheduler.dto.response;
+
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleOverrideResponseDTO {
+    private Long id;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private AvailabilityStatus status;
+    private String reason;
+}
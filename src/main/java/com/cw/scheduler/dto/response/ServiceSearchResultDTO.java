@@ -0,0 +1,24 @@
+package com.cw.scheduler.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceSearchResultDTO {
+    private Long serviceId;
+    private String serviceName;
+    private String description;
+    private String categoryName;
+    private Long providerId;
+    private String providerName;
+    private String businessName;
+    private String city;
+    private String specialization;
+    private double rating;
+    // price range of the service's individual services, null when it has none
+    private Double minPrice;
+    private Double maxPrice;
+}
@@ -16,7 +16,11 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // back the keyset listings ordered by (appointment_time, id)
+        @Index(name = "idx_appointments_provider_time_id", columnList = "provider_id, appointment_time, id"),
+        @Index(name = "idx_appointments_user_time_id", columnList = "user_id, appointment_time, id")
+})
 public class Appointment {
 
     @Id
@@ -40,9 +44,20 @@ public class Appointment {
 
     private LocalDateTime appointmentTime;
 
+    // appointmentTime + service duration, backs the overlap exclusion constraint
+    private LocalDateTime appointmentEndTime;
+
     @Enumerated(EnumType.STRING)
     private AppointmentStatus status;
 
+    // set once the reminder is handed to the outbox, so no node sends it twice
+    private LocalDateTime reminderSentAt;
+
+    // bumped on every update; outbox events are keyed by the version their transition produced
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
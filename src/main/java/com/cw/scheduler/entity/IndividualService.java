@@ -11,7 +11,9 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "individual_services")
+@Table(name = "individual_services", indexes = {
+        @Index(name = "idx_individual_services_service_price", columnList = "offered_service_id, price")
+})
 public class IndividualService {
 
     @Id
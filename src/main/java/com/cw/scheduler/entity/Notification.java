@@ -12,10 +12,15 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_sent", columnList = "user_id, sent_at, id"),
+        @Index(name = "idx_notifications_user_type_sent", columnList = "user_id, type, sent_at, id")
+})
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence ids let Hibernate batch the write-behind inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -26,6 +31,9 @@ public class Notification {
 
     private LocalDateTime sentAt;
 
+    // null until the user reads it
+    private LocalDateTime readAt;
+
     @Enumerated(EnumType.STRING)
     private NotificationType type;
 }
@@ -12,7 +12,10 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "services")
+@Table(name = "services", indexes = {
+        @Index(name = "idx_services_category", columnList = "category_id"),
+        @Index(name = "idx_services_provider", columnList = "provider_id")
+})
 public class OfferedService {
 
     @Id
@@ -0,0 +1,63 @@
+package com.cw.scheduler.entity;
+
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.entity.enums.OutboxStatus;
+import com.cw.scheduler.entity.enums.OutboxStep;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType eventType;
+
+    // id of the appointment the event is about
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // steps already applied, skipped when the event is retried
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "outbox_event_steps", joinColumns = @JoinColumn(name = "outbox_event_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "step")
+    private Set<OutboxStep> completedSteps = EnumSet.noneOf(OutboxStep.class);
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
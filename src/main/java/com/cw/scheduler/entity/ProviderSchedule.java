@@ -16,7 +16,8 @@ import java.time.LocalTime;
 public class ProviderSchedule {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provider_schedule_seq")
+    @SequenceGenerator(name = "provider_schedule_seq", sequenceName = "provider_schedule_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
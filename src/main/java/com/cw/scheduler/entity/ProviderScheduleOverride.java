@@ -0,0 +1,43 @@
+package com.cw.scheduler.entity;
+
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Replaces a provider's weekly windows on one date. The AVAILABLE rows of a date are its only
+ * working windows; a date with just UNAVAILABLE or HOLIDAY rows is closed.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "provider_schedule_overrides", indexes = {
+        @Index(name = "idx_schedule_overrides_provider_date", columnList = "provider_id, override_date")
+})
+public class ProviderScheduleOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "provider_id", nullable = false)
+    private ServiceProvider provider;
+
+    @Column(name = "override_date", nullable = false)
+    private LocalDate date;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    private AvailabilityStatus status;
+
+    private String reason;
+}
@@ -0,0 +1,47 @@
+package com.cw.scheduler.entity;
+
+import com.cw.scheduler.entity.enums.RatingScope;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running review totals of one offered service or one provider, maintained on every review insert
+ * by {@code RatingAggregateRepository.addRating} and rebuilt from the reviews table by the reconcile job.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "rating_aggregates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rating_aggregates_scope_target", columnNames = {"scope", "target_id"})
+})
+public class RatingAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RatingScope scope;
+
+    // offered service id or provider id, depending on the scope
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    private long reviewCount;
+    private long ratingSum;
+
+    // histogram by star
+    private long stars1;
+    private long stars2;
+    private long stars3;
+    private long stars4;
+    private long stars5;
+
+    private LocalDateTime updatedAt;
+}
@@ -16,7 +16,11 @@ import java.util.List;
 @NoArgsConstructor
 @Data
 @Builder
-@Table(name = "service_providers")
+@Table(name = "service_providers", indexes = {
+        @Index(name = "idx_service_providers_status_id", columnList = "application_status, id"),
+        @Index(name = "idx_service_providers_status_date", columnList = "application_status, application_date"),
+        @Index(name = "idx_service_providers_status_pin", columnList = "application_status, pin_code")
+})
 public class ServiceProvider {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -4,5 +4,5 @@ public enum NotificationType {
     REGISTRATION,
     APPLICATION_APPROVED,
     APPLICATION_REJECTED,
-    APPOINTMENT_CONFIRMED, APPOINTMENT_CANCELLED
+    APPOINTMENT_CONFIRMED, APPOINTMENT_CANCELLED, APPOINTMENT_REMINDER
 }
@@ -0,0 +1,19 @@
+package com.cw.scheduler.entity.enums;
+
+import java.util.List;
+
+public enum OutboxEventType {
+    APPOINTMENT_BOOKED(List.of(OutboxStep.CACHE, OutboxStep.NOTIFICATION, OutboxStep.EMAIL, OutboxStep.CALENDAR)),
+    APPOINTMENT_CANCELLED(List.of(OutboxStep.CACHE, OutboxStep.NOTIFICATION, OutboxStep.EMAIL, OutboxStep.CALENDAR)),
+    APPOINTMENT_REMINDER(List.of(OutboxStep.NOTIFICATION, OutboxStep.EMAIL));
+
+    private final List<OutboxStep> steps;
+
+    OutboxEventType(List<OutboxStep> steps) {
+        this.steps = steps;
+    }
+
+    public List<OutboxStep> getSteps() {
+        return steps;
+    }
+}
@@ -0,0 +1,5 @@
+package com.cw.scheduler.entity.enums;
+
+public enum RatingScope {
+    SERVICE, PROVIDER
+}
@@ -0,0 +1,35 @@
+package com.cw.scheduler.mail;
+
+import java.util.List;
+
+/**
+ * Every email the application sends, with its template under {@code resources/templates} and the
+ * variables it expects. Callers name templates only through this enum, so each has one cache key.
+ */
+public enum EmailTemplate {
+    WELCOME("welcome-email", "username", "loginUrl"),
+    APPLICATION_APPROVED("approval-email", "name", "dashboardUrl"),
+    APPLICATION_REJECTED("rejection-email", "name", "rejectionReason"),
+    APPOINTMENT_CONFIRMED("appointment-confirmation",
+            "name", "serviceName", "providerName", "appointmentDate", "appointmentTime", "dashboardUrl"),
+    APPOINTMENT_CANCELLED("appointment-cancellation",
+            "name", "serviceName", "providerName", "appointmentDate", "appointmentTime", "dashboardUrl"),
+    APPOINTMENT_REMINDER("appointment-reminder",
+            "name", "serviceName", "providerName", "appointmentDate", "appointmentTime", "dashboardUrl");
+
+    private final String templateName;
+    private final List<String> variables;
+
+    EmailTemplate(String templateName, String... variables) {
+        this.templateName = templateName;
+        this.variables = List.of(variables);
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+}
@@ -0,0 +1,132 @@
+package com.cw.scheduler.mail;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders {@link EmailTemplate}s. At startup every template is parsed once (filling the Thymeleaf
+ * template cache) and, when its output depends on its variables only through escaped substitution,
+ * pre-rendered into literal fragments around the variable slots. Such templates are then rendered by
+ * concatenation; any other template falls back to Thymeleaf. A template file that is missing fails startup.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+
+    private static final Pattern SLOT = Pattern.compile("__slot_(\\d+)__");
+    // exercises every character the escaping would touch
+    private static final String PROBE_VALUE = "A&B <b>\"quoted\" 'single'</b> é";
+
+    private final ITemplateEngine templateEngine;
+    private final Map<EmailTemplate, PrecompiledTemplate> precompiled = new EnumMap<>(EmailTemplate.class);
+
+    public EmailTemplateRenderer(ITemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    @PostConstruct
+    public void preload() {
+        Set<String> unused = new TreeSet<>(templateFiles());
+        for (EmailTemplate template : EmailTemplate.values()) {
+            if (!unused.remove(template.getTemplateName())) {
+                throw new IllegalStateException("Missing email template templates/" + template.getTemplateName() + ".html");
+            }
+
+            PrecompiledTemplate compiled = precompile(template);
+            if (compiled != null) {
+                precompiled.put(template, compiled);
+            } else {
+                log.info("Email template {} has variable-dependent structure, rendering it with Thymeleaf", template);
+            }
+        }
+        if (!unused.isEmpty()) {
+            log.warn("Templates without an EmailTemplate entry: {}", unused);
+        }
+        log.info("Preloaded {} email templates, {} pre-rendered", EmailTemplate.values().length, precompiled.size());
+    }
+
+    public String render(EmailTemplate template, Map<String, ?> variables) {
+        for (String name : template.getVariables()) {
+            if (variables.get(name) == null) {
+                throw new IllegalArgumentException("Missing variable '" + name + "' for email template " + template);
+            }
+        }
+
+        PrecompiledTemplate compiled = precompiled.get(template);
+        return compiled != null ? compiled.render(variables) : renderWithThymeleaf(template, variables);
+    }
+
+    public boolean isPrecompiled(EmailTemplate template) {
+        return precompiled.containsKey(template);
+    }
+
+    String renderWithThymeleaf(EmailTemplate template, Map<String, ?> variables) {
+        Context context = new Context(Locale.ROOT);
+        variables.forEach(context::setVariable);
+        return templateEngine.process(template.getTemplateName(), context);
+    }
+
+    /**
+     * Renders the template with a marker in every variable, splits the output at the markers and keeps
+     * the result only if it reproduces a real render of awkward values exactly.
+     */
+    private PrecompiledTemplate precompile(EmailTemplate template) {
+        List<String> names = template.getVariables();
+        Map<String, Object> markers = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            markers.put(names.get(i), "__slot_" + i + "__");
+        }
+
+        String skeleton = renderWithThymeleaf(template, markers);
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher matcher = SLOT.matcher(skeleton);
+        int position = 0;
+        while (matcher.find()) {
+            literals.add(skeleton.substring(position, matcher.start()));
+            slots.add(names.get(Integer.parseInt(matcher.group(1))));
+            position = matcher.end();
+        }
+        literals.add(skeleton.substring(position));
+        PrecompiledTemplate compiled = new PrecompiledTemplate(literals, slots);
+
+        Map<String, Object> probe = new HashMap<>();
+        names.forEach(name -> probe.put(name, PROBE_VALUE + name));
+        return compiled.render(probe).equals(renderWithThymeleaf(template, probe)) ? compiled : null;
+    }
+
+    private static Set<String> templateFiles() {
+        Set<String> names = new HashSet<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:templates/*.html")) {
+                String filename = Objects.requireNonNull(resource.getFilename());
+                names.add(filename.substring(0, filename.length() - ".html".length()));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list email templates", e);
+        }
+        return names;
+    }
+
+    private record PrecompiledTemplate(List<String> literals, List<String> slots) {
+
+        String render(Map<String, ?> variables) {
+            StringBuilder out = new StringBuilder(literals.stream().mapToInt(String::length).sum() + 64 * slots.size());
+            for (int i = 0; i < slots.size(); i++) {
+                out.append(literals.get(i)).append(HtmlEscape.escapeHtml4Xml(String.valueOf(variables.get(slots.get(i)))));
+            }
+            return out.append(literals.get(slots.size())).toString();
+        }
+    }
+}
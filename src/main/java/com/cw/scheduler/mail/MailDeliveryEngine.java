@@ -0,0 +1,199 @@
+package com.cw.scheduler.mail;
+
+import com.cw.scheduler.entity.MailMessage;
+import com.cw.scheduler.service.interfaces.MailQueueService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers mail from the persistent {@code mail_messages} queue. Up to {@code mail.delivery.connections}
+ * workers each claim batches and push them through one {@link SmtpConnection}, so a burst is sent over
+ * a handful of connections. Failed messages are retried with exponential backoff by {@link MailQueueService};
+ * invalid recipients are not retried.
+ */
+@Component
+@Slf4j
+public class MailDeliveryEngine {
+
+    private final MailQueueService mailQueueService;
+    private final JavaMailSenderImpl mailSender;
+    private final Executor mailExecutor;
+    private final String fromEmail;
+    private final int connections;
+    private final int batchSize;
+    private final int maxMessagesPerConnection;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer sendLatency;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter gaveUp;
+    private final Counter rejected;
+
+    public MailDeliveryEngine(MailQueueService mailQueueService,
+                              JavaMailSenderImpl mailSender,
+                              @Qualifier("mailExecutor") Executor mailExecutor,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.mail.username}") String fromEmail,
+                              @Value("${mail.delivery.connections:2}") int connections,
+                              @Value("${mail.delivery.batch-size:50}") int batchSize,
+                              @Value("${mail.delivery.max-messages-per-connection:100}") int maxMessagesPerConnection) {
+        this.mailQueueService = mailQueueService;
+        this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        this.fromEmail = fromEmail;
+        this.connections = connections;
+        this.batchSize = batchSize;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+
+        Gauge.builder("mail.queue.depth", queueDepth, AtomicLong::get)
+                .description("Mails waiting to be sent or retried")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("mail.send.latency")
+                .description("Time to hand one message to the SMTP server")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.send.failures").tag("outcome", "retry").register(meterRegistry);
+        this.gaveUp = Counter.builder("mail.send.failures").tag("outcome", "gave_up").register(meterRegistry);
+        this.rejected = Counter.builder("mail.rejected")
+                .description("Mails refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a mail; when called inside a transaction it is only sent once that transaction commits.
+     */
+    public void submit(String to, String subject, String body, boolean html) {
+        try {
+            mailQueueService.enqueue(to, subject, body, html);
+        } catch (IllegalStateException e) {
+            rejected.increment();
+            throw e;
+        }
+        queueDepth.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.delivery.poll-interval-ms:2000}")
+    public void poll() {
+        queueDepth.set(mailQueueService.pendingCount());
+        if (queueDepth.get() > 0) {
+            wakeUp();
+        }
+    }
+
+    @Scheduled(cron = "${mail.delivery.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        log.info("Purged {} sent mails", mailQueueService.purgeSent());
+    }
+
+    /**
+     * Starts workers up to the connection limit, one per batch waiting.
+     */
+    public void wakeUp() {
+        long wanted = Math.max(1, Math.min(connections, (queueDepth.get() + batchSize - 1) / batchSize));
+        int active;
+        while ((active = activeWorkers.get()) < wanted) {
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                mailExecutor.execute(this::drain);
+            }
+        }
+    }
+
+    private void drain() {
+        try (SmtpConnection connection = new SmtpConnection(mailSender, maxMessagesPerConnection)) {
+            List<MailMessage> batch;
+            do {
+                batch = mailQueueService.claimDueMessages(batchSize);
+                deliver(batch, connection);
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Mail worker stopped: {}", e.getMessage(), e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    void deliver(List<MailMessage> batch, SmtpConnection connection) {
+        List<Long> delivered = new ArrayList<>(batch.size());
+        try {
+            for (MailMessage message : batch) {
+                long start = System.nanoTime();
+                try {
+                    connection.send(toMimeMessage(message));
+                    delivered.add(message.getId());
+                } catch (MessagingException | UnsupportedEncodingException | RuntimeException e) {
+                    // e.g. a MailException when the server drops the connection; retried like any other failure
+                    boolean permanent = isPermanent(e);
+                    mailQueueService.markFailed(message.getId(), e.getMessage(), permanent);
+                    (permanent ? gaveUp : retried).increment();
+                } finally {
+                    sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            // whatever stopped the batch, mails already handed over must not be sent twice
+            mailQueueService.markSent(delivered);
+            sent.increment(delivered.size());
+            queueDepth.addAndGet(-delivered.size());
+            if (!batch.isEmpty()) {
+                log.debug("Mail batch done: {} sent, {} failed", delivered.size(), batch.size() - delivered.size());
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(MailMessage message) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.isHtml(), StandardCharsets.UTF_8.name());
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), message.isHtml());
+        helper.setFrom(new InternetAddress(fromEmail, "Apointiq"));
+        return mimeMessage;
+    }
+
+    // a malformed or refused recipient will not get better by retrying
+    private static boolean isPermanent(Exception e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        return e instanceof SendFailedException failed
+                && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cw.scheduler.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * A single SMTP connection reused for a run of messages, so the handshake, TLS and AUTH are paid once
+ * per connection rather than once per message. Reconnects after {@code maxMessagesPerConnection}
+ * messages (servers cap this) and after the server dropped the connection. Not thread-safe.
+ */
+@Slf4j
+public class SmtpConnection implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private Transport transport;
+    private int sentOnConnection;
+    private int connectionsOpened;
+
+    public SmtpConnection(JavaMailSenderImpl mailSender, int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        if (transport == null || sentOnConnection >= maxMessagesPerConnection) {
+            reconnect();
+        }
+
+        try {
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            sentOnConnection++;
+        } catch (MessagingException e) {
+            // a rejected message leaves the session usable, a broken connection does not
+            if (!transport.isConnected()) {
+                close();
+            }
+            throw e;
+        }
+    }
+
+    public int getConnectionsOpened() {
+        return connectionsOpened;
+    }
+
+    private void reconnect() throws MessagingException {
+        close();
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport opened = mailSender.getSession().getTransport(protocol);
+        opened.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        transport = opened;
+        sentOnConnection = 0;
+        connectionsOpened++;
+    }
+
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+        transport = null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.cw.scheduler.notification;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+
+import java.util.List;
+
+/**
+ * Unread count and the most recent notifications of a user, newest first.
+ */
+public record InboxSnapshot(long unreadCount, List<NotificationResponseDTO> recent) {
+}
@@ -0,0 +1,145 @@
+package com.cw.scheduler.notification;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-user ring buffer of the latest {@link #RING_SIZE} notifications plus the unread count, kept in Redis.
+ * New notifications are pushed as they are written; anything that changes read state drops the inbox and the
+ * next read rebuilds it from the database. Every change bumps a version key, and a rebuild is only installed
+ * if the version is unchanged since it started, so a rebuild racing a push never hides the new notification.
+ */
+@Component
+@Slf4j
+public class NotificationInboxStore {
+
+    public static final int RING_SIZE = 50;
+
+    // KEYS: list, unread, version
+    private static final RedisScript<List> READ = new DefaultRedisScript<>(
+            "local unread = redis.call('get', KEYS[2]) " +
+                    "if not unread then return nil end " +
+                    "local items = redis.call('lrange', KEYS[1], 0, -1) " +
+                    "table.insert(items, 1, unread) " +
+                    "return items", List.class);
+
+    // ARGV: ring size, ttl seconds, entries oldest first; only extends an inbox that is already loaded
+    private static final RedisScript<Long> PUSH = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[3]) " +
+                    "redis.call('expire', KEYS[3], ARGV[2]) " +
+                    "if redis.call('exists', KEYS[2]) == 0 then return 0 end " +
+                    "for i = 3, #ARGV do redis.call('lpush', KEYS[1], ARGV[i]) end " +
+                    "redis.call('ltrim', KEYS[1], 0, tonumber(ARGV[1]) - 1) " +
+                    "redis.call('incrby', KEYS[2], #ARGV - 2) " +
+                    "redis.call('expire', KEYS[1], ARGV[2]) " +
+                    "redis.call('expire', KEYS[2], ARGV[2]) " +
+                    "return 1", Long.class);
+
+    // ARGV: expected version, ttl seconds, unread count, entries newest first
+    private static final RedisScript<Long> INSTALL = new DefaultRedisScript<>(
+            "local version = redis.call('get', KEYS[3]) or '0' " +
+                    "if version ~= ARGV[1] then return 0 end " +
+                    "redis.call('del', KEYS[1]) " +
+                    "for i = 4, #ARGV do redis.call('rpush', KEYS[1], ARGV[i]) end " +
+                    "redis.call('set', KEYS[2], ARGV[3], 'EX', ARGV[2]) " +
+                    "redis.call('expire', KEYS[1], ARGV[2]) " +
+                    "return 1", Long.class);
+
+    private static final RedisScript<Long> INVALIDATE = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[3]) " +
+                    "redis.call('expire', KEYS[3], ARGV[1]) " +
+                    "return redis.call('del', KEYS[1], KEYS[2])", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String ttlSeconds;
+
+    public NotificationInboxStore(StringRedisTemplate redisTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${notifications.inbox.ttl:P1D}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = String.valueOf(ttl.toSeconds());
+    }
+
+    /**
+     * Returns the cached inbox, or null when it has to be rebuilt.
+     */
+    public InboxSnapshot load(Long userId) {
+        List<?> raw = redisTemplate.execute(READ, keys(userId));
+        if (raw == null || raw.isEmpty()) {
+            return null;
+        }
+
+        List<NotificationResponseDTO> recent = new ArrayList<>(raw.size() - 1);
+        try {
+            for (int i = 1; i < raw.size(); i++) {
+                recent.add(objectMapper.readValue((String) raw.get(i), NotificationResponseDTO.class));
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable inbox for userId={}, rebuilding: {}", userId, e.getOriginalMessage());
+            invalidate(userId);
+            return null;
+        }
+        return new InboxSnapshot(Long.parseLong((String) raw.get(0)), recent);
+    }
+
+    /**
+     * Version to hand back to {@link #install}; read it before querying the database.
+     */
+    public String version(Long userId) {
+        String version = redisTemplate.opsForValue().get(versionKey(userId));
+        return version != null ? version : "0";
+    }
+
+    public void install(Long userId, String expectedVersion, InboxSnapshot snapshot) {
+        List<String> args = new ArrayList<>(List.of(expectedVersion, ttlSeconds, String.valueOf(snapshot.unreadCount())));
+        snapshot.recent().stream().limit(RING_SIZE).map(this::write).forEach(args::add);
+
+        Long installed = redisTemplate.execute(INSTALL, keys(userId), args.toArray());
+        if (installed == null || installed == 0) {
+            log.debug("Inbox of userId={} changed during rebuild, not caching it", userId);
+        }
+    }
+
+    /**
+     * Records new unread notifications, given oldest first.
+     */
+    public void push(Long userId, List<NotificationResponseDTO> notifications) {
+        List<String> args = new ArrayList<>(List.of(String.valueOf(RING_SIZE), ttlSeconds));
+        notifications.stream().map(this::write).forEach(args::add);
+        redisTemplate.execute(PUSH, keys(userId), args.toArray());
+    }
+
+    public void invalidate(Long userId) {
+        redisTemplate.execute(INVALIDATE, keys(userId), ttlSeconds);
+    }
+
+    private String write(NotificationResponseDTO notification) {
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize notification " + notification.getId(), e);
+        }
+    }
+
+    private static List<String> keys(Long userId) {
+        String prefix = "notifications:inbox:" + userId;
+        return List.of(prefix + ":recent", prefix + ":unread", versionKey(userId));
+    }
+
+    private static String versionKey(Long userId) {
+        return "notifications:inbox:" + userId + ":version";
+    }
+}
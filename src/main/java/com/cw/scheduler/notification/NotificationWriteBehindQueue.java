@@ -0,0 +1,168 @@
+package com.cw.scheduler.notification;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.entity.Notification;
+import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.repository.NotificationRepository;
+import com.cw.scheduler.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers in-app notifications and inserts them in JDBC batches, then pushes them to each
+ * user's {@link NotificationInboxStore}, once per user per flush.
+ * Notifications raised inside a transaction are only queued after it commits. A full queue
+ * is flushed by the caller, and whatever is left is flushed on shutdown.
+ */
+@Component
+@Slf4j
+public class NotificationWriteBehindQueue {
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationInboxStore inboxStore;
+    private final BlockingQueue<PendingNotification> queue;
+    private final int batchSize;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean closed;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public NotificationWriteBehindQueue(NotificationRepository notificationRepository,
+                                        UserRepository userRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        NotificationInboxStore inboxStore,
+                                        @Value("${notifications.write-behind.capacity:10000}") int capacity,
+                                        @Value("${notifications.write-behind.batch-size:50}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.inboxStore = inboxStore;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+    }
+
+    public void enqueue(Long userId, String message, NotificationType type) {
+        PendingNotification pending = new PendingNotification(userId, message, type, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(pending);
+                }
+            });
+        } else {
+            offer(pending);
+        }
+    }
+
+    private void offer(PendingNotification pending) {
+        while (!queue.offer(pending)) {
+            log.warn("Notification queue is full, flushing in the calling thread");
+            flush();
+        }
+        if (closed) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingNotification> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        flush();
+        log.info("Notification queue flushed on shutdown");
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private void write(List<PendingNotification> batch) {
+        List<Notification> written;
+        try {
+            written = transactionTemplate.execute(status -> insert(batch));
+        } catch (Exception e) {
+            // one bad row (e.g. a deleted user) must not take the whole batch down with it
+            log.warn("Batch insert of {} notifications failed, retrying one by one: {}", batch.size(), e.getMessage());
+            written = new ArrayList<>();
+            for (PendingNotification pending : batch) {
+                try {
+                    written.addAll(transactionTemplate.execute(status -> insert(List.of(pending))));
+                } catch (Exception single) {
+                    log.error("Dropping notification for userId={}, type={}: {}",
+                            pending.userId(), pending.type(), single.getMessage());
+                }
+            }
+        }
+        publish(written);
+    }
+
+    private List<Notification> insert(List<PendingNotification> batch) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        List<Notification> notifications = new ArrayList<>(batch.size());
+        for (PendingNotification pending : batch) {
+            Notification notification = new Notification();
+            notification.setUser(userRepository.getReferenceById(pending.userId()));
+            notification.setMessage(pending.message());
+            notification.setType(pending.type());
+            notification.setSentAt(pending.sentAt());
+            notifications.add(notification);
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        log.debug("Inserted {} notifications", saved.size());
+        return saved;
+    }
+
+    /**
+     * Pushes the written notifications into each user's inbox, one round trip per user.
+     */
+    private void publish(List<Notification> written) {
+        Map<Long, List<NotificationResponseDTO>> byUser = new LinkedHashMap<>();
+        for (Notification notification : written) {
+            Long userId = notification.getUser().getId();
+            byUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(new NotificationResponseDTO(
+                    notification.getId(), notification.getMessage(), notification.getSentAt(), notification.getType(), false));
+        }
+
+        try {
+            byUser.forEach(inboxStore::push);
+        } catch (Exception e) {
+            log.warn("Could not push {} notifications to inboxes: {}", written.size(), e.getMessage());
+        }
+    }
+
+    private record PendingNotification(Long userId, String message, NotificationType type, LocalDateTime sentAt) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.cw.scheduler.outbox;
+
+import com.cw.scheduler.cache.AppointmentCacheCoordinator;
+import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.entity.OutboxEvent;
+import com.cw.scheduler.entity.User;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.entity.enums.OutboxStep;
+import com.cw.scheduler.mail.EmailTemplate;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.repository.GoogleCalendarTokenRepository;
+import com.cw.scheduler.service.interfaces.CalendarIntegrationService;
+import com.cw.scheduler.service.interfaces.NotificationService;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the side effects of appointment outbox events one step at a time.
+ * Each step must be safe to repeat, since an event is retried from its first unfinished step.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentEventHandler {
+
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationService notificationService;
+    private final CalendarIntegrationService calendarIntegrationService;
+    private final GoogleCalendarTokenRepository tokenRepository;
+    private final GoogleAuthorizationCodeFlow googleFlow;
+    private final AppointmentCacheCoordinator appointmentCacheCoordinator;
+
+    public void apply(OutboxEvent event, OutboxStep step) throws IOException {
+        Appointment appointment = appointmentRepository.findById(event.getAggregateId()).orElse(null);
+        if (appointment == null) {
+            log.warn("Appointment {} of outbox event {} no longer exists, skipping {}",
+                    event.getAggregateId(), event.getIdempotencyKey(), step);
+            return;
+        }
+
+        OutboxEventType eventType = event.getEventType();
+        if (eventType == OutboxEventType.APPOINTMENT_REMINDER && appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+            log.info("Appointment {} is {} now, skipping its reminder {}", appointment.getId(), appointment.getStatus(), step);
+            return;
+        }
+
+        boolean booked = eventType == OutboxEventType.APPOINTMENT_BOOKED;
+        switch (step) {
+            case CACHE -> evictAppointmentCaches(appointment);
+            case NOTIFICATION -> saveNotification(appointment, eventType);
+            case EMAIL -> sendEmail(appointment, eventType);
+            case CALENDAR -> {
+                if (booked) {
+                    addCalendarEvent(appointment);
+                } else {
+                    removeCalendarEvent(appointment);
+                }
+            }
+        }
+    }
+
+    // the write already evicted after commit; this retried step covers a failed eviction
+    private void evictAppointmentCaches(Appointment appointment) {
+        appointmentCacheCoordinator.evictNow(appointment,
+                appointment.getStatus() == AppointmentStatus.CANCELLED ? "appointment.cancel" : "appointment.book");
+    }
+
+    private void saveNotification(Appointment appointment, OutboxEventType eventType) {
+        User user = appointment.getUser();
+        if (user == null) {
+            return;
+        }
+
+        notificationService.saveNotification(
+                user,
+                String.format(
+                        switch (eventType) {
+                            case APPOINTMENT_BOOKED -> "Your appointment for %s with %s on %s at %s is confirmed.";
+                            case APPOINTMENT_CANCELLED -> "Your appointment for %s with %s on %s at %s has been cancelled.";
+                            case APPOINTMENT_REMINDER -> "Reminder: your appointment for %s with %s is on %s at %s.";
+                        },
+                        appointment.getIndividualService().getName(),
+                        appointment.getProvider().getBusinessName(),
+                        appointment.getAppointmentTime().toLocalDate(),
+                        appointment.getAppointmentTime().toLocalTime()
+                ),
+                switch (eventType) {
+                    case APPOINTMENT_BOOKED -> NotificationType.APPOINTMENT_CONFIRMED;
+                    case APPOINTMENT_CANCELLED -> NotificationType.APPOINTMENT_CANCELLED;
+                    case APPOINTMENT_REMINDER -> NotificationType.APPOINTMENT_REMINDER;
+                }
+        );
+    }
+
+    private void sendEmail(Appointment appointment, OutboxEventType eventType) {
+        User user = appointment.getUser();
+        if (user == null) {
+            return;
+        }
+
+        notificationService.sendEmail(
+                user.getEmail(),
+                switch (eventType) {
+                    case APPOINTMENT_BOOKED -> "Your Appointment is Confirmed!";
+                    case APPOINTMENT_CANCELLED -> "Your Appointment Has Been Cancelled";
+                    case APPOINTMENT_REMINDER -> "Reminder: Your Upcoming Appointment";
+                },
+                switch (eventType) {
+                    case APPOINTMENT_BOOKED -> EmailTemplate.APPOINTMENT_CONFIRMED;
+                    case APPOINTMENT_CANCELLED -> EmailTemplate.APPOINTMENT_CANCELLED;
+                    case APPOINTMENT_REMINDER -> EmailTemplate.APPOINTMENT_REMINDER;
+                },
+                Map.of(
+                        "name", user.getName(),
+                        "serviceName", appointment.getIndividualService().getName(),
+                        "providerName", appointment.getProvider().getBusinessName(),
+                        "appointmentDate", appointment.getAppointmentTime().toLocalDate().toString(),
+                        "appointmentTime", appointment.getAppointmentTime().toLocalTime().toString(),
+                        "dashboardUrl", "http://localhost:8085/user/appointments"
+                )
+        );
+    }
+
+    private void addCalendarEvent(Appointment appointment) throws IOException {
+        // already added, or cancelled before we got here
+        if (appointment.getCalendarEventId() != null || appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        Credential credential = credentialFor(appointment.getUser());
+        if (credential == null) {
+            // no consent yet, the OAuth callback adds the event once the user grants access
+            return;
+        }
+
+        String eventId = calendarIntegrationService.addEventToCalendar(appointment, appointment.getUser(), credential);
+        appointmentRepository.updateCalendarEventId(appointment.getId(), eventId);
+    }
+
+    private void removeCalendarEvent(Appointment appointment) throws IOException {
+        if (appointment.getCalendarEventId() == null) {
+            return;
+        }
+        Credential credential = credentialFor(appointment.getUser());
+        if (credential == null) {
+            return;
+        }
+
+        calendarIntegrationService.deleteEventFromCalendar(appointment.getCalendarEventId(), appointment.getUser(), credential);
+        appointmentRepository.updateCalendarEventId(appointment.getId(), null);
+    }
+
+    private Credential credentialFor(User user) throws IOException {
+        if (user == null || !tokenRepository.existsById(user.getId())) {
+            return null;
+        }
+        return calendarIntegrationService.getCredentialForUser(user, googleFlow);
+    }
+}
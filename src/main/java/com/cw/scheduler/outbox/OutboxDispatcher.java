@@ -0,0 +1,61 @@
+package com.cw.scheduler.outbox;
+
+import com.cw.scheduler.entity.OutboxEvent;
+import com.cw.scheduler.entity.enums.OutboxStep;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drains the outbox in batches. Runs on a fixed delay and is also woken right after a booking
+ * commits, so side effects normally follow within milliseconds without blocking the request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final OutboxService outboxService;
+    private final AppointmentEventHandler appointmentEventHandler;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:5000}")
+    public void poll() {
+        drain();
+    }
+
+    @Async("outboxExecutor")
+    public void dispatchPending() {
+        drain();
+    }
+
+    private void drain() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxService.claimDueEvents(BATCH_SIZE);
+            batch.forEach(this::dispatch);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void dispatch(OutboxEvent event) {
+        try {
+            for (OutboxStep step : event.getEventType().getSteps()) {
+                if (event.getCompletedSteps().contains(step)) {
+                    continue;
+                }
+                appointmentEventHandler.apply(event, step);
+                outboxService.markStepCompleted(event.getId(), step);
+            }
+            outboxService.markDone(event.getId());
+            log.debug("Outbox event {} dispatched", event.getIdempotencyKey());
+        } catch (Exception e) {
+            outboxService.markFailed(event.getId(), e.getMessage());
+        }
+    }
+}
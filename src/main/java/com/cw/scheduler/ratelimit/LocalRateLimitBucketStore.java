@@ -0,0 +1,90 @@
+package com.cw.scheduler.ratelimit;
+
+import com.cw.scheduler.util.BoundedMaps;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process buckets, dropped once they have been idle long enough to be full again and capped
+ * at {@code rate-limit.local.max-entries} so a flood of distinct clients cannot grow the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalRateLimitBucketStore implements RateLimitBucketStore {
+
+    private final Map<String, Entry> buckets = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public LocalRateLimitBucketStore(@Value("${rate-limit.local.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, BucketConfiguration configuration, Duration idleTimeout) {
+        Entry entry = buckets.get(key);
+        if (entry == null) {
+            makeRoom();
+            entry = buckets.computeIfAbsent(key, k -> new Entry(newBucket(configuration), idleTimeout.toNanos()));
+        }
+        entry.lastAccessNanos = System.nanoTime();
+        return entry.bucket;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(entry -> entry.isIdle(now));
+
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets, {} remaining", evicted, buckets.size());
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void makeRoom() {
+        // idle buckets go first; live clients dropped beyond that start over with a full bucket
+        long now = System.nanoTime();
+        int dropped = BoundedMaps.makeRoom(buckets, maxEntries, entry -> entry.isIdle(now));
+        if (dropped > 0) {
+            log.debug("Rate-limit store reached {} buckets, dropped {} live entries", maxEntries, dropped);
+        }
+    }
+
+    private Bucket newBucket(BucketConfiguration configuration) {
+        var builder = Bucket.builder();
+        for (var bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    private static final class Entry {
+        private final Bucket bucket;
+        private final long idleTimeoutNanos;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private Entry(Bucket bucket, long idleTimeoutNanos) {
+            this.bucket = bucket;
+            this.idleTimeoutNanos = idleTimeoutNanos;
+        }
+
+        private boolean isIdle(long now) {
+            return now - lastAccessNanos >= idleTimeoutNanos;
+        }
+    }
+}
@@ -8,10 +8,15 @@ import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.lang.reflect.Method;
+
 @Aspect
 @Component
 @RequiredArgsConstructor
@@ -23,11 +28,11 @@ public class RateLimitAspect {
     @Around("@annotation(rateLimit)")
     public Object around(ProceedingJoinPoint pjp, RateLimit rateLimit) throws Throwable {
 
-        // Prefer authenticated user's ID, fallback to session ID for guests
-        String userKey = getUserKey();
+        // Prefer authenticated user's ID, fallback to IP for guests; every endpoint has its own bucket
+        String bucketKey = getUserKey() + ":" + getEndpointKey(pjp);
 
         Bucket bucket = rateLimiterService.resolveBucket(
-                userKey,
+                bucketKey,
                 rateLimit.capacity(),
                 rateLimit.refillTokens(),
                 rateLimit.refillDurationSeconds()
@@ -40,25 +45,34 @@ public class RateLimitAspect {
         throw new RateLimitExceededException(rateLimit.message());
     }
 
+    private String getEndpointKey(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
     private String getUserKey() {
-        try {
-            Long userId = authenticationFacade.getCurrentUserId();
-            return "USER_" + userId;
-        } catch (Exception e) {
+        // guests would otherwise cost a failed user lookup on every call
+        Authentication authentication = authenticationFacade.getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
             try {
-                HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-                String ip = request.getHeader("X-Forwarded-For");
-                if (ip != null && !ip.isEmpty()) {
-                    ip = ip.split(",")[0].trim();
-                } else {
-                    ip = request.getRemoteAddr();
-                }
-                return "IP_" + ip;
-            } catch (Exception ex) {
-                return "UNKNOWN";
+                Long userId = authenticationFacade.getCurrentUserId();
+                return "USER_" + userId;
+            } catch (Exception e) {
+                // fall through to the client address
             }
         }
-    }
-
 
+        try {
+            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+            String ip = request.getHeader("X-Forwarded-For");
+            if (ip != null && !ip.isEmpty()) {
+                ip = ip.split(",")[0].trim();
+            } else {
+                ip = request.getRemoteAddr();
+            }
+            return "IP_" + ip;
+        } catch (Exception ex) {
+            return "UNKNOWN";
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package com.cw.scheduler.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Where rate-limit buckets live. {@code idleTimeout} is the time after which an untouched bucket
+ * is full again, so a store may forget it from then on without changing any decision.
+ */
+public interface RateLimitBucketStore {
+    Bucket resolveBucket(String key, BucketConfiguration configuration, Duration idleTimeout);
+}
@@ -2,29 +2,39 @@ package com.cw.scheduler.ratelimit;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@RequiredArgsConstructor
 public class RateLimiterService {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private final RateLimitBucketStore bucketStore;
 
     public Bucket resolveBucket(String key, int capacity, int refillTokens, int refillDurationSeconds) {
-        return cache.computeIfAbsent(key, k -> newBucket(capacity, refillTokens, refillDurationSeconds));
+        return bucketStore.resolveBucket(
+                key,
+                newConfiguration(capacity, refillTokens, refillDurationSeconds),
+                fullRefillTime(capacity, refillTokens, refillDurationSeconds)
+        );
     }
 
-    private Bucket newBucket(int capacity, int refillTokens, int refillDurationSeconds) {
+    private BucketConfiguration newConfiguration(int capacity, int refillTokens, int refillDurationSeconds) {
         Refill refill = Refill.intervally(refillTokens, Duration.ofSeconds(refillDurationSeconds));
         Bandwidth limit = Bandwidth.classic(capacity, refill);
 
-        return Bucket.builder()
+        return BucketConfiguration.builder()
                 .addLimit(limit)
                 .build();
     }
 
+    // an empty bucket is full again after this long, so idle buckets can be forgotten from then on
+    private Duration fullRefillTime(int capacity, int refillTokens, int refillDurationSeconds) {
+        long periods = (capacity + Math.max(refillTokens, 1) - 1) / Math.max(refillTokens, 1);
+        return Duration.ofSeconds(periods * refillDurationSeconds);
+    }
 }
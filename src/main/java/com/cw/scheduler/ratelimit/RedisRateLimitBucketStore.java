@@ -0,0 +1,166 @@
+package com.cw.scheduler.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Buckets kept in Redis so limits hold across all nodes. Bucket state is updated with an atomic
+ * compare-and-swap script and expires once the bucket would be full again, so Redis holds no
+ * idle buckets and the heap holds none at all. Async buckets run the same script over the reactive
+ * (Lettuce) connection.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "redis")
+public class RedisRateLimitBucketStore implements RateLimitBucketStore {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    // ARGV: expected state ('' when absent), new state, ttl millis
+    private static final byte[] COMPARE_AND_SWAP_SCRIPT = ("""
+            local current = redis.call('GET', KEYS[1])
+            if (current == false and ARGV[1] == '') or current == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private final RedisProxyManager proxyManager;
+
+    public RedisRateLimitBucketStore(RedisConnectionFactory connectionFactory,
+                                     ReactiveRedisConnectionFactory reactiveConnectionFactory) {
+        this.proxyManager = new RedisProxyManager(connectionFactory, reactiveConnectionFactory);
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, BucketConfiguration configuration, Duration idleTimeout) {
+        return proxyManager.builder().build(KEY_PREFIX + key, () -> configuration);
+    }
+
+    private static final class RedisProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private final RedisConnectionFactory connectionFactory;
+        private final ReactiveRedisConnectionFactory reactiveConnectionFactory;
+
+        private RedisProxyManager(RedisConnectionFactory connectionFactory,
+                                  ReactiveRedisConnectionFactory reactiveConnectionFactory) {
+            super(ClientSideConfig.getDefault().withClientClock(TimeMeter.SYSTEM_MILLISECONDS));
+            this.connectionFactory = connectionFactory;
+            this.reactiveConnectionFactory = reactiveConnectionFactory;
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    try (RedisConnection connection = connectionFactory.getConnection()) {
+                        return Optional.ofNullable(connection.stringCommands().get(rawKey));
+                    }
+                }
+
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    try (RedisConnection connection = connectionFactory.getConnection()) {
+                        Boolean swapped = connection.scriptingCommands().eval(
+                                COMPARE_AND_SWAP_SCRIPT, ReturnType.BOOLEAN, 1,
+                                rawKey,
+                                originalData != null ? originalData : new byte[0],
+                                newData,
+                                ttlMillis(newState));
+                        return Boolean.TRUE.equals(swapped);
+                    }
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            ByteBuffer rawKey = ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return withReactiveConnection(connection -> connection.stringCommands().get(rawKey.duplicate())
+                            .map(value -> Optional.of(toBytes(value)))
+                            .defaultIfEmpty(Optional.empty()));
+                }
+
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    return withReactiveConnection(connection -> connection.scriptingCommands().<Boolean>eval(
+                                    ByteBuffer.wrap(COMPARE_AND_SWAP_SCRIPT), ReturnType.BOOLEAN, 1,
+                                    rawKey.duplicate(),
+                                    ByteBuffer.wrap(originalData != null ? originalData : new byte[0]),
+                                    ByteBuffer.wrap(newData),
+                                    ByteBuffer.wrap(ttlMillis(newState)))
+                            .next()
+                            .map(Boolean.TRUE::equals)
+                            .defaultIfEmpty(false));
+                }
+            };
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.keyCommands().del(key.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            return withReactiveConnection(connection -> connection.keyCommands()
+                    .del(ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8)))
+                    .then());
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+        private <T> CompletableFuture<T> withReactiveConnection(Function<ReactiveRedisConnection, Mono<T>> command) {
+            return Mono.usingWhen(
+                    Mono.fromSupplier(reactiveConnectionFactory::getReactiveConnection),
+                    command,
+                    ReactiveRedisConnection::closeLater
+            ).toFuture();
+        }
+
+        // the bucket expires once it would be full again
+        private static byte[] ttlMillis(RemoteBucketState newState) {
+            long nowNanos = TimeMeter.SYSTEM_MILLISECONDS.currentTimeNanos();
+            long ttlMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(newState.calculateFullRefillingTime(nowNanos)), 1_000);
+            return String.valueOf(ttlMillis).getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] toBytes(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
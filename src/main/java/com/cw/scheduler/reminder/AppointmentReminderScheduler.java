@@ -0,0 +1,315 @@
+package com.cw.scheduler.reminder;
+
+import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.outbox.OutboxDispatcher;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends appointment reminders {@code reminders.lead-hours} before the appointment. Pending reminders
+ * live in a {@link TimingWheel}, filled incrementally: each tick only loads the appointments that moved
+ * into the look-ahead window since the previous one, and bookings or cancellations made through this
+ * node are applied as they happen. Changes made through other nodes are picked up by the resync, which
+ * reads only the appointments updated since its previous run. A reminder is sent by claiming it with a
+ * conditional update and enqueueing an outbox event in the same transaction, so it goes out once even
+ * across restarts and nodes; reminders that came due while the application was down are sent on startup.
+ * <p>
+ * Queries run outside the monitor, which only guards the wheel; one load runs at a time, and appointments
+ * changed through this node while it runs are not overwritten by what it read.
+ */
+@Component
+@Slf4j
+public class AppointmentReminderScheduler {
+
+    private static final long TICK_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int WHEEL_SIZE = 60;
+    // updated_at is stamped before commit, so rows committed late still fall inside the next resync
+    private static final Duration COMMIT_SLACK = Duration.ofMinutes(1);
+
+    private final AppointmentRepository appointmentRepository;
+    private final OutboxService outboxService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lead;
+    private final Duration horizon;
+    private final int loadBatchSize;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final Map<Long, TimingWheel.Entry<Long>> scheduled = new HashMap<>();
+    private final Set<Long> changedDuringLoad = new HashSet<>();
+    private final Set<Long> failedSends = new HashSet<>();
+    private TimingWheel<Long> wheel;
+    private boolean loading;
+    // appointments up to this time are in the wheel (or were not eligible)
+    private LocalDateTime loadedUntil;
+    // changes made up to this time are reflected in the wheel
+    private LocalDateTime resyncedUntil;
+
+    public AppointmentReminderScheduler(AppointmentRepository appointmentRepository,
+                                        OutboxService outboxService,
+                                        OutboxDispatcher outboxDispatcher,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${reminders.lead-hours:24}") long leadHours,
+                                        @Value("${reminders.horizon:PT6H}") Duration horizon,
+                                        @Value("${reminders.load-batch-size:500}") int loadBatchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.outboxService = outboxService;
+        this.outboxDispatcher = outboxDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.lead = Duration.ofHours(leadHours);
+        this.horizon = horizon;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, toMillis(now));
+            loadedUntil = now;
+            resyncedUntil = now;
+        }
+        log.info("Reminder scheduler started, lead time {}", lead);
+        tick();
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.tick-interval-ms:30000}")
+    public void tick() {
+        List<Long> due = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            wheel.advance(toMillis(now), id -> {
+                scheduled.remove(id);
+                due.add(id);
+            });
+            due.addAll(failedSends);
+            failedSends.clear();
+        }
+
+        if (loadLock.tryLock()) {
+            try {
+                loadWindow(now, due);
+            } catch (Exception e) {
+                log.error("Loading reminders at {} failed: {}", now, e.getMessage(), e);
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        due.forEach(this::send);
+    }
+
+    /**
+     * Picks up bookings, reschedules and cancellations made through other nodes since the previous resync.
+     */
+    @Scheduled(fixedDelayString = "${reminders.resync-interval-ms:600000}")
+    public void resync() {
+        List<Long> due = new ArrayList<>();
+        loadLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since;
+            synchronized (this) {
+                if (wheel == null) {
+                    return;
+                }
+                since = resyncedUntil.minus(COMMIT_SLACK);
+                beginLoad();
+            }
+
+            List<ReminderCandidate> changed = new ArrayList<>();
+            try {
+                long afterId = 0;
+                List<ReminderCandidate> batch;
+                do {
+                    batch = appointmentRepository.findReminderCandidatesUpdatedSince(
+                            since, now, afterId, PageRequest.ofSize(loadBatchSize));
+                    changed.addAll(batch);
+                    if (!batch.isEmpty()) {
+                        afterId = batch.get(batch.size() - 1).appointmentId();
+                    }
+                } while (batch.size() == loadBatchSize);
+            } catch (Exception e) {
+                synchronized (this) {
+                    endLoad();
+                }
+                log.error("Resyncing reminders changed since {} failed: {}", since, e.getMessage(), e);
+                return;
+            }
+
+            synchronized (this) {
+                for (ReminderCandidate candidate : changed) {
+                    if (changedDuringLoad.contains(candidate.appointmentId())) {
+                        continue;
+                    }
+                    if (candidate.appointmentTime().isAfter(loadedUntil)) {
+                        // moved past the loaded window, the loader schedules it when its turn comes
+                        cancel(candidate.appointmentId());
+                    } else if (schedule(candidate)) {
+                        due.add(candidate.appointmentId());
+                    }
+                }
+                resyncedUntil = now;
+                endLoad();
+            }
+            log.debug("Reminder resync applied {} changed appointments", changed.size());
+        } finally {
+            loadLock.unlock();
+        }
+        due.forEach(this::send);
+    }
+
+    /**
+     * Schedules, moves or drops the reminder of an appointment that was just saved.
+     */
+    public void onAppointmentChanged(Appointment appointment) {
+        boolean sendNow;
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            if (loading) {
+                changedDuringLoad.add(appointment.getId());
+            }
+            cancel(appointment.getId());
+            if (appointment.getStatus() != AppointmentStatus.CONFIRMED || appointment.getReminderSentAt() != null
+                    || appointment.getAppointmentTime().isAfter(loadedUntil)) {
+                // anything past the loaded window is picked up by the loader when its turn comes
+                return;
+            }
+            sendNow = schedule(new ReminderCandidate(
+                    appointment.getId(), appointment.getAppointmentTime(), appointment.getCreatedAt()));
+        }
+        if (sendNow) {
+            send(appointment.getId());
+        }
+    }
+
+    // called with loadLock held
+    private void loadWindow(LocalDateTime now, List<Long> due) {
+        LocalDateTime from;
+        LocalDateTime until = now.plus(lead).plus(horizon);
+        synchronized (this) {
+            from = loadedUntil;
+            if (!until.isAfter(from)) {
+                return;
+            }
+            beginLoad();
+        }
+
+        List<ReminderCandidate> loaded = new ArrayList<>();
+        try {
+            LocalDateTime afterTime = from;
+            long afterId = Long.MAX_VALUE;
+            List<ReminderCandidate> batch;
+            do {
+                batch = appointmentRepository.findReminderCandidates(afterTime, afterId, until, PageRequest.ofSize(loadBatchSize));
+                loaded.addAll(batch);
+                if (!batch.isEmpty()) {
+                    ReminderCandidate last = batch.get(batch.size() - 1);
+                    afterTime = last.appointmentTime();
+                    afterId = last.appointmentId();
+                }
+            } while (batch.size() == loadBatchSize);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                endLoad();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (ReminderCandidate candidate : loaded) {
+                if (!changedDuringLoad.contains(candidate.appointmentId()) && schedule(candidate)) {
+                    due.add(candidate.appointmentId());
+                }
+            }
+            loadedUntil = until;
+            endLoad();
+        }
+    }
+
+    private void beginLoad() {
+        loading = true;
+        changedDuringLoad.clear();
+    }
+
+    private void endLoad() {
+        loading = false;
+        changedDuringLoad.clear();
+    }
+
+    // returns true when the reminder is already due
+    private boolean schedule(ReminderCandidate candidate) {
+        cancel(candidate.appointmentId());
+        LocalDateTime remindAt = candidate.appointmentTime().minus(lead);
+        // booked inside the lead time: the confirmation is reminder enough
+        if (candidate.createdAt() != null && !candidate.createdAt().isBefore(remindAt)) {
+            return false;
+        }
+
+        TimingWheel.Entry<Long> entry = wheel.schedule(candidate.appointmentId(), toMillis(remindAt));
+        if (entry == null) {
+            return true;
+        }
+        scheduled.put(candidate.appointmentId(), entry);
+        return false;
+    }
+
+    private void cancel(Long appointmentId) {
+        TimingWheel.Entry<Long> entry = scheduled.remove(appointmentId);
+        if (entry != null) {
+            entry.cancel();
+        }
+    }
+
+    private void send(Long appointmentId) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                if (appointmentRepository.claimReminder(appointmentId, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                outboxService.enqueue(OutboxEventType.APPOINTMENT_REMINDER, appointmentId,
+                        appointmentRepository.findVersionById(appointmentId));
+                return true;
+            });
+            if (Boolean.TRUE.equals(claimed)) {
+                log.debug("Reminder queued for appointmentId={}", appointmentId);
+                outboxDispatcher.dispatchPending();
+            }
+        } catch (Exception e) {
+            // not claimed, retried on the next tick
+            log.error("Queueing reminder for appointmentId={} failed: {}", appointmentId, e.getMessage(), e);
+            synchronized (this) {
+                failedSends.add(appointmentId);
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,9 @@
+package com.cw.scheduler.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A confirmed appointment whose reminder has not been sent yet, as loaded into the timing wheel.
+ */
+public record ReminderCandidate(Long appointmentId, LocalDateTime appointmentTime, LocalDateTime createdAt) {
+}
@@ -0,0 +1,114 @@
+package com.cw.scheduler.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code wheelSize} buckets of {@code tickMillis} each, with a coarser
+ * wheel (one bucket per full turn of this one) created on demand for anything further out.
+ * Adding is O(1) and each tick drains a single bucket, moving the entries of a coarser bucket down
+ * a level when its turn comes, so the cost per tick does not depend on how many timers are pending.
+ * Cancelled entries are dropped when their bucket is drained. Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTime;
+    private TimingWheel<T> overflow;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = tickMillis * wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules the value; returns null when it is already due, i.e. within the current tick.
+     */
+    public Entry<T> schedule(T value, long expirationMillis) {
+        Entry<T> entry = new Entry<>(value, expirationMillis);
+        return add(entry) ? entry : null;
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMillis}, handing every entry that became due to {@code due}.
+     */
+    public void advance(long nowMillis, Consumer<T> due) {
+        while (currentTime + tickMillis <= nowMillis) {
+            tickTo(currentTime + tickMillis, entry -> {
+                if (!entry.cancelled) {
+                    due.accept(entry.value);
+                }
+            });
+        }
+    }
+
+    public long currentTime() {
+        return currentTime;
+    }
+
+    private boolean add(Entry<T> entry) {
+        if (entry.expirationMillis < currentTime + tickMillis) {
+            return false;
+        }
+        if (entry.expirationMillis < currentTime + intervalMillis) {
+            buckets.get(bucketIndex(entry.expirationMillis)).add(entry);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(intervalMillis, wheelSize, currentTime);
+        }
+        return overflow.add(entry);
+    }
+
+    private void tickTo(long time, Consumer<Entry<T>> sink) {
+        currentTime = time;
+        // a coarser bucket starting now is spread over this level before this level's bucket is drained
+        if (overflow != null && Math.floorMod(time, overflow.tickMillis) == 0) {
+            overflow.tickTo(time, entry -> {
+                if (!entry.cancelled && !add(entry)) {
+                    sink.accept(entry);
+                }
+            });
+        }
+
+        List<Entry<T>> bucket = buckets.get(bucketIndex(time));
+        if (!bucket.isEmpty()) {
+            List<Entry<T>> drained = new ArrayList<>(bucket);
+            bucket.clear();
+            drained.forEach(sink);
+        }
+    }
+
+    private int bucketIndex(long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, tickMillis), (long) wheelSize);
+    }
+
+    public static final class Entry<T> {
+        private final T value;
+        private final long expirationMillis;
+        private boolean cancelled;
+
+        private Entry(T value, long expirationMillis) {
+            this.value = value;
+            this.expirationMillis = expirationMillis;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public long getExpirationMillis() {
+            return expirationMillis;
+        }
+    }
+}
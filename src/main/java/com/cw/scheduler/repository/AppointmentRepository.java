@@ -1,30 +1,90 @@
 package com.cw.scheduler.repository;
 
+import com.cw.scheduler.availability.BookedInterval;
+import com.cw.scheduler.dto.response.AppointmentResponseDTO;
 import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.reminder.ReminderCandidate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-    // Find appointments by user (customer)
-    List<Appointment> findByUserId(Long userId);
+    // Selects exactly the AppointmentResponseDTO columns in one joined query, without loading entities
+    String APPOINTMENT_DTO_SELECT = "SELECT new com.cw.scheduler.dto.response.AppointmentResponseDTO(" +
+            "a.id, p.id, u.id, s.name, p.fullName, a.appointmentTime, a.status) " +
+            "FROM Appointment a JOIN a.provider p JOIN a.individualService s LEFT JOIN a.user u ";
 
-    // Find appointments by provider
-    List<Appointment> findByProviderId(Long providerId);
+    // Keyset pages ordered by (appointmentTime, id), starting strictly after the given position
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE u.id = :userId " +
+            "AND a.appointmentTime >= :afterTime AND (a.appointmentTime > :afterTime OR a.id > :afterId) " +
+            "ORDER BY a.appointmentTime ASC, a.id ASC")
+    List<AppointmentResponseDTO> findUserPageAfter(@Param("userId") Long userId, @Param("afterTime") LocalDateTime afterTime,
+                                                   @Param("afterId") Long afterId, Pageable pageable);
 
-    // Find appointments for a given provider and date
-    List<Appointment> findByProviderIdAndAppointmentTimeBetween(Long providerId, LocalDateTime start, LocalDateTime end);
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE p.id = :providerId " +
+            "AND a.appointmentTime >= :afterTime AND (a.appointmentTime > :afterTime OR a.id > :afterId) " +
+            "ORDER BY a.appointmentTime ASC, a.id ASC")
+    List<AppointmentResponseDTO> findProviderPageAfter(@Param("providerId") Long providerId, @Param("afterTime") LocalDateTime afterTime,
+                                                       @Param("afterId") Long afterId, Pageable pageable);
 
-    // Check for conflict before booking
-    boolean existsByProviderIdAndAppointmentTime(Long providerId, LocalDateTime appointmentTime);
+    // Appointments of a provider within [start, end]
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE p.id = :providerId AND a.appointmentTime BETWEEN :start AND :end " +
+            "ORDER BY a.appointmentTime ASC, a.id ASC")
+    List<AppointmentResponseDTO> findProviderAppointmentsBetween(@Param("providerId") Long providerId,
+                                                                 @Param("start") LocalDateTime start,
+                                                                 @Param("end") LocalDateTime end);
 
-    //Find upcoming appointments
-    @Query("SELECT a FROM Appointment a WHERE a.provider.id = :providerId AND a.appointmentTime >= :now ORDER BY a.appointmentTime ASC")
-    List<Appointment> findUpcomingAppointmentsForProvider(@Param("providerId") Long providerId, @Param("now") LocalDateTime now);
-}
+    // Booked (non-cancelled) intervals of a provider, used to build the availability index
+    @Query("SELECT new com.cw.scheduler.availability.BookedInterval(a.id, a.appointmentTime, s.durationMinutes) " +
+            "FROM Appointment a JOIN a.individualService s " +
+            "WHERE a.provider.id = :providerId " +
+            "AND a.status <> com.cw.scheduler.entity.enums.AppointmentStatus.CANCELLED " +
+            "AND a.appointmentTime >= :from")
+    List<BookedInterval> findBookedIntervals(@Param("providerId") Long providerId, @Param("from") LocalDateTime from);
+
+    // Confirmed appointments still owed a reminder, keyset pages of (afterTime, afterId) .. until
+    @Query("SELECT new com.cw.scheduler.reminder.ReminderCandidate(a.id, a.appointmentTime, a.createdAt) " +
+            "FROM Appointment a " +
+            "WHERE a.status = com.cw.scheduler.entity.enums.AppointmentStatus.CONFIRMED AND a.reminderSentAt IS NULL " +
+            "AND a.appointmentTime >= :afterTime AND (a.appointmentTime > :afterTime OR a.id > :afterId) " +
+            "AND a.appointmentTime <= :until " +
+            "ORDER BY a.appointmentTime ASC, a.id ASC")
+    List<ReminderCandidate> findReminderCandidates(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+                                                   @Param("until") LocalDateTime until, Pageable pageable);
+
+    // Still upcoming candidates changed since a point in time, keyset pages by id
+    @Query("SELECT new com.cw.scheduler.reminder.ReminderCandidate(a.id, a.appointmentTime, a.createdAt) " +
+            "FROM Appointment a " +
+            "WHERE a.status = com.cw.scheduler.entity.enums.AppointmentStatus.CONFIRMED AND a.reminderSentAt IS NULL " +
+            "AND a.updatedAt >= :since AND a.appointmentTime > :now AND a.id > :afterId " +
+            "ORDER BY a.id ASC")
+    List<ReminderCandidate> findReminderCandidatesUpdatedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now,
+                                                               @Param("afterId") Long afterId, Pageable pageable);
 
+    // Conditional claim: only one node (and one attempt) gets 1 back for a given appointment
+    @Modifying
+    @Query("UPDATE Appointment a SET a.reminderSentAt = :now " +
+            "WHERE a.id = :appointmentId AND a.reminderSentAt IS NULL " +
+            "AND a.status = com.cw.scheduler.entity.enums.AppointmentStatus.CONFIRMED AND a.appointmentTime > :now")
+    int claimReminder(@Param("appointmentId") Long appointmentId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.version FROM Appointment a WHERE a.id = :appointmentId")
+    long findVersionById(@Param("appointmentId") Long appointmentId);
+
+    // Targeted update so a background calendar sync never overwrites a concurrent status change
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.calendarEventId = :eventId WHERE a.id = :appointmentId")
+    int updateCalendarEventId(@Param("appointmentId") Long appointmentId, @Param("eventId") String eventId);
+}
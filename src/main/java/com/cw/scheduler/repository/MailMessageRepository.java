@@ -0,0 +1,34 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.MailMessage;
+import com.cw.scheduler.entity.enums.MailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailMessageRepository extends JpaRepository<MailMessage, Long> {
+
+    // Due messages, skipping rows another worker has locked; SENDING rows are due again once their lease ran out
+    @Query(value = "SELECT * FROM mail_messages " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailMessage> lockDueMessages(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatusIn(Collection<MailStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE MailMessage m SET m.status = com.cw.scheduler.entity.enums.MailStatus.SENT, " +
+            "m.sentAt = :sentAt, m.lastError = null WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM MailMessage m WHERE m.status = com.cw.scheduler.entity.enums.MailStatus.SENT AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -1,14 +1,58 @@
 package com.cw.scheduler.repository;
 
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
 import com.cw.scheduler.entity.Notification;
+import com.cw.scheduler.entity.enums.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserId(Long userId);
+    boolean existsByIdAndUserId(Long id, Long userId);
 
-    List<Notification> findByUserIdAndType(Long userId, String type);
+    // Newest first, starting strictly before the given position
+    @Query("SELECT new com.cw.scheduler.dto.response.NotificationResponseDTO(" +
+            "n.id, n.message, n.sentAt, n.type, CASE WHEN n.readAt IS NULL THEN false ELSE true END) " +
+            "FROM Notification n WHERE n.user.id = :userId " +
+            "AND n.sentAt <= :beforeTime AND (n.sentAt < :beforeTime OR n.id < :beforeId) " +
+            "ORDER BY n.sentAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findInboxPageBefore(@Param("userId") Long userId, @Param("beforeTime") LocalDateTime beforeTime,
+                                                      @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Same ordering as the inbox, restricted to one type; served by (user_id, type, sent_at, id)
+    @Query("SELECT new com.cw.scheduler.dto.response.NotificationResponseDTO(" +
+            "n.id, n.message, n.sentAt, n.type, CASE WHEN n.readAt IS NULL THEN false ELSE true END) " +
+            "FROM Notification n WHERE n.user.id = :userId AND n.type = :type " +
+            "AND n.sentAt <= :beforeTime AND (n.sentAt < :beforeTime OR n.id < :beforeId) " +
+            "ORDER BY n.sentAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findTypePageBefore(@Param("userId") Long userId, @Param("type") NotificationType type,
+                                                     @Param("beforeTime") LocalDateTime beforeTime,
+                                                     @Param("beforeId") Long beforeId, Pageable pageable);
+
+    long countByUserIdAndReadAtIsNull(Long userId);
+
+    // Types the user never received are absent
+    @Query("SELECT new com.cw.scheduler.dto.response.NotificationTypeCountDTO(" +
+            "n.type, COUNT(n), SUM(CASE WHEN n.readAt IS NULL THEN 1L ELSE 0L END)) " +
+            "FROM Notification n WHERE n.user.id = :userId GROUP BY n.type")
+    List<NotificationTypeCountDTO> countByType(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.readAt = :readAt WHERE n.id = :id AND n.user.id = :userId AND n.readAt IS NULL")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.readAt = :readAt WHERE n.user.id = :userId AND n.readAt IS NULL")
+    int markAllRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
 }
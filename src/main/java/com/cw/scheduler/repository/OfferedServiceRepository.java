@@ -10,13 +10,26 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OfferedServiceRepository extends JpaRepository<OfferedService, Long> {
+public interface OfferedServiceRepository extends JpaRepository<OfferedService, Long>, OfferedServiceSearchRepository {
     List<OfferedService> findByCategory(Category category);
 
     List<OfferedService> findByProvider(ServiceProvider provider);
     int countByProvider(ServiceProvider provider);
 
-    List<OfferedService> findByNameContainingIgnoreCase(String name);
+    interface ServiceSearchRow {
+        Long getServiceId();
+        String getServiceName();
+        String getDescription();
+        String getCategoryName();
+        Long getProviderId();
+        String getProviderName();
+        String getBusinessName();
+        String getCity();
+        String getSpecialization();
+        Double getRating();
+        Double getMinPrice();
+        Double getMaxPrice();
+    }
 
     // Check if a provider offers a specific service
     Optional<OfferedService> findByIdAndProviderId(Long serviceId, Long providerId);
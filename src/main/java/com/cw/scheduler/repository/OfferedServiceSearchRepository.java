@@ -0,0 +1,14 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.repository.OfferedServiceRepository.ServiceSearchRow;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface OfferedServiceSearchRepository {
+
+    /**
+     * Discovery search over approved providers' services, best rated first.
+     */
+    List<ServiceSearchRow> search(ServiceSearchFilter filter, Pageable pageable);
+}
@@ -0,0 +1,165 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.repository.OfferedServiceRepository.ServiceSearchRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the search SQL from the filters actually given, so every predicate in the statement is a
+ * real one. Catch-all sentinels like {@code (:pattern = '%' OR ...)} would let a cached generic plan
+ * skip the trigram indexes. Text is matched with LIKE against the same lower(...) expressions the
+ * pg_trgm GIN indexes are built on, so '%text%' stays indexed.
+ */
+public class OfferedServiceSearchRepositoryImpl implements OfferedServiceSearchRepository {
+
+    private static final String SELECT = "SELECT s.id AS serviceId, s.name AS serviceName, s.description AS description, " +
+            "c.name AS categoryName, p.id AS providerId, p.full_name AS providerName, " +
+            "p.business_name AS businessName, p.city AS city, p.specialization AS specialization, " +
+            "p.rating AS rating, price.min_price AS minPrice, price.max_price AS maxPrice " +
+            "FROM services s " +
+            "JOIN service_providers p ON p.id = s.provider_id " +
+            "LEFT JOIN categories c ON c.id = s.category_id " +
+            "LEFT JOIN LATERAL (SELECT min(i.price) AS min_price, max(i.price) AS max_price " +
+            "  FROM individual_services i WHERE i.offered_service_id = s.id) price ON true " +
+            "WHERE p.application_status = 'APPROVED' AND p.rating >= :minRating";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ServiceSearchRow> search(ServiceSearchFilter filter, Pageable pageable) {
+        SearchQuery searchQuery = buildQuery(filter);
+        Query query = entityManager.createNativeQuery(searchQuery.sql(), Tuple.class);
+        searchQuery.parameters().forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        @SuppressWarnings("unchecked")
+        List<Tuple> tuples = query.getResultList();
+        return tuples.stream().<ServiceSearchRow>map(Row::new).toList();
+    }
+
+    static SearchQuery buildQuery(ServiceSearchFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("minRating", filter.minRating());
+
+        if (filter.pattern() != null) {
+            sql.append(" AND s.id IN (" +
+                    "SELECT ts.id FROM services ts " +
+                    "WHERE lower(coalesce(ts.name, '') || ' ' || coalesce(ts.description, '')) LIKE :pattern " +
+                    "UNION " +
+                    "SELECT tp.id FROM services tp JOIN service_providers sp ON sp.id = tp.provider_id " +
+                    "WHERE lower(coalesce(sp.specialization, '')) LIKE :pattern)");
+            parameters.put("pattern", filter.pattern());
+        }
+        if (filter.categoryId() != null) {
+            sql.append(" AND s.category_id = :categoryId");
+            parameters.put("categoryId", filter.categoryId());
+        }
+        if (filter.city() != null) {
+            sql.append(" AND lower(p.city) = :city");
+            parameters.put("city", filter.city());
+        }
+        if (filter.pinCode() != null) {
+            sql.append(" AND p.pin_code = :pinCode");
+            parameters.put("pinCode", filter.pinCode());
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM individual_services i WHERE i.offered_service_id = s.id");
+            if (filter.minPrice() != null) {
+                sql.append(" AND i.price >= :minPrice");
+                parameters.put("minPrice", filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                sql.append(" AND i.price <= :maxPrice");
+                parameters.put("maxPrice", filter.maxPrice());
+            }
+            sql.append(")");
+        }
+
+        sql.append(" ORDER BY p.rating DESC, s.id ASC");
+        return new SearchQuery(sql.toString(), parameters);
+    }
+
+    record SearchQuery(String sql, Map<String, Object> parameters) {
+    }
+
+    private record Row(Tuple tuple) implements ServiceSearchRow {
+
+        @Override
+        public Long getServiceId() {
+            return toLong(tuple.get("serviceId"));
+        }
+
+        @Override
+        public String getServiceName() {
+            return (String) tuple.get("serviceName");
+        }
+
+        @Override
+        public String getDescription() {
+            return (String) tuple.get("description");
+        }
+
+        @Override
+        public String getCategoryName() {
+            return (String) tuple.get("categoryName");
+        }
+
+        @Override
+        public Long getProviderId() {
+            return toLong(tuple.get("providerId"));
+        }
+
+        @Override
+        public String getProviderName() {
+            return (String) tuple.get("providerName");
+        }
+
+        @Override
+        public String getBusinessName() {
+            return (String) tuple.get("businessName");
+        }
+
+        @Override
+        public String getCity() {
+            return (String) tuple.get("city");
+        }
+
+        @Override
+        public String getSpecialization() {
+            return (String) tuple.get("specialization");
+        }
+
+        @Override
+        public Double getRating() {
+            return toDouble(tuple.get("rating"));
+        }
+
+        @Override
+        public Double getMinPrice() {
+            return toDouble(tuple.get("minPrice"));
+        }
+
+        @Override
+        public Double getMaxPrice() {
+            return toDouble(tuple.get("maxPrice"));
+        }
+
+        private static Long toLong(Object value) {
+            return value != null ? ((Number) value).longValue() : null;
+        }
+
+        private static Double toDouble(Object value) {
+            return value != null ? ((Number) value).doubleValue() : null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Records a pending event unless its key is taken; a duplicate must not abort the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO outbox_events (idempotency_key, event_type, aggregate_id, status, attempts, " +
+            "next_attempt_at, created_at) " +
+            "VALUES (:idempotencyKey, :eventType, :aggregateId, 'PENDING', 0, :now, :now) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("idempotencyKey") String idempotencyKey, @Param("eventType") String eventType,
+                       @Param("aggregateId") Long aggregateId, @Param("now") LocalDateTime now);
+
+    // Due events, skipping rows another dispatcher has locked; PROCESSING rows are due again once their lease ran out
+    @Query(value = "SELECT * FROM outbox_events " +
+            "WHERE status IN ('PENDING', 'PROCESSING') AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDueEvents(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,24 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.enums.ApplicationStatus;
+
+import java.util.Locale;
+
+/**
+ * Filters of the provider profile listing; a null city or specialization is not filtered on.
+ * Both are compared lower-cased, see {@link #normalize(String)}.
+ */
+public record ProviderProfileFilter(ApplicationStatus status, String city, String specialization) {
+
+    public static ProviderProfileFilter of(ApplicationStatus status, String city, String specialization) {
+        return new ProviderProfileFilter(status, normalize(city), normalize(specialization));
+    }
+
+    // also used in cache keys, so "Delhi" and " delhi" share an entry
+    public static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
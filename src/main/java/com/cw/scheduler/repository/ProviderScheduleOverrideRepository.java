@@ -0,0 +1,22 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.ProviderScheduleOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProviderScheduleOverrideRepository extends JpaRepository<ProviderScheduleOverride, Long> {
+
+    // Overrides of a provider from the given date on, used to build the availability index
+    List<ProviderScheduleOverride> findByProviderIdAndDateGreaterThanEqual(Long providerId, LocalDate from);
+
+    List<ProviderScheduleOverride> findByProviderIdAndDateBetweenOrderByDateAscStartTimeAsc(Long providerId, LocalDate from, LocalDate to);
+
+    List<ProviderScheduleOverride> findByProviderIdAndDate(Long providerId, LocalDate date);
+
+    Optional<ProviderScheduleOverride> findByIdAndProviderId(Long id, Long providerId);
+}
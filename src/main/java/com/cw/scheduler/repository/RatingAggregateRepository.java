@@ -0,0 +1,93 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.RatingAggregate;
+import com.cw.scheduler.entity.enums.RatingScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, Long> {
+
+    Optional<RatingAggregate> findByScopeAndTargetId(RatingScope scope, Long targetId);
+
+    // Adds one rating in a single atomic upsert, so concurrent reviews never lose an increment
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (scope, target_id, review_count, rating_sum, " +
+            "stars1, stars2, stars3, stars4, stars5, updated_at) " +
+            "VALUES (:scope, :targetId, 1, :rating, " +
+            "CASE WHEN :rating = 1 THEN 1 ELSE 0 END, CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :rating = 3 THEN 1 ELSE 0 END, CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :rating = 5 THEN 1 ELSE 0 END, now()) " +
+            "ON CONFLICT (scope, target_id) DO UPDATE SET " +
+            "review_count = rating_aggregates.review_count + 1, " +
+            "rating_sum = rating_aggregates.rating_sum + EXCLUDED.rating_sum, " +
+            "stars1 = rating_aggregates.stars1 + EXCLUDED.stars1, " +
+            "stars2 = rating_aggregates.stars2 + EXCLUDED.stars2, " +
+            "stars3 = rating_aggregates.stars3 + EXCLUDED.stars3, " +
+            "stars4 = rating_aggregates.stars4 + EXCLUDED.stars4, " +
+            "stars5 = rating_aggregates.stars5 + EXCLUDED.stars5, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int addRating(@Param("scope") String scope, @Param("targetId") Long targetId, @Param("rating") int rating);
+
+    // Copies the provider average onto service_providers.rating, which search sorts and filters on
+    @Modifying
+    @Query(value = "UPDATE service_providers p " +
+            "SET rating = CAST(a.rating_sum AS double precision) / a.review_count " +
+            "FROM rating_aggregates a " +
+            "WHERE a.scope = 'PROVIDER' AND a.target_id = p.id AND a.review_count > 0 AND p.id = :providerId",
+            nativeQuery = true)
+    int refreshProviderRating(@Param("providerId") Long providerId);
+
+    /*
+     * Reconcile statements: rebuild every aggregate from the reviews table. Run together in one
+     * transaction after locking reviews against concurrent inserts.
+     */
+
+    @Modifying
+    @Query(value = "LOCK TABLE reviews IN SHARE MODE", nativeQuery = true)
+    void lockReviews();
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (scope, target_id, review_count, rating_sum, " +
+            "stars1, stars2, stars3, stars4, stars5, updated_at) " +
+            "SELECT 'SERVICE', r.service_id, count(*), sum(r.rating), " +
+            "count(*) FILTER (WHERE r.rating = 1), count(*) FILTER (WHERE r.rating = 2), " +
+            "count(*) FILTER (WHERE r.rating = 3), count(*) FILTER (WHERE r.rating = 4), " +
+            "count(*) FILTER (WHERE r.rating = 5), now() " +
+            "FROM reviews r WHERE r.service_id IS NOT NULL GROUP BY r.service_id " +
+            "UNION ALL " +
+            "SELECT 'PROVIDER', s.provider_id, count(*), sum(r.rating), " +
+            "count(*) FILTER (WHERE r.rating = 1), count(*) FILTER (WHERE r.rating = 2), " +
+            "count(*) FILTER (WHERE r.rating = 3), count(*) FILTER (WHERE r.rating = 4), " +
+            "count(*) FILTER (WHERE r.rating = 5), now() " +
+            "FROM reviews r JOIN services s ON s.id = r.service_id WHERE s.provider_id IS NOT NULL " +
+            "GROUP BY s.provider_id " +
+            "ON CONFLICT (scope, target_id) DO UPDATE SET " +
+            "review_count = EXCLUDED.review_count, rating_sum = EXCLUDED.rating_sum, " +
+            "stars1 = EXCLUDED.stars1, stars2 = EXCLUDED.stars2, stars3 = EXCLUDED.stars3, " +
+            "stars4 = EXCLUDED.stars4, stars5 = EXCLUDED.stars5, updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int rebuildFromReviews();
+
+    // Aggregates whose reviews are all gone, e.g. after a user or service was deleted
+    @Modifying
+    @Query(value = "DELETE FROM rating_aggregates a WHERE " +
+            "(a.scope = 'SERVICE' AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.service_id = a.target_id)) " +
+            "OR (a.scope = 'PROVIDER' AND NOT EXISTS (SELECT 1 FROM reviews r JOIN services s ON s.id = r.service_id " +
+            "WHERE s.provider_id = a.target_id))",
+            nativeQuery = true)
+    int deleteOrphans();
+
+    @Modifying
+    @Query(value = "UPDATE service_providers p " +
+            "SET rating = COALESCE((SELECT CAST(a.rating_sum AS double precision) / a.review_count " +
+            "FROM rating_aggregates a WHERE a.scope = 'PROVIDER' AND a.target_id = p.id AND a.review_count > 0), 0)",
+            nativeQuery = true)
+    int refreshAllProviderRatings();
+}
@@ -1,13 +1,25 @@
 package com.cw.scheduler.repository;
 
+import com.cw.scheduler.dto.response.ReviewResponseDTO;
 import com.cw.scheduler.entity.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    List<Review> findByServiceId(Long serviceId);
-    List<Review> findByUserId(Long userId);
+    // Newest first, selecting the ReviewResponseDTO columns directly
+    @Query("SELECT new com.cw.scheduler.dto.response.ReviewResponseDTO(r.id, u.name, s.name, r.rating, r.comment, r.createdAt) " +
+            "FROM Review r JOIN r.service s LEFT JOIN r.user u " +
+            "WHERE s.id = :serviceId ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewResponseDTO> findServicePage(@Param("serviceId") Long serviceId, Pageable pageable);
+
+    @Query("SELECT new com.cw.scheduler.dto.response.ReviewResponseDTO(r.id, u.name, s.name, r.rating, r.comment, r.createdAt) " +
+            "FROM Review r JOIN r.user u LEFT JOIN r.service s " +
+            "WHERE u.id = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewResponseDTO> findUserPage(@Param("userId") Long userId, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.dto.response.ServiceProviderResponseDTO;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface ServiceProviderProfileRepository {
+
+    /**
+     * Provider profiles matching the filter as DTOs, in id order.
+     */
+    List<ServiceProviderResponseDTO> findProfiles(ProviderProfileFilter filter, Pageable pageable);
+}
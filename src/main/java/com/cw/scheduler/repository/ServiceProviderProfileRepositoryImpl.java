@@ -0,0 +1,60 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.dto.response.ServiceProviderResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the profile listing from the filters actually given, like the service search, so the
+ * city and specialization predicates are only present when they filter and then match the
+ * lower(...) indexes created by DatabaseSchemaInitializer.
+ */
+public class ServiceProviderProfileRepositoryImpl implements ServiceProviderProfileRepository {
+
+    private static final String SELECT = "SELECT new com.cw.scheduler.dto.response.ServiceProviderResponseDTO(" +
+            "p.id, p.user.id, p.fullName, p.phoneNumber, p.email, p.address, p.city, p.state, p.pinCode, " +
+            "p.businessName, p.specialization, p.qualification, p.yearsOfExperience, p.licenseNumber, " +
+            "p.description, p.availabilityNote, p.applicationDate) " +
+            "FROM ServiceProvider p WHERE p.applicationStatus = :status";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ServiceProviderResponseDTO> findProfiles(ProviderProfileFilter filter, Pageable pageable) {
+        ProfileQuery profileQuery = buildQuery(filter);
+        TypedQuery<ServiceProviderResponseDTO> query =
+                entityManager.createQuery(profileQuery.jpql(), ServiceProviderResponseDTO.class);
+        profileQuery.parameters().forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return query.getResultList();
+    }
+
+    static ProfileQuery buildQuery(ProviderProfileFilter filter) {
+        StringBuilder jpql = new StringBuilder(SELECT);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("status", filter.status());
+
+        if (filter.city() != null) {
+            jpql.append(" AND lower(p.city) = :city");
+            parameters.put("city", filter.city());
+        }
+        if (filter.specialization() != null) {
+            jpql.append(" AND lower(p.specialization) = :specialization");
+            parameters.put("specialization", filter.specialization());
+        }
+
+        jpql.append(" ORDER BY p.id ASC");
+        return new ProfileQuery(jpql.toString(), parameters);
+    }
+
+    record ProfileQuery(String jpql, Map<String, Object> parameters) {
+    }
+}
@@ -11,7 +11,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface ServiceProviderRepository extends JpaRepository<ServiceProvider, Long> {
+public interface ServiceProviderRepository extends JpaRepository<ServiceProvider, Long>, ServiceProviderProfileRepository {
     Optional<ServiceProvider> findByUser(User user);
     boolean existsByUser(User user);
     Page<ServiceProvider> findAllByApplicationStatus(ApplicationStatus status, Pageable pageable);
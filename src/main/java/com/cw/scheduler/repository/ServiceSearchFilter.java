@@ -0,0 +1,14 @@
+package com.cw.scheduler.repository;
+
+/**
+ * Filters of the discovery search; a null field is not filtered on. {@code pattern} is a LIKE pattern
+ * over lower-cased text, {@code city} is compared lower-cased.
+ */
+public record ServiceSearchFilter(String pattern,
+                                  Long categoryId,
+                                  String city,
+                                  String pinCode,
+                                  double minRating,
+                                  Double minPrice,
+                                  Double maxPrice) {
+}
@@ -21,6 +21,4 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findInactiveUsers();
 
     List<User> findByActiveTrue();
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = 'SERVICE_PROVIDER'")
-    List<User> findAllServiceProviders();
 }
@@ -7,4 +7,5 @@ public interface AuthenticationFacade {
     Authentication getAuthentication();
     User getCurrentUser();
     Long getCurrentUserId();
-}
\ No newline at end of file
+    Long getCurrentProviderId();
+}
@@ -1,6 +1,8 @@
 package com.cw.scheduler.security;
 
+import com.cw.scheduler.entity.ServiceProvider;
 import com.cw.scheduler.entity.User;
+import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.UserNotFoundException;
 import com.cw.scheduler.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -8,12 +10,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component("authenticationFacade")
 @RequiredArgsConstructor
 @Slf4j
 public class AuthenticationFacadeImpl implements AuthenticationFacade{
 
+    // the loaded User is kept for the rest of the request, however often it is asked for
+    private static final String CURRENT_USER_ATTRIBUTE = AuthenticationFacadeImpl.class.getName() + ".currentUser";
+
     private final UserRepository userRepository;
 
     @Override
@@ -28,6 +35,53 @@ public class AuthenticationFacadeImpl implements AuthenticationFacade{
 
     @Override
     public User getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached) {
+            return cached;
+        }
+
+        User user = loadCurrentUser();
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    @Override
+    public Long getCurrentUserId() {
+        JwtUserPrincipal principal = currentPrincipal();
+        if (principal != null && principal.getUserId() != null) {
+            return principal.getUserId();
+        }
+        return getCurrentUser().getId();
+    }
+
+    @Override
+    public Long getCurrentProviderId() {
+        JwtUserPrincipal principal = currentPrincipal();
+        if (principal != null && principal.getProviderId() != null) {
+            return principal.getProviderId();
+        }
+
+        // token predates the provider profile (or the claim), fall back to the entity
+        ServiceProvider provider = getCurrentUser().getServiceProvider();
+        if (provider == null) {
+            throw new BadRequestException("You are not a registered service provider.");
+        }
+        return provider.getId();
+    }
+
+    private User loadCurrentUser() {
+        JwtUserPrincipal principal = currentPrincipal();
+        if (principal != null && principal.getUserId() != null) {
+            return userRepository.findById(principal.getUserId())
+                    .orElseThrow(() -> {
+                        log.error("User not found: {}", principal.getUserId());
+                        return new UserNotFoundException("User not found with id : " + principal.getUserId());
+                    });
+        }
+
         String email = getAuthentication().getName();
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> {
@@ -36,8 +90,11 @@ public class AuthenticationFacadeImpl implements AuthenticationFacade{
                 });
     }
 
-    @Override
-    public Long getCurrentUserId() {
-        return getCurrentUser().getId();
+    private JwtUserPrincipal currentPrincipal() {
+        Authentication authentication = getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return principal;
+        }
+        return null;
     }
 }
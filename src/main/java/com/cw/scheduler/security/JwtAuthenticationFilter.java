@@ -18,7 +18,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -48,10 +47,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(TOKEN_PREFIX.length());
-        String username = null;
+        JwtClaims claims;
 
         try {
-            username = jwtService.extractUsername(token);
+            // verified once here; repeat requests with the same token are served from the cache
+            claims = jwtService.parseToken(token);
         } catch (ExpiredJwtException e) {
             log.warn("Token expired: {}", e.getMessage());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -62,6 +62,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        String username = claims.username();
         if (username == null) {
             log.warn("Username extracted from token is null, skipping authentication");
             filterChain.doFilter(request, response);
@@ -70,28 +71,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if(SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            List<String> roles = jwtService.extractRoles(token);
-            List<String> permissions = jwtService.extractAuthorities(token);
-
             Set<GrantedAuthority> authorities = Stream.concat(
-                    roles.stream().map(SimpleGrantedAuthority::new),
-                    permissions.stream().map(SimpleGrantedAuthority::new)
+                    claims.roles().stream().map(SimpleGrantedAuthority::new),
+                    claims.authorities().stream().map(SimpleGrantedAuthority::new)
             ).collect(Collectors.toSet());
 
-            UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+            // ids come from the token, so no user lookup is needed for this request
+            UserDetails userDetails = new JwtUserPrincipal(
                     username,
-                    "", // Password not needed here
+                    claims.userId(),
+                    claims.providerId(),
                     authorities
             );
 
-            if (jwtService.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                log.warn("JWT token validation failed for user '{}'", username);
-            }
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         } else {
             log.debug("Security context already contains authentication for user '{}'", username);
         }
@@ -0,0 +1,26 @@
+package com.cw.scheduler.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of a verified access token, parsed once and shared by everything that needs them.
+ */
+public record JwtClaims(
+        String username,
+        Long userId,
+        Long providerId,
+        List<String> roles,
+        List<String> authorities,
+        Instant expiresAt
+) {
+
+    public JwtClaims {
+        roles = List.copyOf(roles);
+        authorities = List.copyOf(authorities);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
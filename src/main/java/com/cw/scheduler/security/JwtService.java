@@ -1,8 +1,11 @@
 package com.cw.scheduler.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -28,11 +32,25 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     public long REFRESH_EXPIRATION_TIME;
 
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(VERIFIED_TOKEN_CACHE_SIZE, Clock.systemUTC());
+
+    // derived from the secret once, both are immutable and thread-safe
+    private SecretKey secretKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        secretKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(secretKey).build();
+    }
+
     private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return secretKey;
     }
 
-    public String generateToken(UserDetails userDetails, Long userId) {
+    public String generateToken(UserDetails userDetails, Long userId, Long providerId) {
         Map<String, Object> claims = new HashMap<>();
 
         // Separate roles (start with ROLE_) and authorities (everything else)
@@ -49,6 +67,9 @@ public class JwtService {
         claims.put("roles", roles);
         claims.put("authorities", permissions);
         claims.put("userId", userId);
+        if (providerId != null) {
+            claims.put("providerId", providerId);
+        }
 
         return createToken(claims, userDetails.getUsername());
     }
@@ -83,31 +104,52 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
-    public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object userIdObj = claims.get("userId");
-        if (userIdObj instanceof Integer) {
-            return ((Integer) userIdObj).longValue();
-        } else if (userIdObj instanceof Long) {
-            return (Long) userIdObj;
-        } else if (userIdObj instanceof String) {
-            return Long.parseLong((String) userIdObj);
+    /**
+     * Verifies the token and returns its claims, parsing each distinct token only once while it is valid.
+     * Throws {@link io.jsonwebtoken.ExpiredJwtException} or {@link io.jsonwebtoken.JwtException} like the parser.
+     */
+    public JwtClaims parseToken(String token) {
+        JwtClaims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
         }
-        throw new IllegalArgumentException("Invalid userId claim type");
-    }
-
 
-    public List<String> extractRoles(String token) {
-        return extractClaimList(token, "roles");
+        Claims claims = extractAllClaims(token);
+        JwtClaims parsed = new JwtClaims(
+                claims.getSubject(),
+                toLong(claims.get("userId")),
+                toLong(claims.get("providerId")),
+                toStringList(claims.get("roles")),
+                toStringList(claims.get("authorities")),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+
+        // tokens without an expiry would never leave the cache
+        if (parsed.expiresAt() != null) {
+            verifiedTokens.put(token, parsed);
+        }
+        return parsed;
     }
 
-    public List<String> extractAuthorities(String token) {
-        return extractClaimList(token, "authorities");
+    // a signed token with a malformed id claim is rejected like any other invalid token
+    private Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Integer) {
+            return ((Integer) value).longValue();
+        } else if (value instanceof Long) {
+            return (Long) value;
+        } else if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                throw new MalformedJwtException("Invalid id claim value", e);
+            }
+        }
+        throw new MalformedJwtException("Invalid id claim type");
     }
 
-    private List<String> extractClaimList(String token, String claimKey) {
-        Claims claims = extractAllClaims(token);
-        Object claim = claims.get(claimKey);
+    private List<String> toStringList(Object claim) {
         if (claim instanceof List<?>) {
             return ((List<?>) claim).stream()
                     .map(Object::toString)
@@ -130,17 +172,6 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build().parseSignedClaims(token)
-                .getPayload();
-    }
-
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        boolean isValid = (username.equals(userDetails.getUsername()) && isTokenExpired(token));
-
-        log.info("Validating token for user {}: {}", userDetails.getUsername(), isValid ? "Valid" : "Invalid");
-        return isValid;
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,25 @@
+package com.cw.scheduler.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal built from the JWT claims alone, so the ids of the caller are known without a DB lookup.
+ * {@code userId} is null for tokens issued before the claim existed, {@code providerId} for non-providers.
+ */
+@Getter
+public class JwtUserPrincipal extends User {
+
+    private final Long userId;
+    private final Long providerId;
+
+    public JwtUserPrincipal(String username, Long userId, Long providerId,
+                            Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities);
+        this.userId = userId;
+        this.providerId = providerId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cw.scheduler.security;
+
+import com.cw.scheduler.util.BoundedMaps;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of tokens whose signature has already been checked, keyed by the SHA-256 of the
+ * token so raw tokens are never held in memory. Entries die with the token's own expiry.
+ */
+public class VerifiedTokenCache {
+
+    private final Map<String, JwtClaims> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Clock clock;
+
+    public VerifiedTokenCache(int maxEntries, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public JwtClaims get(String token) {
+        String key = hash(token);
+        JwtClaims claims = entries.get(key);
+        if (claims != null && claims.isExpired(clock.instant())) {
+            entries.remove(key, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    public void put(String token, JwtClaims claims) {
+        // expired tokens go first; live ones dropped beyond that are simply verified again
+        Instant now = clock.instant();
+        BoundedMaps.makeRoom(entries, maxEntries, cached -> cached.isExpired(now));
+        entries.put(hash(token), claims);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
+import com.cw.scheduler.cache.CachePrefixEvictor;
 import com.cw.scheduler.dto.request.ProviderRejectionRequestDTO;
 import com.cw.scheduler.dto.response.ServiceProviderResponseDTO;
+import com.cw.scheduler.entity.Role;
 import com.cw.scheduler.entity.ServiceProvider;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.ApplicationStatus;
 import com.cw.scheduler.entity.enums.NotificationType;
 import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.UserNotFoundException;
+import com.cw.scheduler.mail.EmailTemplate;
+import com.cw.scheduler.repository.ProviderProfileFilter;
 import com.cw.scheduler.repository.ServiceProviderRepository;
 import com.cw.scheduler.repository.UserRepository;
 import com.cw.scheduler.service.interfaces.AdminProviderService;
@@ -42,6 +48,10 @@ public class AdminProviderServiceImpl implements AdminProviderService {
     private final ModelMapper modelMapper;
     private final NotificationService notificationService;
     private final CloudinaryUtil cloudinaryUtil;
+    private final CachePrefixEvictor cachePrefixEvictor;
+    private final CacheDependencyTracker cacheDependencies;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
     public ApiResponse<String> approveProviderRequest(Long userId) {
@@ -59,8 +69,11 @@ public class AdminProviderServiceImpl implements AdminProviderService {
 
         evictProviderCaches(provider.getUser().getId());
 
-        user.getRoles().add(roleService.getServiceProviderRole());
+        Role providerRole = roleService.getServiceProviderRole();
+        user.getRoles().add(providerRole);
         userRepository.save(user);
+        cacheDependencies.invalidate("provider.approve",
+                CacheDependency.user(userId), CacheDependency.userSet("role:" + providerRole.getName()));
 
         sendApprovalEmail(user);
 
@@ -122,7 +135,7 @@ public class AdminProviderServiceImpl implements AdminProviderService {
     }
 
     @Override
-    @Cacheable(value = "providerApplications", key = "'pending:' + #page + ':' + #size")
+    @Cacheable(value = "providerApplications", key = "'pending:' + #page + ':' + #size", sync = true)
     public ApiResponse<List<ServiceProviderResponseDTO>> getPendingProviderApplications(int page, int size) {
         log.info("Fetching pending provider applications, page={}, size={}", page, size);
 
@@ -140,23 +153,21 @@ public class AdminProviderServiceImpl implements AdminProviderService {
     }
 
     @Override
-    @Cacheable(value = "providerProfiles", key = "'approved'")
-    public ApiResponse<List<ServiceProviderResponseDTO>> getAllApprovedServiceProviders() {
-        log.info("Fetching all approved service providers");
-
-        List<User> approvedUsers = userRepository.findAllServiceProviders().stream()
-                .filter(user -> user.getServiceProvider() != null &&
-                        user.getServiceProvider().getApplicationStatus().equals(ApplicationStatus.APPROVED))
-                .toList();
-
-        List<ServiceProviderResponseDTO> response = approvedUsers.stream()
-                .map(user -> {
-                    ServiceProvider provider = user.getServiceProvider();
-                    ServiceProviderResponseDTO dto = modelMapper.map(provider, ServiceProviderResponseDTO.class);
-                    dto.setUserId(provider.getUser().getId());
-                    return dto;
-                })
-                .toList();
+    @Cacheable(value = "providerProfiles",
+            key = "'approved:' + #page + ':' + #size + ':' "
+                    + "+ T(com.cw.scheduler.repository.ProviderProfileFilter).normalize(#city) + ':' "
+                    + "+ T(com.cw.scheduler.repository.ProviderProfileFilter).normalize(#specialization)",
+            sync = true)
+    public ApiResponse<List<ServiceProviderResponseDTO>> getApprovedServiceProviders(String city, String specialization,
+                                                                                     int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        log.info("Fetching approved service providers, city={}, specialization={}, page={}, size={}",
+                city, specialization, page, size);
+
+        List<ServiceProviderResponseDTO> response = serviceProviderRepository.findProfiles(
+                ProviderProfileFilter.of(ApplicationStatus.APPROVED, city, specialization), PageRequest.of(page, size));
 
         return ApiResponse.success(response, "Approved service providers fetched successfully.");
     }
@@ -165,7 +176,7 @@ public class AdminProviderServiceImpl implements AdminProviderService {
         notificationService.sendEmail(
                 user.getEmail(),
                 "Your Service Provider Application is Approved!",
-                "approval-email.html",
+                EmailTemplate.APPLICATION_APPROVED,
                 Map.of(
                         "name", user.getName(),
                         "dashboardUrl", "http://localhost:8085/provider/dashboard"
@@ -184,7 +195,7 @@ public class AdminProviderServiceImpl implements AdminProviderService {
         notificationService.sendEmail(
                 user.getEmail(),
                 "Your Service Provider Application is Rejected",
-                "rejection-email.html",
+                EmailTemplate.APPLICATION_REJECTED,
                 Map.of(
                         "name", user.getName(),
                         "rejectionReason", rejectionReason
@@ -237,6 +248,9 @@ public class AdminProviderServiceImpl implements AdminProviderService {
     @CacheEvict(value = { "providerProfiles", "providerApplications" }, key = "#userId")
     public void evictProviderCaches(Long userId) {
         log.info("Evicting provider caches for userId={}", userId);
+        // approval and rejection move a provider between the cached listing pages
+        cachePrefixEvictor.evictByPrefix("providerProfiles", "approved:");
+        cachePrefixEvictor.evictByPrefix("providerApplications", "pending:");
     }
 
 }
@@ -1,6 +1,8 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.response.UserResponseDTO;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.exception.UserNotFoundException;
@@ -9,10 +11,11 @@ import com.cw.scheduler.service.interfaces.AdminService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,81 +26,96 @@ public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final CacheDependencyTracker cacheDependencies;
 
     @Override
-    @Cacheable(value = "allUsers")
+    @Cacheable(value = "allUsers", sync = true)
     public ApiResponse<List<UserResponseDTO>> getAllUsers() {
         log.info("Fetching all users from DB");
         List<User> users = userRepository.findAll();
+        registerListing("allUsers", SimpleKey.EMPTY, "all", users);
         return ApiResponse.success(toDto(users), "Fetched all users.");
     }
 
     @Override
-    @Cacheable(value = "usersByRole", key = "#roleName")
+    @Cacheable(value = "usersByRole", key = "#roleName", sync = true)
     public ApiResponse<List<UserResponseDTO>> getUsersByRole(String roleName) {
         log.info("Fetching users with role: {}", roleName);
         List<User> users = userRepository.findUsersByRole(roleName);
+        registerListing("usersByRole", roleName, "role:" + roleName, users);
         return ApiResponse.success(toDto(users), "Fetched users with role: " + roleName);
     }
 
     @Override
-    @Cacheable(value = "inactiveUsers")
+    @Cacheable(value = "inactiveUsers", sync = true)
     public ApiResponse<List<UserResponseDTO>> getInactiveUsers() {
         log.info("Fetching inactive users");
         List<User> users = userRepository.findInactiveUsers();
+        registerListing("inactiveUsers", SimpleKey.EMPTY, "inactive", users);
         return ApiResponse.success(toDto(users), "Fetched inactive users.");
     }
 
     @Override
-    @Cacheable(value = "activeUsers")
+    @Cacheable(value = "activeUsers", sync = true)
     public ApiResponse<List<UserResponseDTO>> getActiveUsers() {
         log.info("Fetching active users");
         List<User> users = userRepository.findByActiveTrue();
+        registerListing("activeUsers", SimpleKey.EMPTY, "active", users);
         return ApiResponse.success(toDto(users), "Fetched active users.");
     }
 
     @Override
-    @CacheEvict(value = {"allUsers", "activeUsers", "inactiveUsers", "usersByRole", "userById"}, allEntries = true)
     public ApiResponse<String> deactivateUser(Long userId) {
         log.warn("Deactivating user with ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         user.setActive(false);
         userRepository.save(user);
+        // every listing holding the user, plus the inactive list it joins
+        cacheDependencies.invalidate("user.deactivate", CacheDependency.user(userId), CacheDependency.userSet("inactive"));
         return ApiResponse.success("User deactivated successfully.");
     }
 
     @Override
-    @CacheEvict(value = {"allUsers", "activeUsers", "inactiveUsers", "usersByRole", "userById"}, allEntries = true)
     public ApiResponse<String> activateUser(Long userId) {
         log.info("Activating user with ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         user.setActive(true);
         userRepository.save(user);
+        cacheDependencies.invalidate("user.activate", CacheDependency.user(userId), CacheDependency.userSet("active"));
         return ApiResponse.success("User activated successfully.");
     }
 
     @Override
-    @CacheEvict(value = {"allUsers", "activeUsers", "inactiveUsers", "usersByRole", "userById"}, allEntries = true)
     public ApiResponse<String> deleteUserPermanently(Long userId) {
         log.error("Deleting user permanently with ID: {}", userId);
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException("User not found");
         }
         userRepository.deleteById(userId);
+        cacheDependencies.invalidate("user.delete", CacheDependency.user(userId));
         return ApiResponse.success("User permanently deleted.");
     }
 
     @Override
-    @Cacheable(value = "userById", key = "#userId")
+    @Cacheable(value = "userById", key = "#userId", sync = true)
     public ApiResponse<UserResponseDTO> getUserById(Long userId) {
         log.info("Fetching user details for ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+        cacheDependencies.register("userById", userId, List.of(CacheDependency.user(userId)));
         return ApiResponse.success(modelMapper.map(user, UserResponseDTO.class), "Fetched user details.");
     }
 
+    // a listing depends on each user in it and on the membership of the set it lists
+    private void registerListing(String cacheName, Object key, String userSet, List<User> users) {
+        List<CacheDependency> dependencies = new ArrayList<>(users.size() + 1);
+        dependencies.add(CacheDependency.userSet(userSet));
+        users.forEach(user -> dependencies.add(CacheDependency.user(user.getId())));
+        cacheDependencies.register(cacheName, key, dependencies);
+    }
+
     private List<UserResponseDTO> toDto(List<User> users) {
         return users.stream()
                 .map(user -> modelMapper.map(user, UserResponseDTO.class))
@@ -1,36 +1,53 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.availability.ProviderAvailability;
+import com.cw.scheduler.availability.ProviderLockStripes;
+import com.cw.scheduler.availability.SlotBitmap;
+import com.cw.scheduler.cache.AppointmentCacheCoordinator;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.request.AppointmentRequestDTO;
 import com.cw.scheduler.dto.response.AppointmentResponseDTO;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.FreeSlotResponseDTO;
 import com.cw.scheduler.entity.Appointment;
 import com.cw.scheduler.entity.IndividualService;
 import com.cw.scheduler.entity.ServiceProvider;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.AppointmentStatus;
-import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.entity.enums.OutboxEventType;
 import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.ResourceNotFoundException;
+import com.cw.scheduler.exception.ScheduleConflictException;
+import com.cw.scheduler.outbox.OutboxDispatcher;
+import com.cw.scheduler.reminder.AppointmentReminderScheduler;
 import com.cw.scheduler.repository.AppointmentRepository;
 import com.cw.scheduler.repository.IndividualServiceRepository;
-import com.cw.scheduler.repository.ProviderScheduleRepository;
+import com.cw.scheduler.repository.ServiceProviderRepository;
 import com.cw.scheduler.security.AuthenticationFacade;
 import com.cw.scheduler.service.interfaces.AppointmentService;
-import com.cw.scheduler.service.interfaces.NotificationService;
+import com.cw.scheduler.service.interfaces.AvailabilityService;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import com.cw.scheduler.util.DatabaseSchemaInitializer;
+import com.cw.scheduler.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.DayOfWeek;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
@@ -39,10 +56,25 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
     private final IndividualServiceRepository individualServiceRepository;
-    private final ProviderScheduleRepository providerScheduleRepository;
+    private final ServiceProviderRepository serviceProviderRepository;
+    private final AvailabilityService availabilityService;
     private final AuthenticationFacade authenticationFacade;
-    private final ModelMapper modelMapper;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final AppointmentReminderScheduler reminderScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheDependencyTracker cacheDependencies;
+    private final AppointmentCacheCoordinator appointmentCacheCoordinator;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    // lower bound of the full listings, before any appointment could exist
+    private static final LocalDateTime LISTING_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final ProviderLockStripes bookingLocks =
+            new ProviderLockStripes(Runtime.getRuntime().availableProcessors() * 4);
 
 //    @Override
 //    @Caching(evict = {
@@ -86,13 +118,6 @@ public class AppointmentServiceImpl implements AppointmentService {
 //    }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "userAppointments", key = "@authenticationFacade.getCurrentUser().serviceProvider.id"),
-            @CacheEvict(value = "providerAppointments", key = "#result.provider.id"),
-            @CacheEvict(value = "upcomingAppointments", key = "#result.provider.id"),
-            @CacheEvict(value = "appointmentsByDate",
-                    key = "#result.provider.id + '_' + #requestDTO.appointmentTime.toLocalDate()")
-    })
     public Appointment bookAppointmentAndReturnEntity(AppointmentRequestDTO requestDTO) {
         User currentUser = authenticationFacade.getCurrentUser();
 
@@ -100,7 +125,6 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
         ServiceProvider provider = service.getOfferedService().getProvider();
-        validateProviderAvailability(provider.getId(), requestDTO.getAppointmentTime());
 
         Appointment appointment = new Appointment();
         appointment.setUser(currentUser);
@@ -109,112 +133,180 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setAppointmentTime(requestDTO.getAppointmentTime());
         appointment.setStatus(AppointmentStatus.CONFIRMED);
 
-        Appointment saved = appointmentRepository.save(appointment);
-
-        sendAppointmentConfirmationEmail(saved);
-
-        return saved;
+        // caches are evicted right after commit; email, notification and calendar follow through the outbox,
+        // whose cache step only retries an eviction that failed
+        return saveUnderProviderLock(appointment, true, OutboxEventType.APPOINTMENT_BOOKED);
     }
 
     @Override
-    @Cacheable(value = "userAppointments", key = "@authenticationFacade.getCurrentUserId()")
-    public ApiResponse<List<AppointmentResponseDTO>> getAppointmentsForCurrentUser() {
-        User user = authenticationFacade.getCurrentUser();
-        log.debug("Fetching appointments for userId={}", user.getId());
-
-        List<Appointment> appointments = appointmentRepository.findByUserId(user.getId());
-        return ApiResponse.success(appointments.stream().map(this::toDTO).toList(),
-                "User's appointments retrieved.");
+    @Cacheable(value = "userAppointments", key = "@authenticationFacade.getCurrentUserId() + ':' + #cursor + ':' + #size", sync = true)
+    public ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getAppointmentsForCurrentUser(String cursor, int size) {
+        Long userId = authenticationFacade.getCurrentUserId();
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.startingAt(LISTING_START);
+        validatePageSize(size);
+        log.debug("Fetching appointments for userId={} after {}", userId, after);
+
+        List<AppointmentResponseDTO> rows = appointmentRepository.findUserPageAfter(
+                userId, after.time(), after.id(), PageRequest.ofSize(size + 1));
+        return ApiResponse.success(toPage(rows, size), "User's appointments retrieved.");
     }
 
     @Override
     public ApiResponse<String> cancelAppointment(Long appointmentId) {
-        User user = authenticationFacade.getCurrentUser();
-        log.info("UserId={} attempting to cancel appointmentId={}", user.getId(), appointmentId);
+        Long userId = authenticationFacade.getCurrentUserId();
+        log.info("UserId={} attempting to cancel appointmentId={}", userId, appointmentId);
 
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
 
-        if (!appointment.getUser().getId().equals(user.getId())) {
-            log.warn("Unauthorized cancel attempt by userId={} for appointmentId={}", user.getId(), appointmentId);
+        if (appointment.getUser() == null || !appointment.getUser().getId().equals(userId)) {
+            log.warn("Unauthorized cancel attempt by userId={} for appointmentId={}", userId, appointmentId);
             throw new BadRequestException("Unauthorized to cancel this appointment");
         }
 
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-
-        appointmentRepository.save(appointment);
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            throw new BadRequestException("Appointment is already cancelled");
+        }
 
-        // Send cancellation email
-        sendAppointmentCancellationEmail(appointment);
+        appointment.setStatus(AppointmentStatus.CANCELLED);
+        saveUnderProviderLock(appointment, false, OutboxEventType.APPOINTMENT_CANCELLED);
 
         log.info("Appointment cancelled: appointmentId={}", appointmentId);
         return ApiResponse.success("Appointment cancelled successfully.");
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "userAppointments", key = "@authenticationFacade.getCurrentUser().serviceProvider.id"),
-            @CacheEvict(value = "providerAppointments", key = "#result.providerId"),
-            @CacheEvict(value = "upcomingAppointments", key = "#result.providerId"),
-            @CacheEvict(value = "appointmentsByDate", allEntries = true)
-    })
     public ApiResponse<AppointmentResponseDTO> updateAppointmentStatus(Long appointmentId, AppointmentStatus status) {
-        ServiceProvider currentProvider = authenticationFacade.getCurrentUser().getServiceProvider();
+        Long currentProviderId = authenticationFacade.getCurrentProviderId();
         log.info("ProviderId={} updating appointmentId={} to status={}",
-                currentProvider.getId(), appointmentId, status);
+                currentProviderId, appointmentId, status);
 
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
 
-        if (!appointment.getProvider().getId().equals(currentProvider.getId())) {
+        if (!appointment.getProvider().getId().equals(currentProviderId)) {
             log.warn("Unauthorized update attempt by providerId={} for appointmentId={}",
-                    currentProvider.getId(), appointmentId);
+                    currentProviderId, appointmentId);
             throw new BadRequestException("You are not authorized to update this appointment.");
         }
 
+        // moving out of CANCELLED takes the slot again, so it goes through the same checks as a booking
+        boolean reclaimsSlot = appointment.getStatus() == AppointmentStatus.CANCELLED
+                && status != AppointmentStatus.CANCELLED;
         appointment.setStatus(status);
-        Appointment updated = appointmentRepository.save(appointment);
+        Appointment updated = saveUnderProviderLock(appointment, reclaimsSlot, null);
 
         return ApiResponse.success(toDTO(updated), "Appointment status updated to " + status.name());
     }
 
     @Override
-    @Cacheable(value = "providerAppointments", key = "@authenticationFacade.getCurrentUser().serviceProvider.id")
-    public ApiResponse<List<AppointmentResponseDTO>> getProviderAppointments() {
-        ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
-        log.debug("Fetching appointments for providerId={}", provider.getId());
-
-        List<Appointment> appointments = appointmentRepository.findByProviderId(provider.getId());
-        return ApiResponse.success(appointments.stream().map(this::toDTO).toList(),
-                "Fetched provider appointments.");
+    @Cacheable(value = "providerAppointments", key = "@authenticationFacade.getCurrentProviderId() + ':' + #cursor + ':' + #size", sync = true)
+    public ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getProviderAppointments(String cursor, int size) {
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.startingAt(LISTING_START);
+        validatePageSize(size);
+        log.debug("Fetching appointments for providerId={} after {}", providerId, after);
+
+        List<AppointmentResponseDTO> rows = appointmentRepository.findProviderPageAfter(
+                providerId, after.time(), after.id(), PageRequest.ofSize(size + 1));
+        return ApiResponse.success(toPage(rows, size), "Fetched provider appointments.");
     }
 
     @Override
-    @Cacheable(value = "upcomingAppointments", key = "@authenticationFacade.getCurrentUser().serviceProvider.id")
-    public ApiResponse<List<AppointmentResponseDTO>> getUpcomingAppointments() {
-        ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
-        log.debug("Fetching upcoming appointments for providerId={}", provider.getId());
-
-        List<Appointment> appointments = appointmentRepository.findUpcomingAppointmentsForProvider(
-                provider.getId(), LocalDateTime.now());
-        return ApiResponse.success(appointments.stream().map(this::toDTO).toList(),
-                "Fetched upcoming appointments.");
+    @Cacheable(value = "upcomingAppointments", key = "@authenticationFacade.getCurrentProviderId() + ':' + (#cursor ?: 'from ' + T(com.cw.scheduler.util.KeysetCursor).currentMinute()) + ':' + #size", sync = true)
+    public ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getUpcomingAppointments(String cursor, int size) {
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        // the first page starts at the minute named in its cache key, so it stops being served once that minute is over
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.startingAt(KeysetCursor.currentMinute());
+        validatePageSize(size);
+        log.debug("Fetching upcoming appointments for providerId={} after {}", providerId, after);
+
+        List<AppointmentResponseDTO> rows = appointmentRepository.findProviderPageAfter(
+                providerId, after.time(), after.id(), PageRequest.ofSize(size + 1));
+        return ApiResponse.success(toPage(rows, size), "Fetched upcoming appointments.");
     }
 
+    /**
+     * Streams the provider's full history as a JSON array, reading it in keyset batches so
+     * neither the result set nor the response is held in memory.
+     */
     @Override
-    @Cacheable(value = "appointmentsByDate", key = "@authenticationFacade.getCurrentUser().serviceProvider.id + '_' + #date")
+    public StreamingResponseBody exportProviderAppointments() {
+        // resolved on the request thread, the body is written on an async one
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        log.info("Exporting appointments for providerId={}", providerId);
+
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                KeysetCursor after = KeysetCursor.startingAt(LISTING_START);
+                List<AppointmentResponseDTO> batch;
+                do {
+                    batch = appointmentRepository.findProviderPageAfter(
+                            providerId, after.time(), after.id(), PageRequest.ofSize(EXPORT_BATCH_SIZE));
+                    for (AppointmentResponseDTO appointment : batch) {
+                        generator.writeObject(appointment);
+                    }
+                    generator.flush();
+                    if (!batch.isEmpty()) {
+                        after = cursorOf(batch.get(batch.size() - 1));
+                    }
+                } while (batch.size() == EXPORT_BATCH_SIZE);
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    @Override
+    @Cacheable(value = "appointmentsByDate", key = "@authenticationFacade.getCurrentProviderId() + '_' + #date", sync = true)
     public ApiResponse<List<AppointmentResponseDTO>> getAppointmentsForDate(LocalDate date) {
-        ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
-        log.debug("Fetching appointments for providerId={} on date={}", provider.getId(), date);
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        log.debug("Fetching appointments for providerId={} on date={}", providerId, date);
 
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-        List<Appointment> appointments = appointmentRepository
-                .findByProviderIdAndAppointmentTimeBetween(provider.getId(), startOfDay, endOfDay);
+        List<AppointmentResponseDTO> appointments = appointmentRepository
+                .findProviderAppointmentsBetween(providerId, startOfDay, endOfDay);
+        cacheDependencies.register("appointmentsByDate", providerId + "_" + date,
+                List.of(CacheDependency.providerDay(providerId, date)));
+
+        return ApiResponse.success(appointments, "Appointments for date: " + date);
+    }
+
+    @Override
+    public ApiResponse<List<FreeSlotResponseDTO>> getFreeSlots(Long providerId, Long individualServiceId,
+                                                               LocalDate from, LocalDate to) {
+        if ((providerId == null) == (individualServiceId == null)) {
+            throw new BadRequestException("Specify exactly one of providerId or individualServiceId.");
+        }
+        if (to.isBefore(from)) {
+            throw new BadRequestException("The end date must not be before the start date.");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = from.isBefore(today) ? today : from;
+        if (to.isAfter(today.plusDays(ProviderAvailability.BITMAP_HORIZON_DAYS))) {
+            throw new BadRequestException("Free slots can only be searched "
+                    + ProviderAvailability.BITMAP_HORIZON_DAYS + " days ahead.");
+        }
+
+        int durationMinutes = SlotBitmap.GRANULE_MINUTES;
+        if (individualServiceId != null) {
+            IndividualService service = individualServiceRepository.findById(individualServiceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+            providerId = service.getOfferedService().getProvider().getId();
+            durationMinutes = service.getDurationMinutes();
+        } else if (!serviceProviderRepository.existsById(providerId)) {
+            throw new ResourceNotFoundException("Service provider not found");
+        }
 
-        return ApiResponse.success(appointments.stream().map(this::toDTO).toList(),
-                "Appointments for date: " + date);
+        log.debug("Searching free slots for providerId={} from {} to {} ({} min)",
+                providerId, start, to, durationMinutes);
+        List<FreeSlotResponseDTO> slots = start.isAfter(to)
+                ? List.of()
+                : availabilityService.findFreeSlots(providerId, start, to, durationMinutes);
+        return ApiResponse.success(slots, "Free slots retrieved.");
     }
 
     @Override
@@ -222,94 +314,100 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointmentRepository.save(appointment);
     }
 
-    private AppointmentResponseDTO toDTO(Appointment appointment) {
-        AppointmentResponseDTO dto = modelMapper.map(appointment, AppointmentResponseDTO.class);
-        dto.setIndividualServiceName(appointment.getIndividualService().getName());
-        dto.setProviderFullName(appointment.getProvider().getFullName());
-        dto.setProviderId(appointment.getProvider().getId());
-        dto.setUserId(appointment.getUser().getId());
-
-        return dto;
+    /**
+     * Saves the appointment while holding its provider's stripe lock, so the availability check,
+     * the insert and the index update are not interleaved with another booking for the same provider.
+     * The exclusion constraint on appointments still catches bookings made by other instances.
+     * A non-null event type is recorded in the outbox within the same transaction.
+     */
+    private Appointment saveUnderProviderLock(Appointment appointment, boolean checkAvailability,
+                                              OutboxEventType eventType) {
+        Long providerId = appointment.getProvider().getId();
+        int durationMinutes = appointment.getIndividualService().getDurationMinutes();
+        appointment.setAppointmentEndTime(appointment.getAppointmentTime().plusMinutes(Math.max(durationMinutes, 1)));
+
+        ReentrantLock lock = bookingLocks.lockFor(providerId);
+        lock.lock();
+        try {
+            if (checkAvailability) {
+                availabilityService.assertBookable(providerId, appointment.getAppointmentTime(), durationMinutes);
+            }
+
+            Appointment saved = transactionTemplate.execute(status -> {
+                // flushed so the version is the one this change produced
+                Appointment persisted = appointmentRepository.saveAndFlush(appointment);
+                if (eventType != null) {
+                    outboxService.enqueue(eventType, persisted.getId(), persisted.getVersion());
+                }
+                appointmentCacheCoordinator.evictAfterCommit(persisted, cacheWriteName(eventType));
+                return persisted;
+            });
+            availabilityService.onAppointmentChanged(saved);
+            reminderScheduler.onAppointmentChanged(saved);
+            if (eventType != null) {
+                outboxDispatcher.dispatchPending();
+            }
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            // booked concurrently elsewhere, our index is stale for this provider
+            log.warn("Overlapping appointment rejected by the database for providerId={} at {}",
+                    providerId, appointment.getAppointmentTime());
+            availabilityService.invalidate(providerId);
+            throw new ScheduleConflictException("The provider already has an appointment at this time.");
+        } finally {
+            lock.unlock();
+        }
     }
 
-    private void validateProviderAvailability(Long providerId, LocalDateTime appointmentTime) {
-        DayOfWeek dayOfWeek = appointmentTime.getDayOfWeek();
-        LocalTime time = appointmentTime.toLocalTime();
-
-        boolean available = providerScheduleRepository.isProviderAvailableAt(providerId, dayOfWeek, time).isPresent();
-        if (!available) {
-            log.warn("ProviderId={} not available at {}", providerId, appointmentTime);
-            throw new BadRequestException("The provider is not available at the requested time.");
+    // exclusion_violation raised by the provider overlap constraint; FK, not-null and unique errors are not conflicts
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                return sql.getMessage() != null && sql.getMessage().contains(DatabaseSchemaInitializer.OVERLAP_CONSTRAINT);
+            }
         }
+        return false;
+    }
 
-        boolean alreadyBooked = appointmentRepository.existsByProviderIdAndAppointmentTime(providerId, appointmentTime);
-        if (alreadyBooked) {
-            log.warn("ProviderId={} already booked at {}", providerId, appointmentTime);
-            throw new BadRequestException("The provider already has an appointment at this time.");
+    private static String cacheWriteName(OutboxEventType eventType) {
+        if (eventType == null) {
+            return "appointment.status";
         }
+        return eventType == OutboxEventType.APPOINTMENT_BOOKED ? "appointment.book" : "appointment.cancel";
     }
 
-    private void sendAppointmentConfirmationEmail(Appointment appointment) {
-        User user = appointment.getUser();
-
-        // Send email using HTML template
-        notificationService.sendEmail(
-                user.getEmail(),
-                "Your Appointment is Confirmed!",
-                "appointment-confirmation",
-                Map.of(
-                        "name", user.getName(),
-                        "serviceName", appointment.getIndividualService().getName(),
-                        "providerName", appointment.getProvider().getBusinessName(),
-                        "appointmentDate", appointment.getAppointmentTime().toLocalDate().toString(),
-                        "appointmentTime", appointment.getAppointmentTime().toLocalTime().toString(),
-                        "dashboardUrl", "http://localhost:8085/user/appointments"
-                )
-        );
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
 
-        // Save notification in DB
-        notificationService.saveNotification(
-                user,
-                String.format(
-                        "Your appointment for %s with %s on %s at %s is confirmed.",
-                        appointment.getIndividualService().getName(),
-                        appointment.getProvider().getBusinessName(),
-                        appointment.getAppointmentTime().toLocalDate(),
-                        appointment.getAppointmentTime().toLocalTime()
-                ),
-                NotificationType.APPOINTMENT_CONFIRMED
-        );
+    /**
+     * Turns {@code size + 1} fetched rows into a page; the extra row only signals that more follow.
+     */
+    private CursorPageResponseDTO<AppointmentResponseDTO> toPage(List<AppointmentResponseDTO> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<AppointmentResponseDTO> page = hasNext ? List.copyOf(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? cursorOf(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageResponseDTO<>(page, nextCursor, hasNext);
     }
 
-    private void sendAppointmentCancellationEmail(Appointment appointment) {
-        User user = appointment.getUser();
-
-        notificationService.sendEmail(
-                user.getEmail(),
-                "Your Appointment Has Been Cancelled",
-                "appointment-cancellation.html", // Thymeleaf template
-                Map.of(
-                        "name", user.getName(),
-                        "serviceName", appointment.getIndividualService().getName(),
-                        "providerName", appointment.getProvider().getBusinessName(),
-                        "appointmentDate", appointment.getAppointmentTime().toLocalDate().toString(),
-                        "appointmentTime", appointment.getAppointmentTime().toLocalTime().toString(),
-                        "dashboardUrl", "http://localhost:8085/user/appointments"
-                )
-        );
+    private static KeysetCursor cursorOf(AppointmentResponseDTO appointment) {
+        return new KeysetCursor(appointment.getAppointmentTime(), appointment.getId());
+    }
 
-        notificationService.saveNotification(
-                user,
-                String.format(
-                        "Your appointment for %s with %s on %s at %s has been cancelled.",
-                        appointment.getIndividualService().getName(),
-                        appointment.getProvider().getBusinessName(),
-                        appointment.getAppointmentTime().toLocalDate(),
-                        appointment.getAppointmentTime().toLocalTime()
-                ),
-                NotificationType.APPOINTMENT_CANCELLED
+    private AppointmentResponseDTO toDTO(Appointment appointment) {
+        return new AppointmentResponseDTO(
+                appointment.getId(),
+                appointment.getProvider().getId(),
+                appointment.getUser() != null ? appointment.getUser().getId() : null,
+                appointment.getIndividualService().getName(),
+                appointment.getProvider().getFullName(),
+                appointment.getAppointmentTime(),
+                appointment.getStatus()
         );
     }
-
-
 }
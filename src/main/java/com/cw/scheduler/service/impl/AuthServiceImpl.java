@@ -1,6 +1,8 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.request.LoginRequestDTO;
 import com.cw.scheduler.dto.request.RegisterRequestDTO;
 import com.cw.scheduler.dto.response.LoginResponseDTO;
@@ -11,6 +13,7 @@ import com.cw.scheduler.entity.enums.NotificationType;
 import com.cw.scheduler.exception.BadCredentialsException;
 import com.cw.scheduler.exception.DuplicateResourceException;
 import com.cw.scheduler.exception.UserNotFoundException;
+import com.cw.scheduler.mail.EmailTemplate;
 import com.cw.scheduler.repository.UserRepository;
 import com.cw.scheduler.security.CustomUserDetailsService;
 import com.cw.scheduler.security.JwtService;
@@ -24,6 +27,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -40,6 +45,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final NotificationService notificationService;
+    private final CacheDependencyTracker cacheDependencies;
 
     @Override
     @Transactional
@@ -49,6 +55,7 @@ public class AuthServiceImpl implements AuthService {
 
         User user = buildNewUser(request);
         User savedUser = userRepository.save(user);
+        invalidateUserListings(savedUser);
 
         sendWelcomeEmail(savedUser, appUrl);
 
@@ -75,7 +82,8 @@ public class AuthServiceImpl implements AuthService {
 
         String jwtToken = jwtService.generateToken(
                 userDetailsService.loadUserByUsername(user.getEmail()),
-                user.getId()
+                user.getId(),
+                user.getServiceProvider() != null ? user.getServiceProvider().getId() : null
         );
         String refreshToken = jwtService.generateRefreshToken(
                 userDetailsService.loadUserByUsername(user.getEmail())
@@ -116,7 +124,7 @@ public class AuthServiceImpl implements AuthService {
         notificationService.sendEmail(
                 user.getEmail(),
                 "Welcome to Apointiq",
-                "welcome-email",
+                EmailTemplate.WELCOME,
                 Map.of(
                         "username", user.getName(),
                         "loginUrl", loginUrl
@@ -133,4 +141,13 @@ public class AuthServiceImpl implements AuthService {
                 .collect(Collectors.toSet()));
         return dto;
     }
+
+    // the new user joins the full, status and role listings
+    private void invalidateUserListings(User user) {
+        List<CacheDependency> changed = new ArrayList<>();
+        changed.add(CacheDependency.userSet("all"));
+        changed.add(CacheDependency.userSet(user.isActive() ? "active" : "inactive"));
+        user.getRoles().forEach(role -> changed.add(CacheDependency.userSet("role:" + role.getName())));
+        cacheDependencies.invalidate("user.register", changed.toArray(CacheDependency[]::new));
+    }
 }
@@ -0,0 +1,234 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.availability.AvailabilityInvalidationChannel;
+import com.cw.scheduler.availability.BookedInterval;
+import com.cw.scheduler.availability.ProviderAvailability;
+import com.cw.scheduler.availability.TimeWindow;
+import com.cw.scheduler.dto.response.FreeSlotResponseDTO;
+import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.entity.ProviderSchedule;
+import com.cw.scheduler.entity.ProviderScheduleOverride;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import com.cw.scheduler.exception.BadRequestException;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.repository.ProviderScheduleOverrideRepository;
+import com.cw.scheduler.repository.ProviderScheduleRepository;
+import com.cw.scheduler.service.interfaces.AvailabilityService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers availability questions from an in-memory index per provider. Changes made through this
+ * node are applied in place and published, so other nodes drop their copy; an index older than
+ * {@code availability.index.max-age} is rebuilt regardless, in case an invalidation was missed.
+ */
+@Service
+@Slf4j
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private final ProviderScheduleRepository scheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ProviderScheduleOverrideRepository overrideRepository;
+    private final AvailabilityInvalidationChannel invalidationChannel;
+    private final long maxAgeNanos;
+
+    private final Map<Long, IndexEntry> index = new ConcurrentHashMap<>();
+
+    public AvailabilityServiceImpl(ProviderScheduleRepository scheduleRepository,
+                                   AppointmentRepository appointmentRepository,
+                                   ProviderScheduleOverrideRepository overrideRepository,
+                                   AvailabilityInvalidationChannel invalidationChannel,
+                                   @Value("${availability.index.max-age:PT5M}") Duration maxAge) {
+        this.scheduleRepository = scheduleRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.overrideRepository = overrideRepository;
+        this.invalidationChannel = invalidationChannel;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    @PostConstruct
+    public void subscribeToRemoteChanges() {
+        invalidationChannel.subscribe(this::evictLocal);
+    }
+
+    @Override
+    public void assertBookable(Long providerId, LocalDateTime appointmentTime, int durationMinutes) {
+        ProviderAvailability availability = forProvider(providerId);
+
+        if (!availability.isWithinSchedule(appointmentTime, durationMinutes)) {
+            log.warn("ProviderId={} not available at {}", providerId, appointmentTime);
+            throw new BadRequestException("The provider is not available at the requested time.");
+        }
+
+        LocalDateTime end = appointmentTime.plusMinutes(Math.max(durationMinutes, 1));
+        availability.findConflict(appointmentTime, end).ifPresent(conflict -> {
+            log.warn("ProviderId={} already booked at {} by appointmentId={}",
+                    providerId, appointmentTime, conflict.appointmentId());
+            throw new BadRequestException("The provider already has an appointment at this time.");
+        });
+    }
+
+    @Override
+    public boolean isWithinSchedule(Long providerId, DayOfWeek dayOfWeek, LocalTime time) {
+        return forProvider(providerId).isWithinSchedule(dayOfWeek, time);
+    }
+
+    @Override
+    public boolean isAvailableAt(Long providerId, LocalDateTime start, int durationMinutes) {
+        ProviderAvailability availability = forProvider(providerId);
+        return availability.isWithinSchedule(start, durationMinutes)
+                && availability.findConflict(start, start.plusMinutes(Math.max(durationMinutes, 1))).isEmpty();
+    }
+
+    @Override
+    public void onAppointmentChanged(Appointment appointment) {
+        Long providerId = appointment.getProvider().getId();
+        invalidationChannel.publish(providerId);
+        IndexEntry entry = index.get(providerId);
+        if (entry == null) {
+            // not loaded yet, the next lookup reads the current state from the database
+            return;
+        }
+
+        ProviderAvailability availability = entry.availability();
+
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            availability.release(appointment.getId());
+        } else {
+            availability.book(new BookedInterval(
+                    appointment.getId(),
+                    appointment.getAppointmentTime(),
+                    appointment.getIndividualService().getDurationMinutes()
+            ));
+        }
+        availability.prune(retentionStart());
+    }
+
+    @Override
+    public void refreshSchedule(Long providerId) {
+        invalidationChannel.publish(providerId);
+        IndexEntry entry = index.get(providerId);
+        if (entry != null) {
+            entry.availability().replaceWeeklyWindows(loadWeeklyWindows(providerId));
+            entry.availability().replaceOverrides(loadOverrides(providerId));
+            log.debug("Availability schedule refreshed for providerId={}", providerId);
+        }
+    }
+
+    @Override
+    public void invalidate(Long providerId) {
+        // dropped entries are rebuilt from the database on the next lookup
+        if (index.remove(providerId) != null) {
+            log.info("Availability index invalidated for providerId={}", providerId);
+        }
+    }
+
+    @Override
+    public List<FreeSlotResponseDTO> findFreeSlots(Long providerId, LocalDate from, LocalDate to, int durationMinutes) {
+        ProviderAvailability availability = forProvider(providerId);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<FreeSlotResponseDTO> slots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            for (TimeWindow window : availability.findFreeWindows(date, durationMinutes, now)) {
+                slots.add(new FreeSlotResponseDTO(date, window.startTime(), window.endTime()));
+            }
+        }
+        return slots;
+    }
+
+    private void evictLocal(long providerId) {
+        if (index.remove(providerId) != null) {
+            log.debug("Availability index of providerId={} dropped after a change on another node", providerId);
+        }
+    }
+
+    private ProviderAvailability forProvider(Long providerId) {
+        IndexEntry entry = index.get(providerId);
+        if (entry != null && !entry.isOlderThan(maxAgeNanos)) {
+            return entry.availability();
+        }
+
+        // loaded outside the map so the queries never hold its lock; a concurrent load may win
+        IndexEntry loaded = new IndexEntry(load(providerId), System.nanoTime());
+        boolean stored = entry == null
+                ? index.putIfAbsent(providerId, loaded) == null
+                : index.replace(providerId, entry, loaded);
+        if (stored) {
+            return loaded.availability();
+        }
+        IndexEntry current = index.get(providerId);
+        // null when the entry was invalidated while loading; the next lookup loads again
+        return current != null ? current.availability() : loaded.availability();
+    }
+
+    private ProviderAvailability load(Long providerId) {
+        ProviderAvailability availability = new ProviderAvailability(providerId);
+        availability.replaceWeeklyWindows(loadWeeklyWindows(providerId));
+        availability.replaceOverrides(loadOverrides(providerId));
+        appointmentRepository.findBookedIntervals(providerId, retentionStart()).forEach(availability::book);
+
+        log.info("Availability index loaded for providerId={} with {} booked intervals",
+                providerId, availability.bookedCount());
+        return availability;
+    }
+
+    private Map<DayOfWeek, List<TimeWindow>> loadWeeklyWindows(Long providerId) {
+        Map<DayOfWeek, List<TimeWindow>> windows = new EnumMap<>(DayOfWeek.class);
+        for (ProviderSchedule schedule : scheduleRepository.findByProviderId(providerId)) {
+            if (!isWorkingWindow(schedule)) {
+                continue;
+            }
+            windows.computeIfAbsent(schedule.getDayOfWeek(), day -> new ArrayList<>())
+                    .add(new TimeWindow(schedule.getStartTime(), schedule.getEndTime()));
+        }
+        return windows;
+    }
+
+    private Map<LocalDate, List<TimeWindow>> loadOverrides(Long providerId) {
+        Map<LocalDate, List<TimeWindow>> windows = new HashMap<>();
+        for (ProviderScheduleOverride override :
+                overrideRepository.findByProviderIdAndDateGreaterThanEqual(providerId, retentionStart().toLocalDate())) {
+            // every overridden date is present, a closed one with no windows
+            List<TimeWindow> dateWindows = windows.computeIfAbsent(override.getDate(), date -> new ArrayList<>());
+            if (isWorkingWindow(override.getStartTime(), override.getEndTime(), override.getStatus())) {
+                dateWindows.add(new TimeWindow(override.getStartTime(), override.getEndTime()));
+            }
+        }
+        return windows;
+    }
+
+    private boolean isWorkingWindow(ProviderSchedule schedule) {
+        return isWorkingWindow(schedule.getStartTime(), schedule.getEndTime(), schedule.getStatus());
+    }
+
+    private boolean isWorkingWindow(LocalTime startTime, LocalTime endTime, AvailabilityStatus status) {
+        return startTime != null
+                && endTime != null
+                && status != AvailabilityStatus.UNAVAILABLE
+                && status != AvailabilityStatus.HOLIDAY;
+    }
+
+    private LocalDateTime retentionStart() {
+        // keep yesterday so bookings running past midnight still block the early morning
+        return LocalDate.now().minusDays(1).atStartOfDay();
+    }
+
+    private record IndexEntry(ProviderAvailability availability, long loadedAtNanos) {
+
+        boolean isOlderThan(long maxAgeNanos) {
+            return System.nanoTime() - loadedAtNanos >= maxAgeNanos;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.request.CategoryRequestDTO;
 import com.cw.scheduler.dto.response.CategoryResponseDTO;
 import com.cw.scheduler.dto.response.CategoryWithServiceCountDTO;
@@ -12,11 +14,11 @@ import com.cw.scheduler.service.interfaces.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -27,12 +29,9 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final CacheDependencyTracker cacheDependencies;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "categories", allEntries = true),
-            @CacheEvict(value = "categoriesWithServiceCount", allEntries = true)
-    })
     public ApiResponse<CategoryResponseDTO> addCategory(CategoryRequestDTO request) {
         log.info("Attempting to add new category with name={}", request.getName());
 
@@ -45,6 +44,7 @@ public class CategoryServiceImpl implements CategoryService {
         category.setName(request.getName());
 
         Category savedCategory = categoryRepository.save(category);
+        cacheDependencies.invalidate("category.add", CacheDependency.categorySet());
         CategoryResponseDTO response = modelMapper.map(savedCategory, CategoryResponseDTO.class);
 
         log.debug("Category saved with id={} and name={}", savedCategory.getId(), savedCategory.getName());
@@ -52,7 +52,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @Cacheable(value = "categories")
+    @Cacheable(value = "categories", sync = true)
     public ApiResponse<List<CategoryResponseDTO>> getAllCategory() {
         log.info("Fetching all categories");
 
@@ -60,16 +60,15 @@ public class CategoryServiceImpl implements CategoryService {
                 .stream()
                 .map(category -> modelMapper.map(category, CategoryResponseDTO.class))
                 .toList();
+        List<CacheDependency> dependencies = new ArrayList<>(List.of(CacheDependency.categorySet()));
+        response.forEach(category -> dependencies.add(CacheDependency.category(category.getId())));
+        cacheDependencies.register("categories", SimpleKey.EMPTY, dependencies);
 
         log.debug("Found {} categories", response.size());
         return ApiResponse.success(response, "Categories fetched successfully.");
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "categories", allEntries = true),
-            @CacheEvict(value = "categoriesWithServiceCount", allEntries = true)
-    })
     public ApiResponse<String> deleteCategory(Long categoryId) {
         log.info("Attempting to delete category with id={}", categoryId);
 
@@ -79,17 +78,26 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.deleteById(categoryId);
+        cacheDependencies.invalidate("category.delete", CacheDependency.category(categoryId));
         log.debug("Category deleted with id={}", categoryId);
 
         return ApiResponse.success("Category deleted successfully.");
     }
 
     @Override
-    @Cacheable(value = "categoriesWithServiceCount")
+    @Cacheable(value = "categoriesWithServiceCount", sync = true)
     public ApiResponse<List<CategoryWithServiceCountDTO>> getCategoriesWithServiceCount() {
         log.info("Fetching categories with service counts");
 
         List<CategoryWithServiceCountDTO> list = categoryRepository.getCategoriesWithServiceCount();
+        List<CacheDependency> dependencies = new ArrayList<>(List.of(CacheDependency.categorySet()));
+        if (list != null) {
+            list.forEach(category -> {
+                dependencies.add(CacheDependency.category(category.getId()));
+                dependencies.add(CacheDependency.categoryServices(category.getId()));
+            });
+        }
+        cacheDependencies.register("categoriesWithServiceCount", SimpleKey.EMPTY, dependencies);
 
         if (list == null || list.isEmpty()) {
             log.info("No categories found when fetching with service count");
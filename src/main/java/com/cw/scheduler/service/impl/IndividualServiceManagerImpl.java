@@ -50,7 +50,7 @@ public class IndividualServiceManagerImpl implements IndividualServiceManager {
     }
 
     @Override
-    @Cacheable(value = "individualServicesByOfferedService", key = "#offeredServiceId")
+    @Cacheable(value = "individualServicesByOfferedService", key = "#offeredServiceId", sync = true)
     public ApiResponse<List<IndividualServiceResponseDTO>> getIndividualServicesByOfferedService(Long offeredServiceId) {
         log.info("Fetching individual services for offeredServiceId={}", offeredServiceId);
 
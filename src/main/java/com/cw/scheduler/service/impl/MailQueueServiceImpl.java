@@ -0,0 +1,116 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.entity.MailMessage;
+import com.cw.scheduler.entity.enums.MailStatus;
+import com.cw.scheduler.repository.MailMessageRepository;
+import com.cw.scheduler.service.interfaces.MailQueueService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class MailQueueServiceImpl implements MailQueueService {
+
+    private static final int MAX_ATTEMPTS = 6;
+    private static final Duration SENDING_LEASE = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration SENT_RETENTION = Duration.ofDays(7);
+
+    private final MailMessageRepository mailMessageRepository;
+    private final long maxPending;
+    // refreshed from the table on every poll, counted up in between
+    private final AtomicLong depth = new AtomicLong();
+
+    public MailQueueServiceImpl(MailMessageRepository mailMessageRepository,
+                                @Value("${mail.delivery.max-pending:10000}") long maxPending) {
+        this.mailMessageRepository = mailMessageRepository;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String body, boolean html) {
+        if (depth.get() >= maxPending) {
+            log.error("Mail queue is full ({} pending), rejecting mail to={}", depth.get(), to);
+            throw new IllegalStateException("Mail queue is full");
+        }
+
+        MailMessage message = new MailMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setHtml(html);
+        message.setStatus(MailStatus.PENDING);
+        message.setNextAttemptAt(LocalDateTime.now());
+
+        mailMessageRepository.save(message);
+        depth.incrementAndGet();
+    }
+
+    @Override
+    @Transactional
+    public List<MailMessage> claimDueMessages(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailMessage> messages = mailMessageRepository.lockDueMessages(now, limit);
+
+        // lease the rows so a crashed worker's messages become due again
+        messages.forEach(message -> {
+            message.setStatus(MailStatus.SENDING);
+            message.setNextAttemptAt(now.plus(SENDING_LEASE));
+        });
+        return mailMessageRepository.saveAll(messages);
+    }
+
+    @Override
+    @Transactional
+    public void markSent(Collection<Long> messageIds) {
+        if (!messageIds.isEmpty()) {
+            mailMessageRepository.markSent(messageIds, LocalDateTime.now());
+            depth.addAndGet(-messageIds.size());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void markFailed(Long messageId, String error, boolean permanent) {
+        mailMessageRepository.findById(messageId).ifPresent(message -> {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+
+            if (permanent || attempts >= MAX_ATTEMPTS) {
+                message.setStatus(MailStatus.FAILED);
+                depth.decrementAndGet();
+                log.error("Mail {} to {} gave up after {} attempts: {}", messageId, message.getRecipient(), attempts, error);
+                return;
+            }
+
+            Duration backoff = Duration.ofSeconds(30L << attempts);
+            message.setStatus(MailStatus.PENDING);
+            message.setNextAttemptAt(LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            log.warn("Mail {} failed (attempt {}), retrying at {}: {}", messageId, attempts, message.getNextAttemptAt(), error);
+        });
+    }
+
+    @Override
+    public long pendingCount() {
+        long pending = mailMessageRepository.countByStatusIn(EnumSet.of(MailStatus.PENDING, MailStatus.SENDING));
+        depth.set(pending);
+        return pending;
+    }
+
+    @Override
+    @Transactional
+    public int purgeSent() {
+        return mailMessageRepository.deleteSentBefore(LocalDateTime.now().minus(SENT_RETENTION));
+    }
+}
@@ -1,25 +1,32 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.NotificationInboxResponseDTO;
 import com.cw.scheduler.dto.response.NotificationResponseDTO;
-import com.cw.scheduler.entity.Notification;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.exception.BadRequestException;
+import com.cw.scheduler.exception.ResourceNotFoundException;
+import com.cw.scheduler.mail.EmailTemplate;
+import com.cw.scheduler.notification.InboxSnapshot;
+import com.cw.scheduler.notification.NotificationInboxStore;
+import com.cw.scheduler.notification.NotificationWriteBehindQueue;
 import com.cw.scheduler.repository.NotificationRepository;
 import com.cw.scheduler.security.AuthenticationFacade;
 import com.cw.scheduler.service.interfaces.NotificationService;
 import com.cw.scheduler.strategy.notification.NotificationContext;
 import com.cw.scheduler.strategy.notification.NotificationStrategy;
 import com.cw.scheduler.strategy.notification.TemplatedNotificationStrategy;
+import com.cw.scheduler.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,15 +38,20 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationContext context;
     private final NotificationRepository notificationRepository;
     private final AuthenticationFacade authenticationFacade;
-    private final ModelMapper modelMapper;
+    private final NotificationWriteBehindQueue notificationWriteBehindQueue;
+    private final NotificationInboxStore inboxStore;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // sorts before every notification in the newest-first inbox
+    private static final KeysetCursor INBOX_END = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
 
     @Override
-    public void sendEmail(String to, String subject, String templateName, Map<String, Object> variables) {
-        log.info("Sending templated email to={}, subject={}, template={}", to, subject, templateName);
+    public void sendEmail(String to, String subject, EmailTemplate template, Map<String, Object> variables) {
+        log.info("Sending templated email to={}, subject={}, template={}", to, subject, template);
 
         NotificationStrategy strategy = context.getStrategy("emailNotificationStrategy");
         if (strategy instanceof TemplatedNotificationStrategy templatedStrategy) {
-            templatedStrategy.sendTemplatedEmail(to, subject, templateName, variables);
+            templatedStrategy.sendTemplatedEmail(to, subject, template, variables);
         } else {
             log.error("Selected strategy does not support templates");
             throw new IllegalStateException("Strategy does not support templates");
@@ -53,54 +65,117 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "userNotifications", key = "#user.id"),
-            @CacheEvict(value = "userNotificationsByType", key = "#user.id + ':' + #type.name()")
-    })
     public void saveNotification(User user, String message, NotificationType type) {
-        log.info("Saving notification for userId={}, type={}", user.getId(), type);
+        log.info("Queueing notification for userId={}, type={}", user.getId(), type);
+        notificationWriteBehindQueue.enqueue(user.getId(), message, type);
+    }
 
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setMessage(message);
-        notification.setSentAt(LocalDateTime.now());
-        notification.setType(type);
+    @Override
+    public ApiResponse<NotificationInboxResponseDTO> getInbox(String cursor, int size) {
+        validatePageSize(size);
+        Long userId = authenticationFacade.getCurrentUserId();
+        InboxSnapshot snapshot = loadInbox(userId);
+
+        // the ring buffer holds everything up to RING_SIZE, so it can also tell whether more follow
+        if (cursor == null && size < NotificationInboxStore.RING_SIZE) {
+            log.debug("Serving inbox of userId={} from the ring buffer", userId);
+            return ApiResponse.success(toInbox(snapshot.unreadCount(), snapshot.recent(), size), "Notification inbox");
+        }
 
-        notificationRepository.save(notification);
-        log.debug("Notification saved for userId={} with message={}", user.getId(), message);
+        KeysetCursor before = cursor != null ? KeysetCursor.decode(cursor) : INBOX_END;
+        log.debug("Fetching inbox of userId={} before {}", userId, before);
+        List<NotificationResponseDTO> rows = notificationRepository.findInboxPageBefore(
+                userId, before.time(), before.id(), PageRequest.ofSize(size + 1));
+        return ApiResponse.success(toInbox(snapshot.unreadCount(), rows, size), "Notification inbox");
     }
 
     @Override
-    @Cacheable(value = "userNotifications", key = "@authenticationFacade.getCurrentUserId()")
-    public ApiResponse<List<NotificationResponseDTO>> getNotificationsForUser() {
-        User user = authenticationFacade.getCurrentUser();
-        log.info("Fetching all notifications for userId={}", user.getId());
-
-        List<NotificationResponseDTO> response = notificationRepository.findByUserId(user.getId())
-                .stream()
-                .map(this::toDto)
-                .toList();
-
-        log.debug("Found {} notifications for userId={}", response.size(), user.getId());
-        return ApiResponse.success(response, "All Notifications of " + user.getName());
+    public ApiResponse<String> markAsRead(Long notificationId) {
+        Long userId = authenticationFacade.getCurrentUserId();
+        if (!notificationRepository.existsByIdAndUserId(notificationId, userId)) {
+            throw new ResourceNotFoundException("Notification not found");
+        }
+
+        if (notificationRepository.markRead(notificationId, userId, LocalDateTime.now()) > 0) {
+            log.info("UserId={} read notificationId={}", userId, notificationId);
+            inboxStore.invalidate(userId);
+        }
+        return ApiResponse.success("Notification marked as read.");
     }
 
     @Override
-    @Cacheable(value = "userNotificationsByType", key = "@authenticationFacade.getCurrentUserId() + ':' + #type.name()")
-    public ApiResponse<List<NotificationResponseDTO>> getNotificationsForUserByType(NotificationType type) {
-        User user = authenticationFacade.getCurrentUser();
-        log.info("Fetching notifications for userId={} of type={}", user.getId(), type);
-
-        List<NotificationResponseDTO> response = notificationRepository.findByUserIdAndType(user.getId(), type.name())
-                .stream()
-                .map(this::toDto)
-                .toList();
-
-        log.debug("Found {} notifications for userId={} and type={}", response.size(), user.getId(), type);
-        return ApiResponse.success(response, "All Notifications of " + user.getName() + " of type " + type.name());
+    public ApiResponse<Integer> markAllAsRead() {
+        Long userId = authenticationFacade.getCurrentUserId();
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        if (updated > 0) {
+            log.info("UserId={} read all {} unread notifications", userId, updated);
+            inboxStore.invalidate(userId);
+        }
+        return ApiResponse.success(updated, updated + " notifications marked as read.");
+    }
+
+    @Override
+    public ApiResponse<CursorPageResponseDTO<NotificationResponseDTO>> getNotificationsForUserByType(
+            NotificationType type, String cursor, int size) {
+        validatePageSize(size);
+        Long userId = authenticationFacade.getCurrentUserId();
+        KeysetCursor before = cursor != null ? KeysetCursor.decode(cursor) : INBOX_END;
+        log.info("Fetching notifications for userId={} of type={} before {}", userId, type, before);
+
+        List<NotificationResponseDTO> rows = notificationRepository.findTypePageBefore(
+                userId, type, before.time(), before.id(), PageRequest.ofSize(size + 1));
+        return ApiResponse.success(toPage(rows, size), "Notifications of type " + type.name());
+    }
+
+    @Override
+    public ApiResponse<List<NotificationTypeCountDTO>> getNotificationSummary() {
+        Long userId = authenticationFacade.getCurrentUserId();
+        Map<NotificationType, NotificationTypeCountDTO> counts = new EnumMap<>(NotificationType.class);
+        for (NotificationType type : NotificationType.values()) {
+            counts.put(type, new NotificationTypeCountDTO(type, 0L, 0L));
+        }
+        notificationRepository.countByType(userId).forEach(count -> counts.put(count.getType(), count));
+
+        log.debug("Counted notifications by type for userId={}", userId);
+        return ApiResponse.success(List.copyOf(counts.values()), "Notification counts by type");
+    }
+
+    private InboxSnapshot loadInbox(Long userId) {
+        InboxSnapshot cached = inboxStore.load(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String version = inboxStore.version(userId);
+        InboxSnapshot snapshot = new InboxSnapshot(
+                notificationRepository.countByUserIdAndReadAtIsNull(userId),
+                notificationRepository.findInboxPageBefore(userId, INBOX_END.time(), INBOX_END.id(),
+                        PageRequest.ofSize(NotificationInboxStore.RING_SIZE)));
+        inboxStore.install(userId, version, snapshot);
+        log.debug("Rebuilt inbox of userId={} with {} unread", userId, snapshot.unreadCount());
+        return snapshot;
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    private static NotificationInboxResponseDTO toInbox(long unreadCount, List<NotificationResponseDTO> rows, int size) {
+        CursorPageResponseDTO<NotificationResponseDTO> page = toPage(rows, size);
+        return new NotificationInboxResponseDTO(unreadCount, page.getItems(), page.getNextCursor(), page.isHasNext());
     }
 
-    private NotificationResponseDTO toDto(Notification notification) {
-        return modelMapper.map(notification, NotificationResponseDTO.class);
+    /**
+     * Turns up to {@code size + 1} rows, newest first, into a page; the extra row only signals that more follow.
+     */
+    private static CursorPageResponseDTO<NotificationResponseDTO> toPage(List<NotificationResponseDTO> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<NotificationResponseDTO> items = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext
+                ? new KeysetCursor(items.get(size - 1).getSentAt(), items.get(size - 1).getId()).encode()
+                : null;
+        return new CursorPageResponseDTO<>(List.copyOf(items), nextCursor, hasNext);
     }
 }
@@ -1,8 +1,12 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.request.CreateOfferingServiceRequestDTO;
+import com.cw.scheduler.dto.request.ServiceSearchRequestDTO;
 import com.cw.scheduler.dto.response.OfferingServiceResponseDTO;
+import com.cw.scheduler.dto.response.ServiceSearchResultDTO;
 import com.cw.scheduler.entity.Category;
 import com.cw.scheduler.entity.OfferedService;
 import com.cw.scheduler.entity.ServiceProvider;
@@ -12,6 +16,7 @@ import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.ResourceNotFoundException;
 import com.cw.scheduler.repository.CategoryRepository;
 import com.cw.scheduler.repository.OfferedServiceRepository;
+import com.cw.scheduler.repository.ServiceSearchFilter;
 import com.cw.scheduler.security.AuthenticationFacade;
 import com.cw.scheduler.service.interfaces.OfferingService;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +31,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -35,10 +41,11 @@ public class OfferingServiceImpl implements OfferingService {
     private final OfferedServiceRepository offeredServiceRepository;
     private final CategoryRepository categoryRepository;
     private final AuthenticationFacade authenticationFacade;
+    private final CacheDependencyTracker cacheDependencies;
 
     @Override
     @Caching(evict = {
-            @CacheEvict(value = "providerOfferedServices", key = "@authenticationFacade.getCurrentUser().serviceProvider.id"),
+            @CacheEvict(value = "providerOfferedServices", key = "@authenticationFacade.getCurrentProviderId()"),
             @CacheEvict(value = "allOfferedServices", allEntries = true)
     })
     public ApiResponse<OfferingServiceResponseDTO> createService(CreateOfferingServiceRequestDTO request) {
@@ -64,13 +71,14 @@ public class OfferingServiceImpl implements OfferingService {
         offeringService.setProvider(provider);
 
         OfferedService saved = offeredServiceRepository.save(offeringService);
+        cacheDependencies.invalidate("offeredService.create", CacheDependency.categoryServices(category.getId()));
         log.debug("Service saved with id={} for providerId={}", saved.getId(), provider.getId());
 
         return ApiResponse.success(toDto(saved), "Service created by Provider successfully.");
     }
 
     @Override
-    @Cacheable(value = "providerOfferedServices", key = "@authenticationFacade.getCurrentUser().serviceProvider.id")
+    @Cacheable(value = "providerOfferedServices", key = "@authenticationFacade.getCurrentProviderId()", sync = true)
     public ApiResponse<List<OfferingServiceResponseDTO>> getServicesByProvider() {
         ServiceProvider provider = getCurrentServiceProvider();
         log.info("Fetching offered services for providerId={}", provider.getId());
@@ -85,7 +93,7 @@ public class OfferingServiceImpl implements OfferingService {
     }
 
     @Override
-    @Cacheable(value = "allOfferedServices", key = "'page:' + #page + ':size:' + #size")
+    @Cacheable(value = "allOfferedServices", key = "'page:' + #page + ':size:' + #size", sync = true)
     public ApiResponse<Page<OfferingServiceResponseDTO>> getAllServices(int page, int size) {
         log.info("Fetching all services, page={}, size={}", page, size);
 
@@ -98,6 +106,59 @@ public class OfferingServiceImpl implements OfferingService {
         return ApiResponse.success(response, "All Services fetched successfully.");
     }
 
+    @Override
+    public ApiResponse<List<ServiceSearchResultDTO>> searchServices(ServiceSearchRequestDTO request) {
+        Double minPrice = request.getMinPrice();
+        Double maxPrice = request.getMaxPrice();
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BadRequestException("Minimum price cannot exceed maximum price.");
+        }
+
+        String text = request.getQ() == null ? "" : request.getQ().trim().toLowerCase(Locale.ROOT);
+        log.info("Searching services: q={}, categoryId={}, city={}, pinCode={}, minRating={}, price={}..{}",
+                text, request.getCategoryId(), request.getCity(), request.getPinCode(),
+                request.getMinRating(), minPrice, maxPrice);
+
+        ServiceSearchFilter filter = new ServiceSearchFilter(
+                text.isEmpty() ? null : "%" + escapeLike(text) + "%",
+                request.getCategoryId(),
+                blankToNull(request.getCity() != null ? request.getCity().toLowerCase(Locale.ROOT) : null),
+                blankToNull(request.getPinCode()),
+                request.getMinRating() != null ? request.getMinRating() : 0.0,
+                minPrice,
+                maxPrice);
+
+        List<ServiceSearchResultDTO> results = offeredServiceRepository.search(
+                        filter, PageRequest.of(request.getPage(), request.getSize()))
+                .stream()
+                .map(row -> new ServiceSearchResultDTO(
+                        row.getServiceId(),
+                        row.getServiceName(),
+                        row.getDescription(),
+                        row.getCategoryName(),
+                        row.getProviderId(),
+                        row.getProviderName(),
+                        row.getBusinessName(),
+                        row.getCity(),
+                        row.getSpecialization(),
+                        row.getRating() != null ? row.getRating() : 0.0,
+                        row.getMinPrice(),
+                        row.getMaxPrice()))
+                .toList();
+
+        log.debug("Service search returned {} results", results.size());
+        return ApiResponse.success(results, "Search results fetched successfully.");
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // user text must not act as LIKE wildcards
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private ServiceProvider getCurrentServiceProvider() {
         User user = authenticationFacade.getCurrentUser();
         ServiceProvider provider = user.getServiceProvider();
@@ -0,0 +1,91 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.entity.OutboxEvent;
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.entity.enums.OutboxStatus;
+import com.cw.scheduler.entity.enums.OutboxStep;
+import com.cw.scheduler.repository.OutboxEventRepository;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final int MAX_ATTEMPTS = 8;
+    private static final Duration PROCESSING_LEASE = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    @Transactional
+    public void enqueue(OutboxEventType eventType, Long appointmentId, long appointmentVersion) {
+        // the version the transition produced, so a repeated transition (cancelled, reactivated, cancelled again)
+        // gets a new key while the same transition recorded twice does not
+        String idempotencyKey = eventType.name() + ":" + appointmentId + ":" + appointmentVersion;
+        if (outboxEventRepository.insertIfAbsent(idempotencyKey, eventType.name(), appointmentId, LocalDateTime.now()) == 0) {
+            log.debug("Outbox event {} already recorded, skipping", idempotencyKey);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<OutboxEvent> claimDueEvents(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.lockDueEvents(now, limit);
+
+        // lease the rows so a crashed dispatcher's events become due again
+        events.forEach(event -> {
+            event.setStatus(OutboxStatus.PROCESSING);
+            event.setNextAttemptAt(now.plus(PROCESSING_LEASE));
+        });
+        return outboxEventRepository.saveAll(events);
+    }
+
+    @Override
+    @Transactional
+    public void markStepCompleted(Long eventId, OutboxStep step) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> event.getCompletedSteps().add(step));
+    }
+
+    @Override
+    @Transactional
+    public void markDone(Long eventId) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            event.setStatus(OutboxStatus.DONE);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void markFailed(Long eventId, String error) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+
+            if (attempts >= MAX_ATTEMPTS) {
+                event.setStatus(OutboxStatus.FAILED);
+                log.error("Outbox event {} gave up after {} attempts: {}", event.getIdempotencyKey(), attempts, error);
+                return;
+            }
+
+            Duration backoff = Duration.ofSeconds(5L << attempts);
+            event.setStatus(OutboxStatus.PENDING);
+            event.setNextAttemptAt(LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            log.warn("Outbox event {} failed (attempt {}), retrying at {}: {}",
+                    event.getIdempotencyKey(), attempts, event.getNextAttemptAt(), error);
+        });
+    }
+}
@@ -1,29 +1,46 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CachePrefixEvictor;
+import com.cw.scheduler.dto.request.BulkScheduleRequestDTO;
 import com.cw.scheduler.dto.request.ProviderScheduleRequestDTO;
+import com.cw.scheduler.dto.request.ScheduleOverrideRequestDTO;
 import com.cw.scheduler.dto.response.ProviderScheduleResponseDTO;
+import com.cw.scheduler.dto.response.ScheduleOverrideResponseDTO;
+import com.cw.scheduler.entity.IndividualService;
 import com.cw.scheduler.entity.OfferedService;
 import com.cw.scheduler.entity.ProviderSchedule;
+import com.cw.scheduler.entity.ProviderScheduleOverride;
 import com.cw.scheduler.entity.ServiceProvider;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.AvailabilityStatus;
 import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.ResourceNotFoundException;
+import com.cw.scheduler.repository.IndividualServiceRepository;
 import com.cw.scheduler.repository.OfferedServiceRepository;
+import com.cw.scheduler.repository.ProviderScheduleOverrideRepository;
 import com.cw.scheduler.repository.ProviderScheduleRepository;
 import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.service.interfaces.AvailabilityService;
 import com.cw.scheduler.service.interfaces.ProviderScheduleService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -33,11 +50,23 @@ public class ProviderScheduleServiceImpl implements ProviderScheduleService {
     private final ProviderScheduleRepository scheduleRepository;
     private final OfferedServiceRepository offeredServiceRepository;
     private final AuthenticationFacade authenticationFacade;
+    private final AvailabilityService availabilityService;
+    private final ProviderScheduleOverrideRepository overrideRepository;
+    private final IndividualServiceRepository individualServiceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final CachePrefixEvictor cachePrefixEvictor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int BULK_BATCH_SIZE = 50;
 
     @Override
     @Caching(evict = {
-            @CacheEvict(value = "providerSchedules", key = "@authenticationFacade.getCurrentUser().serviceProvider.id"),
-            @CacheEvict(value = "allSchedulesByDay", allEntries = true)
+            @CacheEvict(value = "providerSchedules", key = "@authenticationFacade.getCurrentProviderId()"),
+            @CacheEvict(value = "providerDaySchedules", key = "@authenticationFacade.getCurrentProviderId() + '-' + #request.dayOfWeek"),
+            @CacheEvict(value = "allSchedulesByDay", key = "#request.dayOfWeek")
     })
     public ApiResponse<ProviderScheduleResponseDTO> createSchedule(ProviderScheduleRequestDTO request) {
         User user = authenticationFacade.getCurrentUser();
@@ -52,7 +81,20 @@ public class ProviderScheduleServiceImpl implements ProviderScheduleService {
                     return new ResourceNotFoundException("OfferedService not found");
                 });
 
-        validateScheduleRequest(request);
+        validateWindow(request.getStatus(), request.getStartTime(), request.getEndTime());
+        if (isWorking(request.getStatus())) {
+            // several windows a day are fine (e.g. around a lunch break), overlapping ones for the same service are not
+            scheduleRepository.findByProviderIdAndDayOfWeekOrderByStartTimeAsc(provider.getId(), request.getDayOfWeek())
+                    .stream()
+                    .filter(existing -> existing.getService().getId().equals(offeredService.getId()))
+                    .filter(existing -> isWorking(existing.getStatus()))
+                    .filter(existing -> overlaps(existing.getStartTime(), existing.getEndTime(), request.getStartTime(), request.getEndTime()))
+                    .findFirst()
+                    .ifPresent(existing -> {
+                        throw new BadRequestException("Schedule overlaps the existing window " +
+                                existing.getStartTime() + "-" + existing.getEndTime() + " on " + request.getDayOfWeek());
+                    });
+        }
 
         ProviderSchedule schedule = new ProviderSchedule();
         schedule.setProvider(provider);
@@ -64,41 +106,96 @@ public class ProviderScheduleServiceImpl implements ProviderScheduleService {
 
         ProviderSchedule savedSchedule = scheduleRepository.save(schedule);
         log.debug("Schedule saved with id={} for providerId={}", savedSchedule.getId(), provider.getId());
+        availabilityService.refreshSchedule(provider.getId());
 
         return ApiResponse.success(toDto(savedSchedule), "Schedule created for service successfully.");
     }
 
     @Override
-    @Cacheable(value = "providerSchedules", key = "@authenticationFacade.getCurrentUser().serviceProvider.id")
-    public ApiResponse<List<ProviderScheduleResponseDTO>> getSchedulesForCurrentProvider() {
+    public ApiResponse<List<ProviderScheduleResponseDTO>> saveWeeklySchedule(BulkScheduleRequestDTO request) {
         ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
-        log.info("Fetching schedules for providerId={}", provider.getId());
+        Long providerId = provider.getId();
+        List<ProviderScheduleRequestDTO> entries = request.getEntries();
+        log.info("Saving {} schedule entries for providerId={}, replaceExisting={}",
+                entries.size(), providerId, request.isReplaceExisting());
+
+        for (int i = 0; i < entries.size(); i++) {
+            ProviderScheduleRequestDTO entry = entries.get(i);
+            if (entry.getOfferedServiceId() == null || entry.getDayOfWeek() == null || entry.getStatus() == null) {
+                throw new BadRequestException("Entry " + i + ": offered service, day of week and status are required");
+            }
+            try {
+                validateWindow(entry.getStatus(), entry.getStartTime(), entry.getEndTime());
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Entry " + i + ": " + e.getMessage());
+            }
+        }
+
+        Map<Long, OfferedService> services = loadOwnedServices(providerId, entries);
+        List<ProviderSchedule> replaced = new ArrayList<>();
+        List<ProviderSchedule> kept = new ArrayList<>();
+        for (ProviderSchedule schedule : scheduleRepository.findByProviderId(providerId)) {
+            boolean replacing = request.isReplaceExisting() && services.containsKey(schedule.getService().getId());
+            (replacing ? replaced : kept).add(schedule);
+        }
+
+        List<ProviderSchedule> schedules = entries.stream()
+                .map(entry -> newSchedule(provider, services.get(entry.getOfferedServiceId()), entry))
+                .toList();
+        assertNoOverlaps(kept, schedules);
+
+        List<ProviderSchedule> saved = transactionTemplate.execute(status -> {
+            if (!replaced.isEmpty()) {
+                scheduleRepository.deleteAllInBatch(replaced);
+            }
+            entityManager.unwrap(Session.class).setJdbcBatchSize(BULK_BATCH_SIZE);
+            return scheduleRepository.saveAll(schedules);
+        });
+
+        availabilityService.refreshSchedule(providerId);
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        replaced.forEach(schedule -> days.add(schedule.getDayOfWeek()));
+        schedules.forEach(schedule -> days.add(schedule.getDayOfWeek()));
+        evictSchedules(providerId, days);
+
+        log.info("Saved {} and replaced {} schedule entries for providerId={}", saved.size(), replaced.size(), providerId);
+        return ApiResponse.success(saved.stream().map(this::toDto).toList(), "Weekly schedule saved.");
+    }
+
+    @Override
+    @Cacheable(value = "providerSchedules", key = "@authenticationFacade.getCurrentProviderId()", sync = true)
+    public ApiResponse<List<ProviderScheduleResponseDTO>> getSchedulesForCurrentProvider() {
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        log.info("Fetching schedules for providerId={}", providerId);
 
-        List<ProviderScheduleResponseDTO> response = scheduleRepository.findByProviderId(provider.getId())
+        List<ProviderScheduleResponseDTO> response = scheduleRepository.findByProviderId(providerId)
                 .stream()
                 .map(this::toDto)
                 .toList();
 
-        log.debug("Found {} schedules for providerId={}", response.size(), provider.getId());
+        log.debug("Found {} schedules for providerId={}", response.size(), providerId);
         return ApiResponse.success(response, "Schedule of current provider");
     }
 
     @Override
     @Cacheable(
-            value = "providerScheduleForDay",
-            key = "@authenticationFacade.getCurrentUser().serviceProvider.id + '-' + #dayOfWeek"
+            value = "providerDaySchedules",
+            key = "@authenticationFacade.getCurrentProviderId() + '-' + #dayOfWeek",
+            sync = true
     )
-    public ApiResponse<ProviderScheduleResponseDTO> getScheduleForDay(DayOfWeek dayOfWeek) {
-        ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
-        log.info("Fetching schedule for providerId={} on {}", provider.getId(), dayOfWeek);
+    public ApiResponse<List<ProviderScheduleResponseDTO>> getScheduleForDay(DayOfWeek dayOfWeek) {
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        log.info("Fetching schedule for providerId={} on {}", providerId, dayOfWeek);
 
-        return scheduleRepository.findByProviderIdAndDayOfWeek(provider.getId(), dayOfWeek)
-                .map(schedule -> ApiResponse.success(toDto(schedule), "Schedule found for day: " + dayOfWeek))
-                .orElse(ApiResponse.error("No schedule found for this day"));
+        List<ProviderScheduleResponseDTO> response = scheduleRepository.findByProviderIdAndDayOfWeekOrderByStartTimeAsc(providerId, dayOfWeek)
+                .stream()
+                .map(this::toDto)
+                .toList();
+        return ApiResponse.success(response, "Schedule found for day: " + dayOfWeek);
     }
 
     @Override
-    @Cacheable(value = "allSchedulesByDay", key = "#dayOfWeek")
+    @Cacheable(value = "allSchedulesByDay", key = "#dayOfWeek", sync = true)
     public ApiResponse<List<ProviderScheduleResponseDTO>> getAllSchedulesByDay(DayOfWeek dayOfWeek) {
         log.info("Fetching all schedules for day={}", dayOfWeek);
 
@@ -113,31 +210,192 @@ public class ProviderScheduleServiceImpl implements ProviderScheduleService {
 
     @Override
     public boolean isProviderAvailable(Long providerId, DayOfWeek dayOfWeek, LocalTime time) {
-        boolean available = scheduleRepository.isProviderAvailableAt(providerId, dayOfWeek, time).isPresent();
+        boolean available = availabilityService.isWithinSchedule(providerId, dayOfWeek, time);
         log.debug("Provider availability check: providerId={}, day={}, time={}, available={}",
                 providerId, dayOfWeek, time, available);
         return available;
     }
 
+    @Override
+    public boolean isProviderAvailableAt(Long providerId, LocalDateTime dateTime, Long individualServiceId) {
+        IndividualService service = individualServiceRepository.findById(individualServiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+        boolean available = availabilityService.isAvailableAt(providerId, dateTime, service.getDurationMinutes());
+        log.debug("Provider availability check: providerId={}, at={}, serviceId={}, available={}",
+                providerId, dateTime, individualServiceId, available);
+        return available;
+    }
+
+    @Override
+    public ApiResponse<ScheduleOverrideResponseDTO> createOverride(ScheduleOverrideRequestDTO request) {
+        User user = authenticationFacade.getCurrentUser();
+        ServiceProvider provider = user.getServiceProvider();
+        log.info("Creating schedule override for providerId={} on {}", provider.getId(), request.getDate());
+
+        if (request.getDate().isBefore(LocalDate.now())) {
+            throw new BadRequestException("Overrides cannot be set for past dates");
+        }
+        validateWindow(request.getStatus(), request.getStartTime(), request.getEndTime());
+        if (isWorking(request.getStatus())) {
+            overrideRepository.findByProviderIdAndDate(provider.getId(), request.getDate())
+                    .stream()
+                    .filter(existing -> isWorking(existing.getStatus()))
+                    .filter(existing -> overlaps(existing.getStartTime(), existing.getEndTime(), request.getStartTime(), request.getEndTime()))
+                    .findFirst()
+                    .ifPresent(existing -> {
+                        throw new BadRequestException("Override overlaps the existing window " +
+                                existing.getStartTime() + "-" + existing.getEndTime() + " on " + request.getDate());
+                    });
+        }
+
+        ProviderScheduleOverride override = new ProviderScheduleOverride();
+        override.setProvider(provider);
+        override.setDate(request.getDate());
+        override.setStartTime(request.getStartTime());
+        override.setEndTime(request.getEndTime());
+        override.setStatus(request.getStatus());
+        override.setReason(request.getReason());
+
+        ProviderScheduleOverride saved = overrideRepository.save(override);
+        availabilityService.refreshSchedule(provider.getId());
+        return ApiResponse.success(toDto(saved), "Schedule override created for " + request.getDate());
+    }
+
+    @Override
+    public ApiResponse<List<ScheduleOverrideResponseDTO>> getOverrides(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        Long providerId = authenticationFacade.getCurrentProviderId();
+
+        List<ScheduleOverrideResponseDTO> response = overrideRepository
+                .findByProviderIdAndDateBetweenOrderByDateAscStartTimeAsc(providerId, from, to)
+                .stream()
+                .map(this::toDto)
+                .toList();
+        return ApiResponse.success(response, "Schedule overrides of current provider");
+    }
+
+    @Override
+    public ApiResponse<String> deleteOverride(Long overrideId) {
+        Long providerId = authenticationFacade.getCurrentProviderId();
+        ProviderScheduleOverride override = overrideRepository.findByIdAndProviderId(overrideId, providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule override not found"));
+
+        overrideRepository.delete(override);
+        availabilityService.refreshSchedule(providerId);
+        log.info("Schedule override {} of providerId={} deleted", overrideId, providerId);
+        return ApiResponse.success("Schedule override deleted.");
+    }
+
 
      /**
          Utility Methods
      */
-    private void validateScheduleRequest(ProviderScheduleRequestDTO request) {
-        if (request.getStatus() == AvailabilityStatus.UNAVAILABLE) {
-            if (request.getStartTime() != null || request.getEndTime() != null) {
-                throw new BadRequestException("Start and End time must be null when status is UNAVAILABLE");
+    private Map<Long, OfferedService> loadOwnedServices(Long providerId, List<ProviderScheduleRequestDTO> entries) {
+        Set<Long> ids = new HashSet<>();
+        entries.forEach(entry -> ids.add(entry.getOfferedServiceId()));
+
+        Map<Long, OfferedService> services = new HashMap<>();
+        offeredServiceRepository.findAllById(ids).forEach(service -> services.put(service.getId(), service));
+        for (Long id : ids) {
+            OfferedService service = services.get(id);
+            if (service == null) {
+                throw new ResourceNotFoundException("OfferedService not found: " + id);
+            }
+            if (service.getProvider() == null || !providerId.equals(service.getProvider().getId())) {
+                throw new BadRequestException("OfferedService " + id + " does not belong to this provider");
+            }
+        }
+        return services;
+    }
+
+    private ProviderSchedule newSchedule(ServiceProvider provider, OfferedService service, ProviderScheduleRequestDTO entry) {
+        ProviderSchedule schedule = new ProviderSchedule();
+        schedule.setProvider(provider);
+        schedule.setService(service);
+        schedule.setDayOfWeek(entry.getDayOfWeek());
+        schedule.setStartTime(entry.getStartTime());
+        schedule.setEndTime(entry.getEndTime());
+        schedule.setStatus(entry.getStatus());
+        return schedule;
+    }
+
+    /**
+     * Sorts the working windows of each (service, day) by start, so every overlap is between neighbours.
+     */
+    private void assertNoOverlaps(List<ProviderSchedule> kept, List<ProviderSchedule> added) {
+        Map<String, List<ProviderSchedule>> byServiceAndDay = new HashMap<>();
+        for (List<ProviderSchedule> schedules : List.of(kept, added)) {
+            schedules.stream()
+                    .filter(schedule -> isWorking(schedule.getStatus()))
+                    .forEach(schedule -> byServiceAndDay
+                            .computeIfAbsent(schedule.getService().getId() + ":" + schedule.getDayOfWeek(), key -> new ArrayList<>())
+                            .add(schedule));
+        }
+
+        for (List<ProviderSchedule> windows : byServiceAndDay.values()) {
+            windows.sort(Comparator.comparing(ProviderSchedule::getStartTime));
+            for (int i = 1; i < windows.size(); i++) {
+                ProviderSchedule previous = windows.get(i - 1);
+                ProviderSchedule current = windows.get(i);
+                if (overlaps(previous.getStartTime(), previous.getEndTime(), current.getStartTime(), current.getEndTime())) {
+                    throw new BadRequestException("Overlapping windows for service " + current.getService().getName() +
+                            " on " + current.getDayOfWeek() + ": " + previous.getStartTime() + "-" + previous.getEndTime() +
+                            " and " + current.getStartTime() + "-" + current.getEndTime());
+                }
+            }
+        }
+    }
+
+    // only the keys that can hold this provider's windows, never the whole cluster-wide cache
+    private void evictSchedules(Long providerId, Set<DayOfWeek> days) {
+        Cache providerSchedules = cacheManager.getCache("providerSchedules");
+        if (providerSchedules != null) {
+            providerSchedules.evict(providerId);
+        }
+        cachePrefixEvictor.evictByPrefix("providerDaySchedules", providerId + "-");
+        Cache allSchedulesByDay = cacheManager.getCache("allSchedulesByDay");
+        if (allSchedulesByDay != null) {
+            days.forEach(allSchedulesByDay::evict);
+        }
+    }
+
+    private void validateWindow(AvailabilityStatus status, LocalTime startTime, LocalTime endTime) {
+        if (!isWorking(status)) {
+            if (startTime != null || endTime != null) {
+                throw new BadRequestException("Start and End time must be null when status is " + status);
             }
         } else {
-            if (request.getStartTime() == null || request.getEndTime() == null) {
-                throw new BadRequestException("Start and End time are required when status is AVAILABLE");
+            if (startTime == null || endTime == null) {
+                throw new BadRequestException("Start and End time are required when status is " + status);
             }
-            if (!request.getStartTime().isBefore(request.getEndTime())) {
+            if (!startTime.isBefore(endTime)) {
                 throw new BadRequestException("Start time must be before end time");
             }
         }
     }
 
+    private boolean isWorking(AvailabilityStatus status) {
+        return status != AvailabilityStatus.UNAVAILABLE && status != AvailabilityStatus.HOLIDAY;
+    }
+
+    // back-to-back windows (one ending when the next starts) do not overlap
+    private boolean overlaps(LocalTime start, LocalTime end, LocalTime otherStart, LocalTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+
+
+    private ScheduleOverrideResponseDTO toDto(ProviderScheduleOverride override) {
+        return new ScheduleOverrideResponseDTO(
+                override.getId(),
+                override.getDate(),
+                override.getStartTime(),
+                override.getEndTime(),
+                override.getStatus(),
+                override.getReason()
+        );
+    }
 
     private ProviderScheduleResponseDTO toDto(ProviderSchedule schedule) {
         return new ProviderScheduleResponseDTO(
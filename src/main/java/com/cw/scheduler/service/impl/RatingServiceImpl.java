@@ -0,0 +1,82 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.dto.response.RatingSummaryResponseDTO;
+import com.cw.scheduler.entity.RatingAggregate;
+import com.cw.scheduler.entity.enums.RatingScope;
+import com.cw.scheduler.repository.RatingAggregateRepository;
+import com.cw.scheduler.service.interfaces.RatingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingServiceImpl implements RatingService {
+
+    private final RatingAggregateRepository ratingAggregateRepository;
+
+    /**
+     * Adds a rating to the service and provider aggregates. Must run in the transaction that
+     * inserts the review, so the totals and the reviews table never disagree.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRating(Long serviceId, Long providerId, int rating) {
+        ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), serviceId, rating);
+        if (providerId != null) {
+            ratingAggregateRepository.addRating(RatingScope.PROVIDER.name(), providerId, rating);
+            ratingAggregateRepository.refreshProviderRating(providerId);
+        }
+        log.debug("Recorded rating {} for serviceId={}, providerId={}", rating, serviceId, providerId);
+    }
+
+    @Override
+    public RatingSummaryResponseDTO getServiceRating(Long serviceId) {
+        return toSummary(ratingAggregateRepository.findByScopeAndTargetId(RatingScope.SERVICE, serviceId).orElse(null));
+    }
+
+    @Override
+    public RatingSummaryResponseDTO getProviderRating(Long providerId) {
+        return toSummary(ratingAggregateRepository.findByScopeAndTargetId(RatingScope.PROVIDER, providerId).orElse(null));
+    }
+
+    @Override
+    public boolean hasAggregates() {
+        return ratingAggregateRepository.count() > 0;
+    }
+
+    @Override
+    @Transactional
+    public void reconcile() {
+        // reviews stay readable; only inserts wait for the rebuild
+        ratingAggregateRepository.lockReviews();
+        int rebuilt = ratingAggregateRepository.rebuildFromReviews();
+        int removed = ratingAggregateRepository.deleteOrphans();
+        ratingAggregateRepository.refreshAllProviderRatings();
+        log.info("Rating aggregates reconciled: {} rebuilt, {} removed", rebuilt, removed);
+    }
+
+    private static RatingSummaryResponseDTO toSummary(RatingAggregate aggregate) {
+        Map<Integer, Long> starCounts = new LinkedHashMap<>();
+        if (aggregate == null || aggregate.getReviewCount() == 0) {
+            for (int star = 1; star <= 5; star++) {
+                starCounts.put(star, 0L);
+            }
+            return new RatingSummaryResponseDTO(0, 0.0, starCounts);
+        }
+
+        starCounts.put(1, aggregate.getStars1());
+        starCounts.put(2, aggregate.getStars2());
+        starCounts.put(3, aggregate.getStars3());
+        starCounts.put(4, aggregate.getStars4());
+        starCounts.put(5, aggregate.getStars5());
+        double average = (double) aggregate.getRatingSum() / aggregate.getReviewCount();
+        return new RatingSummaryResponseDTO(aggregate.getReviewCount(), average, starCounts);
+    }
+}
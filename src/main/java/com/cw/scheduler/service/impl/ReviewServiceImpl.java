@@ -1,23 +1,27 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CachePrefixEvictor;
 import com.cw.scheduler.dto.request.ReviewRequestDTO;
+import com.cw.scheduler.dto.response.RatingSummaryResponseDTO;
 import com.cw.scheduler.dto.response.ReviewResponseDTO;
 import com.cw.scheduler.entity.OfferedService;
 import com.cw.scheduler.entity.Review;
 import com.cw.scheduler.entity.User;
+import com.cw.scheduler.exception.BadRequestException;
 import com.cw.scheduler.exception.ResourceNotFoundException;
 import com.cw.scheduler.repository.OfferedServiceRepository;
 import com.cw.scheduler.repository.ReviewRepository;
+import com.cw.scheduler.repository.ServiceProviderRepository;
 import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.service.interfaces.RatingService;
 import com.cw.scheduler.service.interfaces.ReviewService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,19 +34,21 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewRepository reviewRepository;
     private final AuthenticationFacade authenticationFacade;
     private final OfferedServiceRepository offeredServiceRepository;
-    private final ModelMapper modelMapper;
+    private final ServiceProviderRepository serviceProviderRepository;
+    private final RatingService ratingService;
+    private final CachePrefixEvictor cachePrefixEvictor;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "serviceReviews", key = "#request.serviceId"),
-            @CacheEvict(value = "userReviews", key = "@authenticationFacade.getCurrentUserId()")
-    })
     public ApiResponse<ReviewResponseDTO> createReview(ReviewRequestDTO request) {
         User currentUser = authenticationFacade.getCurrentUser();
         log.info("UserId={} creating review for serviceId={}", currentUser.getId(), request.getServiceId());
 
         OfferedService offeredService = offeredServiceRepository.findById(request.getServiceId())
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+        Long providerId = offeredService.getProvider() != null ? offeredService.getProvider().getId() : null;
 
         Review review = new Review();
         review.setComment(request.getComment());
@@ -51,46 +57,73 @@ public class ReviewServiceImpl implements ReviewService {
         review.setService(offeredService);
         review.setCreatedAt(LocalDateTime.now());
 
-        Review savedReview = reviewRepository.save(review);
+        // the review row and both rating aggregates commit together
+        Review savedReview = transactionTemplate.execute(status -> {
+            Review saved = reviewRepository.save(review);
+            ratingService.recordRating(offeredService.getId(), providerId, saved.getRating());
+            return saved;
+        });
         log.debug("Review saved: reviewId={}, serviceId={}, userId={}",
                 savedReview.getId(), offeredService.getId(), currentUser.getId());
 
-        ReviewResponseDTO response = modelMapper.map(savedReview, ReviewResponseDTO.class);
+        // every cached page of the service's and the user's listings may shift
+        cachePrefixEvictor.evictByPrefix("serviceReviews", offeredService.getId() + ":");
+        cachePrefixEvictor.evictByPrefix("userReviews", currentUser.getId() + ":");
+
+        ReviewResponseDTO response = new ReviewResponseDTO(savedReview.getId(), currentUser.getName(),
+                offeredService.getName(), savedReview.getRating(), savedReview.getComment(), savedReview.getCreatedAt());
         return ApiResponse.success(response, "Review created successfully.");
     }
 
     @Override
-    @Cacheable(value = "serviceReviews", key = "#serviceId")
-    public ApiResponse<List<ReviewResponseDTO>> getReviewsByService(Long serviceId) {
-        log.info("Fetching reviews for serviceId={}", serviceId);
+    @Cacheable(value = "serviceReviews", key = "#serviceId + ':' + #page + ':' + #size", sync = true)
+    public ApiResponse<List<ReviewResponseDTO>> getReviewsByService(Long serviceId, int page, int size) {
+        validatePage(page, size);
+        log.info("Fetching reviews for serviceId={}, page={}, size={}", serviceId, page, size);
 
-        OfferedService offeredService = offeredServiceRepository.findById(serviceId)
-                .orElseThrow(() -> {
-                    log.warn("Service not found for serviceId={}", serviceId);
-                    return new ResourceNotFoundException("Service not found");
-                });
+        if (!offeredServiceRepository.existsById(serviceId)) {
+            log.warn("Service not found for serviceId={}", serviceId);
+            throw new ResourceNotFoundException("Service not found");
+        }
 
-        List<ReviewResponseDTO> response = reviewRepository.findByServiceId(serviceId)
-                .stream()
-                .map(review -> modelMapper.map(review, ReviewResponseDTO.class))
-                .toList();
+        List<ReviewResponseDTO> response = reviewRepository.findServicePage(serviceId, PageRequest.of(page, size));
 
         log.debug("Found {} reviews for serviceId={}", response.size(), serviceId);
-        return ApiResponse.success(response, "All reviews of service " + offeredService.getName());
+        return ApiResponse.success(response, "Reviews of service " + serviceId);
     }
 
     @Override
-    @Cacheable(value = "userReviews", key = "@authenticationFacade.getCurrentUserId()")
-    public ApiResponse<List<ReviewResponseDTO>> getReviewsByUser() {
-        User currentUser = authenticationFacade.getCurrentUser();
-        log.info("Fetching reviews for userId={}", currentUser.getId());
+    @Cacheable(value = "userReviews", key = "@authenticationFacade.getCurrentUserId() + ':' + #page + ':' + #size", sync = true)
+    public ApiResponse<List<ReviewResponseDTO>> getReviewsByUser(int page, int size) {
+        validatePage(page, size);
+        Long userId = authenticationFacade.getCurrentUserId();
+        log.info("Fetching reviews for userId={}, page={}, size={}", userId, page, size);
+
+        List<ReviewResponseDTO> response = reviewRepository.findUserPage(userId, PageRequest.of(page, size));
+
+        log.debug("Found {} reviews for userId={}", response.size(), userId);
+        return ApiResponse.success(response, "Reviews of the current user");
+    }
 
-        List<ReviewResponseDTO> response = reviewRepository.findByUserId(currentUser.getId())
-                .stream()
-                .map(review -> modelMapper.map(review, ReviewResponseDTO.class))
-                .toList();
+    @Override
+    public ApiResponse<RatingSummaryResponseDTO> getServiceRating(Long serviceId) {
+        if (!offeredServiceRepository.existsById(serviceId)) {
+            throw new ResourceNotFoundException("Service not found");
+        }
+        return ApiResponse.success(ratingService.getServiceRating(serviceId), "Rating of service " + serviceId);
+    }
+
+    @Override
+    public ApiResponse<RatingSummaryResponseDTO> getProviderRating(Long providerId) {
+        if (!serviceProviderRepository.existsById(providerId)) {
+            throw new ResourceNotFoundException("Service provider not found");
+        }
+        return ApiResponse.success(ratingService.getProviderRating(providerId), "Rating of provider " + providerId);
+    }
 
-        log.debug("Found {} reviews for userId={}", response.size(), currentUser.getId());
-        return ApiResponse.success(response, "All reviews of user " + currentUser.getName());
+    private static void validatePage(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE + ".");
+        }
     }
 }
@@ -17,7 +17,7 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
 
     @Override
-    @Cacheable(value = "roles", key = "#name.toUpperCase()")
+    @Cacheable(value = "roles", key = "#name.toUpperCase()", sync = true)
     public Role getByName(String name) {
         log.info("Fetching role by name: {}", name);
 
@@ -32,21 +32,21 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    @Cacheable(value = "roles", key = "'CUSTOMER'")
+    @Cacheable(value = "roles", key = "'CUSTOMER'", sync = true)
     public Role getCustomerRole() {
         log.info("Fetching CUSTOMER role");
         return getByName("CUSTOMER");
     }
 
     @Override
-    @Cacheable(value = "roles", key = "'ADMIN'")
+    @Cacheable(value = "roles", key = "'ADMIN'", sync = true)
     public Role getAdminRole() {
         log.info("Fetching ADMIN role");
         return getByName("ADMIN");
     }
 
     @Override
-    @Cacheable(value = "roles", key = "'SERVICE_PROVIDER'")
+    @Cacheable(value = "roles", key = "'SERVICE_PROVIDER'", sync = true)
     public Role getServiceProviderRole() {
         log.info("Fetching SERVICE_PROVIDER role");
         return getByName("SERVICE_PROVIDER");
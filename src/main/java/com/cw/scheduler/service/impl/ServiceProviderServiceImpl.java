@@ -56,9 +56,9 @@ public class ServiceProviderServiceImpl implements ServiceProviderService {
     }
 
     @Override
-    @Cacheable(value = "providerProfiles", key = "@authenticationFacade.getCurrentUserId()")
+    @Cacheable(value = "providerProfiles", key = "@authenticationFacade.getCurrentUserId()", sync = true)
     public ApiResponse<ServiceProviderResponseDTO> getMyProviderProfile() {
-        Long userId = authenticationFacade.getCurrentUser().getId();
+        Long userId = authenticationFacade.getCurrentUserId();
         log.info("Fetching provider profile for userId={}", userId);
 
         ServiceProvider provider = authenticationFacade.getCurrentUser().getServiceProvider();
@@ -72,7 +72,7 @@ public class ServiceProviderServiceImpl implements ServiceProviderService {
     }
 
     @Override
-    @Cacheable(value = "providerApplications", key = "#user.id")
+    @Cacheable(value = "providerApplications", key = "#user.id", sync = true)
     public ApiResponse<ServiceProviderResponseDTO> getApplicationByUser(User user) {
         log.info("Fetching provider application for userId={}", user.getId());
 
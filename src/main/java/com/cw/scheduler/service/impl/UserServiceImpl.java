@@ -1,6 +1,8 @@
 package com.cw.scheduler.service.impl;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.cache.CacheDependency;
+import com.cw.scheduler.cache.CacheDependencyTracker;
 import com.cw.scheduler.dto.request.ServiceProviderRequestDTO;
 import com.cw.scheduler.dto.request.UserUpdateRequestDTO;
 import com.cw.scheduler.dto.response.ServiceProviderResponseDTO;
@@ -28,10 +30,11 @@ public class UserServiceImpl implements UserService {
     private final ModelMapper modelMapper;
     private final AuthenticationFacade authenticationFacade;
     private final ServiceProviderService serviceProviderService;
+    private final CacheDependencyTracker cacheDependencies;
 
 
     @Override
-    @Cacheable(value = "userProfiles", key = "@authenticationFacade.getCurrentUserId()")
+    @Cacheable(value = "userProfiles", key = "@authenticationFacade.getCurrentUserId()", sync = true)
     public ApiResponse<UserProfileResponseDTO> getMyProfile() {
         User user = authenticationFacade.getCurrentUser();
         log.info("Fetching profile for userId={}", user.getId());
@@ -48,6 +51,7 @@ public class UserServiceImpl implements UserService {
 
         User savedUser = userRepository.save(user);
         log.debug("User profile updated in DB for userId={}", savedUser.getId());
+        cacheDependencies.invalidate("user.profile", CacheDependency.user(savedUser.getId()));
 
         return ApiResponse.success(modelMapper.map(savedUser,
                 UserProfileResponseDTO.class),
@@ -10,5 +10,5 @@ public interface AdminProviderService {
     ApiResponse<String> approveProviderRequest(Long userId);
     ApiResponse<String> rejectProviderRequest(ProviderRejectionRequestDTO request);
     ApiResponse<List<ServiceProviderResponseDTO>> getPendingProviderApplications(int page, int size);
-    ApiResponse<List<ServiceProviderResponseDTO>> getAllApprovedServiceProviders();
+    ApiResponse<List<ServiceProviderResponseDTO>> getApprovedServiceProviders(String city, String specialization, int page, int size);
 }
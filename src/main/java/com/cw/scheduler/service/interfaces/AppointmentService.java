@@ -3,8 +3,11 @@ package com.cw.scheduler.service.interfaces;
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.AppointmentRequestDTO;
 import com.cw.scheduler.dto.response.AppointmentResponseDTO;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.FreeSlotResponseDTO;
 import com.cw.scheduler.entity.Appointment;
 import com.cw.scheduler.entity.enums.AppointmentStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -12,12 +15,14 @@ import java.util.List;
 public interface AppointmentService {
 //    ApiResponse<AppointmentResponseDTO> bookAppointment(AppointmentRequestDTO requestDTO);
     Appointment bookAppointmentAndReturnEntity(AppointmentRequestDTO requestDTO);
-    ApiResponse<List<AppointmentResponseDTO>> getAppointmentsForCurrentUser();
+    ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getAppointmentsForCurrentUser(String cursor, int size);
     ApiResponse<String> cancelAppointment(Long appointmentId);
-    ApiResponse<List<AppointmentResponseDTO>> getProviderAppointments();
-    ApiResponse<List<AppointmentResponseDTO>> getUpcomingAppointments();
+    ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getProviderAppointments(String cursor, int size);
+    ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> getUpcomingAppointments(String cursor, int size);
+    StreamingResponseBody exportProviderAppointments();
     ApiResponse<AppointmentResponseDTO> updateAppointmentStatus(Long appointmentId, AppointmentStatus status);
     ApiResponse<List<AppointmentResponseDTO>> getAppointmentsForDate(LocalDate date);
+    ApiResponse<List<FreeSlotResponseDTO>> getFreeSlots(Long providerId, Long individualServiceId, LocalDate from, LocalDate to);
     void save(Appointment appointment);
 
 }
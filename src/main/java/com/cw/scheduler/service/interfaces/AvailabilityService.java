@@ -0,0 +1,20 @@
+package com.cw.scheduler.service.interfaces;
+
+import com.cw.scheduler.dto.response.FreeSlotResponseDTO;
+import com.cw.scheduler.entity.Appointment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface AvailabilityService {
+    void assertBookable(Long providerId, LocalDateTime appointmentTime, int durationMinutes);
+    boolean isWithinSchedule(Long providerId, DayOfWeek dayOfWeek, LocalTime time);
+    boolean isAvailableAt(Long providerId, LocalDateTime start, int durationMinutes);
+    void onAppointmentChanged(Appointment appointment);
+    void refreshSchedule(Long providerId);
+    void invalidate(Long providerId);
+    List<FreeSlotResponseDTO> findFreeSlots(Long providerId, LocalDate from, LocalDate to, int durationMinutes);
+}
@@ -0,0 +1,15 @@
+package com.cw.scheduler.service.interfaces;
+
+import com.cw.scheduler.entity.MailMessage;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MailQueueService {
+    void enqueue(String to, String subject, String body, boolean html);
+    List<MailMessage> claimDueMessages(int limit);
+    void markSent(Collection<Long> messageIds);
+    void markFailed(Long messageId, String error, boolean permanent);
+    long pendingCount();
+    int purgeSent();
+}
@@ -1,17 +1,24 @@
 package com.cw.scheduler.service.interfaces;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.NotificationInboxResponseDTO;
 import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
 import com.cw.scheduler.entity.User;
 import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.mail.EmailTemplate;
 
 import java.util.List;
 import java.util.Map;
 
 public interface NotificationService {
-    void sendEmail(String to, String subject, String templateName, Map<String, Object> variables);
+    void sendEmail(String to, String subject, EmailTemplate template, Map<String, Object> variables);
     void sendOtp(String phone, String otp);
     void saveNotification(User user, String message, NotificationType type);
-    ApiResponse<List<NotificationResponseDTO>> getNotificationsForUser();
-    ApiResponse<List<NotificationResponseDTO>> getNotificationsForUserByType(NotificationType type);
+    ApiResponse<NotificationInboxResponseDTO> getInbox(String cursor, int size);
+    ApiResponse<String> markAsRead(Long notificationId);
+    ApiResponse<Integer> markAllAsRead();
+    ApiResponse<CursorPageResponseDTO<NotificationResponseDTO>> getNotificationsForUserByType(NotificationType type, String cursor, int size);
+    ApiResponse<List<NotificationTypeCountDTO>> getNotificationSummary();
 }
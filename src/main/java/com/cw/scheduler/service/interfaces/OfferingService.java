@@ -2,7 +2,9 @@ package com.cw.scheduler.service.interfaces;
 
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.CreateOfferingServiceRequestDTO;
+import com.cw.scheduler.dto.request.ServiceSearchRequestDTO;
 import com.cw.scheduler.dto.response.OfferingServiceResponseDTO;
+import com.cw.scheduler.dto.response.ServiceSearchResultDTO;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -11,4 +13,5 @@ public interface OfferingService {
     ApiResponse<OfferingServiceResponseDTO> createService(CreateOfferingServiceRequestDTO request);
     ApiResponse<List<OfferingServiceResponseDTO>> getServicesByProvider();
     ApiResponse<Page<OfferingServiceResponseDTO>> getAllServices(int page, int size);
+    ApiResponse<List<ServiceSearchResultDTO>> searchServices(ServiceSearchRequestDTO request);
 }
@@ -0,0 +1,15 @@
+package com.cw.scheduler.service.interfaces;
+
+import com.cw.scheduler.entity.OutboxEvent;
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.entity.enums.OutboxStep;
+
+import java.util.List;
+
+public interface OutboxService {
+    void enqueue(OutboxEventType eventType, Long appointmentId, long appointmentVersion);
+    List<OutboxEvent> claimDueEvents(int limit);
+    void markStepCompleted(Long eventId, OutboxStep step);
+    void markDone(Long eventId);
+    void markFailed(Long eventId, String error);
+}
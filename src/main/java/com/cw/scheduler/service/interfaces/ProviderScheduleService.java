@@ -1,17 +1,27 @@
 package com.cw.scheduler.service.interfaces;
 
 import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.request.BulkScheduleRequestDTO;
 import com.cw.scheduler.dto.request.ProviderScheduleRequestDTO;
+import com.cw.scheduler.dto.request.ScheduleOverrideRequestDTO;
 import com.cw.scheduler.dto.response.ProviderScheduleResponseDTO;
+import com.cw.scheduler.dto.response.ScheduleOverrideResponseDTO;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
 public interface ProviderScheduleService {
     ApiResponse<ProviderScheduleResponseDTO> createSchedule(ProviderScheduleRequestDTO request);
+    ApiResponse<List<ProviderScheduleResponseDTO>> saveWeeklySchedule(BulkScheduleRequestDTO request);
     ApiResponse<List<ProviderScheduleResponseDTO>> getSchedulesForCurrentProvider();
-    ApiResponse<ProviderScheduleResponseDTO> getScheduleForDay(DayOfWeek dayOfWeek);
+    ApiResponse<List<ProviderScheduleResponseDTO>> getScheduleForDay(DayOfWeek dayOfWeek);
     ApiResponse<List<ProviderScheduleResponseDTO>> getAllSchedulesByDay(DayOfWeek dayOfWeek);
     boolean isProviderAvailable(Long providerId, DayOfWeek dayOfWeek, LocalTime time);
+    boolean isProviderAvailableAt(Long providerId, LocalDateTime dateTime, Long individualServiceId);
+    ApiResponse<ScheduleOverrideResponseDTO> createOverride(ScheduleOverrideRequestDTO request);
+    ApiResponse<List<ScheduleOverrideResponseDTO>> getOverrides(LocalDate from, LocalDate to);
+    ApiResponse<String> deleteOverride(Long overrideId);
 }
@@ -0,0 +1,11 @@
+package com.cw.scheduler.service.interfaces;
+
+import com.cw.scheduler.dto.response.RatingSummaryResponseDTO;
+
+public interface RatingService {
+    void recordRating(Long serviceId, Long providerId, int rating);
+    RatingSummaryResponseDTO getServiceRating(Long serviceId);
+    RatingSummaryResponseDTO getProviderRating(Long providerId);
+    boolean hasAggregates();
+    void reconcile();
+}
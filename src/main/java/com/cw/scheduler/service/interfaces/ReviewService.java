@@ -2,12 +2,15 @@ package com.cw.scheduler.service.interfaces;
 
 import com.cw.scheduler.advice.ApiResponse;
 import com.cw.scheduler.dto.request.ReviewRequestDTO;
+import com.cw.scheduler.dto.response.RatingSummaryResponseDTO;
 import com.cw.scheduler.dto.response.ReviewResponseDTO;
 
 import java.util.List;
 
 public interface ReviewService {
     ApiResponse<ReviewResponseDTO> createReview(ReviewRequestDTO request);
-    ApiResponse<List<ReviewResponseDTO>> getReviewsByService(Long serviceId);
-    ApiResponse<List<ReviewResponseDTO>> getReviewsByUser();
+    ApiResponse<List<ReviewResponseDTO>> getReviewsByService(Long serviceId, int page, int size);
+    ApiResponse<List<ReviewResponseDTO>> getReviewsByUser(int page, int size);
+    ApiResponse<RatingSummaryResponseDTO> getServiceRating(Long serviceId);
+    ApiResponse<RatingSummaryResponseDTO> getProviderRating(Long providerId);
 }
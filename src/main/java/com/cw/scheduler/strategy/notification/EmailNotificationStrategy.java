@@ -1,62 +1,30 @@
 package com.cw.scheduler.strategy.notification;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
+import com.cw.scheduler.mail.EmailTemplate;
+import com.cw.scheduler.mail.EmailTemplateRenderer;
+import com.cw.scheduler.mail.MailDeliveryEngine;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 @Component("emailNotificationStrategy")
 @RequiredArgsConstructor
 public class EmailNotificationStrategy implements TemplatedNotificationStrategy{
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
-
-    private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
+    private final MailDeliveryEngine mailDeliveryEngine;
+    private final EmailTemplateRenderer templateRenderer;
 
     @Override
-    @Async("emailExecutor")
-    public void sendTemplatedEmail(String to, String subject, String templateName, Map<String, Object> variables) {
-        Context context = new Context();
-        context.setVariables(variables);
-        String body = templateEngine.process(templateName, context);
-
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            helper.setFrom(new InternetAddress(fromEmail, "Apointiq"));
-            mailSender.send(mimeMessage);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send templated email", e);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+    public void sendTemplatedEmail(String to, String subject, EmailTemplate template, Map<String, Object> variables) {
+        String body = templateRenderer.render(template, variables);
+        mailDeliveryEngine.submit(to, subject, body, true);
     }
 
 
     @Override
     public void sendNotification(String recipient, String message) {
         // fallback/simple plain email
-        SimpleMailMessage mail = new SimpleMailMessage();
-        mail.setTo(recipient);
-        mail.setSubject("Notification");
-        mail.setText(message);
-        mailSender.send(mail);
+        mailDeliveryEngine.submit(recipient, "Notification", message, false);
     }
 }
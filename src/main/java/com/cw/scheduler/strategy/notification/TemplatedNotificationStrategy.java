@@ -1,8 +1,10 @@
 package com.cw.scheduler.strategy.notification;
 
+import com.cw.scheduler.mail.EmailTemplate;
+
 import java.util.Map;
 
 public interface TemplatedNotificationStrategy extends NotificationStrategy {
-    void sendTemplatedEmail(String to, String subject, String templateName, Map<String, Object> variables);
+    void sendTemplatedEmail(String to, String subject, EmailTemplate template, Map<String, Object> variables);
 }
 
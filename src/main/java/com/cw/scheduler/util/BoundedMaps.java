@@ -0,0 +1,42 @@
+package com.cw.scheduler.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Size cap for the in-process concurrent maps that sit in front of slower lookups (verified tokens,
+ * rate-limit buckets, L1 cache entries), where losing an entry only costs recomputing it.
+ */
+public final class BoundedMaps {
+
+    private BoundedMaps() {
+    }
+
+    /**
+     * Makes room for one more entry in a map capped at {@code maxEntries}: drops the stale entries
+     * first and, when it is still full, an arbitrary tenth of the live ones. Concurrent writers may
+     * overshoot the cap slightly; the next call brings the map back under it.
+     *
+     * @return the number of live entries dropped
+     */
+    public static <K, V> int makeRoom(Map<K, V> map, int maxEntries, Predicate<? super V> stale) {
+        if (map.size() < maxEntries) {
+            return 0;
+        }
+        map.values().removeIf(stale);
+        if (map.size() < maxEntries) {
+            return 0;
+        }
+
+        int toDrop = map.size() - maxEntries + Math.max(maxEntries / 10, 1);
+        int dropped = 0;
+        Iterator<K> keys = map.keySet().iterator();
+        while (dropped < toDrop && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            dropped++;
+        }
+        return dropped;
+    }
+}
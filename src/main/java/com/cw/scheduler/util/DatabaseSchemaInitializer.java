@@ -0,0 +1,133 @@
+package com.cw.scheduler.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the Postgres-specific schema pieces that Hibernate's ddl-auto cannot express.
+ * Every statement is idempotent and runs once the entity tables exist. Startup fails when the
+ * booking overlap constraint cannot be installed; the remaining statements only speed things up
+ * and are skipped with a warning.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseSchemaInitializer {
+
+    public static final String OVERLAP_CONSTRAINT = "appointments_provider_no_overlap";
+
+    // duplicate_table, duplicate_object, and unique_violation when another node creates the same extension
+    private static final Set<String> ALREADY_EXISTS = Set.of("42P07", "42710", "23505");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final List<String> REQUIRED_STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS btree_gist",
+
+            // rows booked before appointment_end_time existed
+            "UPDATE appointments a " +
+                    "SET appointment_end_time = a.appointment_time + make_interval(mins => GREATEST(s.duration_minutes, 1)) " +
+                    "FROM individual_services s " +
+                    "WHERE s.id = a.individual_service_id AND a.appointment_end_time IS NULL",
+
+            // no two live appointments of a provider may overlap
+            "DO $$ BEGIN " +
+                    "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + OVERLAP_CONSTRAINT + "') THEN " +
+                    "ALTER TABLE appointments ADD CONSTRAINT " + OVERLAP_CONSTRAINT + " " +
+                    "EXCLUDE USING gist (provider_id WITH =, tsrange(appointment_time, appointment_end_time) WITH &&) " +
+                    "WHERE (status <> 'CANCELLED'); " +
+                    "END IF; END $$"
+    );
+
+    private static final List<String> OPTIONAL_STATEMENTS = List.of(
+            // case-insensitive provider filters
+            "CREATE INDEX IF NOT EXISTS idx_service_providers_status_city " +
+                    "ON service_providers (application_status, lower(city))",
+            "CREATE INDEX IF NOT EXISTS idx_service_providers_status_specialization " +
+                    "ON service_providers (application_status, lower(specialization))",
+
+            // trigram indexes behind the '%text%' discovery search; expressions must match OfferedServiceSearchRepositoryImpl
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_services_text_trgm ON services " +
+                    "USING gin ((lower(coalesce(name, '') || ' ' || coalesce(description, ''))) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_service_providers_specialization_trgm ON service_providers " +
+                    "USING gin ((lower(coalesce(specialization, ''))) gin_trgm_ops)",
+
+            // the reminder loader only scans confirmed appointments still owed a reminder
+            "CREATE INDEX IF NOT EXISTS idx_appointments_reminder_due ON appointments (appointment_time, id) " +
+                    "WHERE status = 'CONFIRMED' AND reminder_sent_at IS NULL",
+            // and the resync only reads the ones changed since its previous run
+            "CREATE INDEX IF NOT EXISTS idx_appointments_reminder_changes ON appointments (updated_at) " +
+                    "WHERE status = 'CONFIRMED' AND reminder_sent_at IS NULL",
+
+            // unread badge counts only touch unread rows
+            "CREATE INDEX IF NOT EXISTS idx_notifications_user_unread ON notifications (user_id) WHERE read_at IS NULL",
+
+            // notifications moved from identity to pooled sequence ids; start past any existing row
+            "SELECT setval('notifications_seq', (SELECT max(id) FROM notifications) + 50) " +
+                    "WHERE (SELECT max(id) FROM notifications) >= (SELECT last_value FROM notifications_seq)",
+
+            // provider schedules moved to pooled sequence ids for batched bulk writes
+            "SELECT setval('provider_schedule_seq', (SELECT max(id) FROM provider_schedule) + 50) " +
+                    "WHERE (SELECT max(id) FROM provider_schedule) >= (SELECT last_value FROM provider_schedule_seq)"
+    );
+
+    @PostConstruct
+    public void applySchemaExtensions() {
+        if (!isPostgres()) {
+            // e.g. the H2 database of the JPA tests
+            log.info("Not a PostgreSQL database, skipping the schema extensions");
+            return;
+        }
+
+        for (String statement : REQUIRED_STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                if (!alreadyExists(e)) {
+                    // e.g. missing privileges or existing overlapping rows
+                    throw new IllegalStateException("Could not install the " + OVERLAP_CONSTRAINT
+                            + " exclusion constraint, refusing to start without the booking overlap guard: "
+                            + e.getMostSpecificCause().getMessage(), e);
+                }
+            }
+        }
+
+        int skipped = 0;
+        for (String statement : OPTIONAL_STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                if (!alreadyExists(e)) {
+                    skipped++;
+                    log.warn("Schema statement failed, continuing without it: {}", e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        if (skipped == 0) {
+            log.info("Database schema extensions applied");
+        } else {
+            log.warn("Database schema extensions applied, {} optional statement(s) skipped", skipped);
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private static boolean alreadyExists(DataAccessException e) {
+        return e.getMostSpecificCause() instanceof SQLException cause && ALREADY_EXISTS.contains(cause.getSQLState());
+    }
+}
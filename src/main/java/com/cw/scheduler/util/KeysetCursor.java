@@ -0,0 +1,45 @@
+package com.cw.scheduler.util;
+
+import com.cw.scheduler.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by (time, id): the next page starts strictly after it.
+ * Handed to clients as an opaque URL-safe token.
+ */
+public record KeysetCursor(LocalDateTime time, Long id) {
+
+    // ids are positive, so (time, 0) includes everything at that time
+    public static KeysetCursor startingAt(LocalDateTime time) {
+        return new KeysetCursor(time, 0L);
+    }
+
+    /**
+     * Start of the current minute. Listings starting "now" anchor to it and carry it in their cache key,
+     * so a cached first page is only served within the minute it was read.
+     */
+    public static LocalDateTime currentMinute() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cw.scheduler.util;
+
+import com.cw.scheduler.service.interfaces.RatingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the rating aggregates from the existing reviews on first start, and periodically
+ * reconciles them with the reviews table (reviews removed along with users or services).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateBackfill {
+
+    private final RatingService ratingService;
+
+    @Value("${ratings.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup || !ratingService.hasAggregates()) {
+            log.info("Backfilling rating aggregates from reviews");
+            runReconcile();
+        }
+    }
+
+    @Scheduled(cron = "${ratings.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        runReconcile();
+    }
+
+    private void runReconcile() {
+        try {
+            ratingService.reconcile();
+        } catch (Exception e) {
+            log.error("Rating aggregate reconcile failed: {}", e.getMessage(), e);
+        }
+    }
+}
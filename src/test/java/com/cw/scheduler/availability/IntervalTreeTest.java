@@ -0,0 +1,51 @@
+package com.cw.scheduler.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+	private record Span(long start, long end) {
+	}
+
+	@Test
+	void findsTheWindowCoveringTheWholeRange() {
+		IntervalTree<Span> tree = new IntervalTree<>(
+				List.of(new Span(540, 720), new Span(780, 1020), new Span(1080, 1200)), Span::start, Span::end);
+
+		assertEquals(new Span(780, 1020), tree.findCovering(900, 960));
+		assertEquals(new Span(540, 720), tree.findCovering(540, 720));
+		// crosses the gap between two windows
+		assertNull(tree.findCovering(700, 800));
+		assertNull(tree.findCovering(1200, 1201));
+		assertNull(IntervalTree.<Span>empty().findCovering(0, 0));
+	}
+
+	@Test
+	void matchesALinearScan() {
+		Random random = new Random(42);
+		List<Span> spans = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			long start = random.nextInt(10_000);
+			spans.add(new Span(start, start + random.nextInt(500)));
+		}
+		IntervalTree<Span> tree = new IntervalTree<>(spans, Span::start, Span::end);
+
+		for (int i = 0; i < 2_000; i++) {
+			long from = random.nextInt(10_500);
+			long to = from + random.nextInt(200);
+			boolean expected = spans.stream().anyMatch(span -> span.start() <= from && span.end() >= to);
+			Span found = tree.findCovering(from, to);
+
+			assertEquals(expected, found != null, from + ".." + to);
+			if (found != null) {
+				assertTrue(found.start() <= from && found.end() >= to);
+			}
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.cw.scheduler.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderAvailabilityTest {
+
+	private static final LocalDateTime TEN_AM = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+	@Test
+	void detectsOverlapNotOnlyIdenticalStart() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.book(new BookedInterval(10L, TEN_AM, 60));
+
+		assertTrue(availability.findConflict(TEN_AM, TEN_AM.plusMinutes(30)).isPresent());
+		assertTrue(availability.findConflict(TEN_AM.plusMinutes(45), TEN_AM.plusMinutes(75)).isPresent());
+		assertTrue(availability.findConflict(TEN_AM.minusMinutes(15), TEN_AM.plusMinutes(15)).isPresent());
+		assertFalse(availability.findConflict(TEN_AM.plusMinutes(60), TEN_AM.plusMinutes(90)).isPresent());
+		assertFalse(availability.findConflict(TEN_AM.minusMinutes(30), TEN_AM).isPresent());
+	}
+
+	@Test
+	void longBookingIsFoundBehindShorterOnes() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.book(new BookedInterval(10L, TEN_AM, 180));
+		availability.book(new BookedInterval(11L, TEN_AM.plusMinutes(30), 15));
+
+		assertEquals(10L, availability.findConflict(TEN_AM.plusMinutes(120), TEN_AM.plusMinutes(130))
+				.orElseThrow().appointmentId());
+	}
+
+	@Test
+	void releaseFreesTheInterval() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.book(new BookedInterval(10L, TEN_AM, 30));
+		availability.release(10L);
+
+		assertFalse(availability.findConflict(TEN_AM, TEN_AM.plusMinutes(30)).isPresent());
+		assertEquals(0, availability.bookedCount());
+	}
+
+	@Test
+	void scheduleWindowsAreInclusive() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.replaceWeeklyWindows(Map.of(DayOfWeek.MONDAY,
+				List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(17, 0)))));
+
+		assertTrue(availability.isWithinSchedule(DayOfWeek.MONDAY, LocalTime.of(9, 0)));
+		assertTrue(availability.isWithinSchedule(DayOfWeek.MONDAY, LocalTime.of(17, 0)));
+		assertFalse(availability.isWithinSchedule(DayOfWeek.MONDAY, LocalTime.of(8, 59)));
+		assertFalse(availability.isWithinSchedule(DayOfWeek.TUESDAY, LocalTime.of(10, 0)));
+	}
+
+	@Test
+	void serviceMustFitInsideOneWindow() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.replaceWeeklyWindows(Map.of(DayOfWeek.MONDAY, List.of(
+				new TimeWindow(LocalTime.of(9, 0), LocalTime.of(12, 0)),
+				new TimeWindow(LocalTime.of(13, 0), LocalTime.of(17, 0)))));
+		LocalDate monday = TEN_AM.toLocalDate();
+
+		assertTrue(availability.isWithinSchedule(monday.atTime(11, 0), 60));
+		assertFalse(availability.isWithinSchedule(monday.atTime(11, 30), 60), "runs into the lunch break");
+		assertTrue(availability.isWithinSchedule(monday.atTime(13, 0), 30));
+		assertFalse(availability.isWithinSchedule(monday.atTime(16, 45), 30));
+	}
+
+	@Test
+	void serviceMayEndExactlyAtMidnight() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.replaceWeeklyWindows(Map.of(DayOfWeek.MONDAY,
+				List.of(new TimeWindow(LocalTime.of(18, 0), LocalTime.of(23, 59)))));
+		LocalDate monday = TEN_AM.toLocalDate();
+		LocalDate nextMonday = monday.plusWeeks(1);
+		availability.replaceOverrides(Map.of(nextMonday, List.of(new TimeWindow(LocalTime.of(20, 0), LocalTime.MAX))));
+
+		assertTrue(availability.isWithinSchedule(monday.atTime(23, 0), 60));
+		assertFalse(availability.isWithinSchedule(monday.atTime(23, 30), 60), "runs into Tuesday");
+		assertTrue(availability.isWithinSchedule(nextMonday.atTime(23, 0), 60));
+		assertEquals(List.of(new TimeWindow(LocalTime.of(18, 0), LocalTime.MAX)),
+				availability.findFreeWindows(monday, 60, monday.minusDays(7).atStartOfDay()));
+	}
+
+	@Test
+	void overridesReplaceTheWeeklyWindowsOfTheirDate() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.replaceWeeklyWindows(Map.of(DayOfWeek.MONDAY,
+				List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(17, 0)))));
+		LocalDate monday = TEN_AM.toLocalDate();
+		LocalDate holiday = monday.plusWeeks(1);
+		LocalDate shortDay = monday.plusWeeks(2);
+		availability.replaceOverrides(Map.of(
+				holiday, List.of(),
+				shortDay, List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(11, 0)))));
+		LocalDateTime longAgo = monday.minusDays(7).atStartOfDay();
+
+		assertTrue(availability.isWithinSchedule(monday.atTime(15, 0), 30));
+		assertFalse(availability.isWithinSchedule(holiday.atTime(10, 0), 30));
+		assertTrue(availability.findFreeWindows(holiday, 30, longAgo).isEmpty());
+		assertFalse(availability.isWithinSchedule(shortDay.atTime(15, 0), 30));
+		assertEquals(List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(11, 0))),
+				availability.findFreeWindows(shortDay, 30, longAgo));
+	}
+
+	@Test
+	void freeWindowsFollowBookingsIncrementally() {
+		ProviderAvailability availability = new ProviderAvailability(1L);
+		availability.replaceWeeklyWindows(Map.of(DayOfWeek.MONDAY,
+				List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(12, 0)))));
+		LocalDate monday = TEN_AM.toLocalDate();
+		LocalDateTime longAgo = monday.minusDays(7).atStartOfDay();
+
+		assertEquals(List.of(new TimeWindow(LocalTime.of(9, 0), LocalTime.of(12, 0))),
+				availability.findFreeWindows(monday, 30, longAgo));
+
+		availability.book(new BookedInterval(10L, TEN_AM, 20));
+		assertEquals(List.of(
+						new TimeWindow(LocalTime.of(9, 0), LocalTime.of(10, 0)),
+						new TimeWindow(LocalTime.of(10, 20), LocalTime.of(12, 0))),
+				availability.findFreeWindows(monday, 30, longAgo));
+		assertEquals(List.of(new TimeWindow(LocalTime.of(10, 20), LocalTime.of(12, 0))),
+				availability.findFreeWindows(monday, 90, longAgo));
+
+		availability.release(10L);
+		assertEquals(1, availability.findFreeWindows(monday, 30, longAgo).size());
+		assertTrue(availability.findFreeWindows(monday, 30, TEN_AM.plusHours(3)).isEmpty());
+	}
+}
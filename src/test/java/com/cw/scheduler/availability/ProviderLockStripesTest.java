@@ -0,0 +1,21 @@
+package com.cw.scheduler.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderLockStripesTest {
+
+	@Test
+	void stripeCountIsPowerOfTwo() {
+		assertEquals(64, new ProviderLockStripes(64).size());
+		assertEquals(128, new ProviderLockStripes(65).size());
+		assertEquals(1, new ProviderLockStripes(0).size());
+	}
+
+	@Test
+	void sameProviderAlwaysMapsToSameLock() {
+		ProviderLockStripes stripes = new ProviderLockStripes(16);
+		assertSame(stripes.lockFor(42L), stripes.lockFor(42L));
+	}
+}
@@ -0,0 +1,136 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.entity.ServiceProvider;
+import com.cw.scheduler.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentCacheCoordinatorTest {
+
+	private static final LocalDateTime TEN_AM = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+	private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+			"userAppointments", "providerAppointments", "upcomingAppointments", "appointmentsByDate");
+	private final InMemoryIndex index = new InMemoryIndex();
+	private final CacheDependencyTracker tracker = new CacheDependencyTracker(index, cacheManager, new SimpleMeterRegistry());
+	private final AppointmentCacheCoordinator coordinator =
+			new AppointmentCacheCoordinator(new CachePrefixEvictor(cacheManager), tracker);
+
+	// what the database currently says for each view
+	private final Map<String, String> database = new HashMap<>();
+
+	@Test
+	void readsAfterACommittedWriteAreFresh() {
+		database.put("userAppointments:5:null:10", "before");
+		database.put("providerAppointments:1:null:10", "before");
+		database.put("upcomingAppointments:1:null:10", "before");
+		database.put("appointmentsByDate:1_2030-01-07", "before");
+		readAll();
+
+		database.replaceAll((view, value) -> "after");
+		inTransaction(() -> {
+			coordinator.evictAfterCommit(appointment(1L, 5L, TEN_AM), "appointment.book");
+			// not evicted yet: a read inside the transaction must not be served a half-written state
+			assertEquals("before", read("userAppointments", "5:null:10"));
+		}, true);
+
+		assertEquals("after", read("userAppointments", "5:null:10"));
+		assertEquals("after", read("providerAppointments", "1:null:10"));
+		assertEquals("after", read("upcomingAppointments", "1:null:10"));
+		assertEquals("after", read("appointmentsByDate", "1_2030-01-07"));
+	}
+
+	@Test
+	void onlyTheOwnersViewsAreEvicted() {
+		database.put("userAppointments:6:null:10", "other customer");
+		database.put("providerAppointments:2:null:10", "other provider");
+		database.put("appointmentsByDate:1_2030-01-08", "other day");
+		readAll();
+
+		coordinator.evictNow(appointment(1L, 5L, TEN_AM), "appointment.cancel");
+
+		assertNotNull(cacheManager.getCache("userAppointments").get("6:null:10"));
+		assertNotNull(cacheManager.getCache("providerAppointments").get("2:null:10"));
+		assertNotNull(cacheManager.getCache("appointmentsByDate").get("1_2030-01-08"));
+	}
+
+	@Test
+	void nothingIsEvictedOnRollback() {
+		database.put("userAppointments:5:null:10", "before");
+		readAll();
+
+		inTransaction(() -> coordinator.evictAfterCommit(appointment(1L, 5L, TEN_AM), "appointment.book"), false);
+
+		assertNotNull(cacheManager.getCache("userAppointments").get("5:null:10"));
+	}
+
+	private void readAll() {
+		database.keySet().forEach(view -> {
+			int separator = view.indexOf(':');
+			read(view.substring(0, separator), view.substring(separator + 1));
+		});
+	}
+
+	// a cached read as @Cacheable does it, registering the day view like AppointmentServiceImpl
+	private String read(String cacheName, String key) {
+		Cache cache = cacheManager.getCache(cacheName);
+		return cache.get(key, () -> {
+			if (cacheName.equals("appointmentsByDate")) {
+				tracker.register(cacheName, key, List.of(CacheDependency.providerDay(1L, LocalDate.parse(key.substring(2)))));
+			}
+			return database.get(cacheName + ":" + key);
+		});
+	}
+
+	private static void inTransaction(Runnable work, boolean commit) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			work.run();
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				if (commit) {
+					synchronization.afterCommit();
+				}
+				synchronization.afterCompletion(commit
+						? TransactionSynchronization.STATUS_COMMITTED
+						: TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static Appointment appointment(Long providerId, Long userId, LocalDateTime time) {
+		Appointment appointment = new Appointment();
+		appointment.setProvider(ServiceProvider.builder().id(providerId).build());
+		appointment.setUser(User.builder().id(userId).build());
+		appointment.setAppointmentTime(time);
+		return appointment;
+	}
+
+	private static class InMemoryIndex implements CacheDependencyIndex {
+
+		private final Map<String, Set<String>> entries = new HashMap<>();
+
+		@Override
+		public void add(Collection<String> dependencyKeys, String entry) {
+			dependencyKeys.forEach(key -> entries.computeIfAbsent(key, k -> new HashSet<>()).add(entry));
+		}
+
+		@Override
+		public Set<String> drain(String dependencyKey) {
+			Set<String> drained = entries.remove(dependencyKey);
+			return drained != null ? drained : Set.of();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.cw.scheduler.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDependencyTrackerTest {
+
+	private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("usersByRole", "userById");
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final InMemoryIndex index = new InMemoryIndex();
+	private final CacheDependencyTracker tracker = new CacheDependencyTracker(index, cacheManager, meterRegistry);
+
+	@Test
+	void evictsOnlyEntriesBuiltFromTheChangedRows() {
+		Cache byRole = cacheManager.getCache("usersByRole");
+		Cache byId = cacheManager.getCache("userById");
+		byRole.put("ADMIN", "admins");
+		byRole.put("CUSTOMER", "customers");
+		byId.put("7", "user 7");
+		tracker.register("usersByRole", "ADMIN", List.of(CacheDependency.userSet("role:ADMIN"), CacheDependency.user(1L)));
+		tracker.register("usersByRole", "CUSTOMER", List.of(CacheDependency.userSet("role:CUSTOMER"), CacheDependency.user(7L)));
+		tracker.register("userById", "7", List.of(CacheDependency.user(7L)));
+
+		assertEquals(2, tracker.evictDependents("user.deactivate", List.of(CacheDependency.user(7L))));
+
+		assertNotNull(byRole.get("ADMIN"));
+		assertNull(byRole.get("CUSTOMER"));
+		assertNull(byId.get("7"));
+		assertEquals(2.0, meterRegistry.get("cache.invalidation.fanout").tag("write", "user.deactivate").summary().totalAmount());
+	}
+
+	@Test
+	void dependenciesAreConsumedByTheInvalidation() {
+		Cache byId = cacheManager.getCache("userById");
+		byId.put("7", "user 7");
+		tracker.register("userById", "7", List.of(CacheDependency.user(7L)));
+		tracker.evictDependents("user.profile", List.of(CacheDependency.user(7L)));
+
+		// rebuilt without registering again: a later write has nothing to evict
+		byId.put("7", "user 7");
+		assertEquals(0, tracker.evictDependents("user.profile", List.of(CacheDependency.user(7L))));
+		assertNotNull(byId.get("7"));
+	}
+
+	private static class InMemoryIndex implements CacheDependencyIndex {
+
+		private final Map<String, Set<String>> entries = new HashMap<>();
+
+		@Override
+		public void add(Collection<String> dependencyKeys, String entry) {
+			dependencyKeys.forEach(key -> entries.computeIfAbsent(key, k -> new HashSet<>()).add(entry));
+		}
+
+		@Override
+		public Set<String> drain(String dependencyKey) {
+			Set<String> drained = entries.remove(dependencyKey);
+			return drained != null ? drained : Set.of();
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.cw.scheduler.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs prefix evictions through the production stack: coalescing, two-level and a real RedisCache
+ * over an in-memory writer.
+ */
+class CachePrefixEvictorTest {
+
+	private final InMemoryRedisWriter redis = new InMemoryRedisWriter();
+	private final RecordingPublisher publisher = new RecordingPublisher();
+	private final RedisCacheManager redisCacheManager = new RedisCacheManager(redis, RedisCacheConfiguration.defaultCacheConfig());
+	private final TwoLevelCacheManager twoLevelCacheManager = new TwoLevelCacheManager(redisCacheManager,
+			Map.of("allSchedulesByDay", new LocalCachePolicy(10, Duration.ofMinutes(5))), publisher);
+	private final CoalescingCacheManager cacheManager = new CoalescingCacheManager(twoLevelCacheManager, Map.of(),
+			Duration.ofHours(1), 1.0, 100, new SimpleMeterRegistry());
+	private final CachePrefixEvictor evictor = new CachePrefixEvictor(cacheManager);
+
+	@Test
+	void evictsOnlyTheMatchingRedisKeys() {
+		Cache appointments = cacheManager.getCache("providerAppointments");
+		appointments.get("1:null:10", () -> "provider 1");
+		appointments.get("1:abc:10", () -> "provider 1, page 2");
+		appointments.get("12:null:10", () -> "provider 12");
+
+		evictor.evictByPrefix("providerAppointments", "1:");
+
+		assertNull(appointments.get("1:null:10"));
+		assertNull(appointments.get("1:abc:10"));
+		assertEquals("provider 12", appointments.get("12:null:10").get());
+		assertEquals(List.of("providerAppointments::12:null:10"), redis.keys());
+	}
+
+	@Test
+	void evictsTheLocalCopiesAndTellsTheOtherNodes() {
+		Cache schedules = cacheManager.getCache("allSchedulesByDay");
+		schedules.put("1-MONDAY", "monday");
+		schedules.put("2-MONDAY", "other provider");
+		publisher.messages.clear();
+
+		evictor.evictByPrefix("allSchedulesByDay", "1-");
+
+		assertNull(schedules.get("1-MONDAY"));
+		assertEquals("other provider", schedules.get("2-MONDAY").get());
+		assertEquals(List.of("allSchedulesByDay|1-*"), publisher.messages);
+	}
+
+	@Test
+	void remotePrefixInvalidationDropsOnlyMatchingLocalCopies() {
+		Cache schedules = cacheManager.getCache("allSchedulesByDay");
+		schedules.get("1-MONDAY", () -> "monday");
+		schedules.get("2-MONDAY", () -> "other provider");
+		// changed in Redis by another node, which then broadcasts the prefix
+		byte[] changed = redis.get("allSchedulesByDay", bytes("allSchedulesByDay::2-MONDAY"));
+		redis.put("allSchedulesByDay", bytes("allSchedulesByDay::1-MONDAY"), changed, null);
+
+		twoLevelCacheManager.onMessage(new DefaultMessage(bytes(CacheInvalidationPublisher.CHANNEL),
+				bytes("other-node|allSchedulesByDay|1-*")), null);
+
+		assertEquals("other provider", schedules.get("1-MONDAY").get());
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static class InMemoryRedisWriter implements RedisCacheWriter {
+
+		private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+
+		List<String> keys() {
+			return new ArrayList<>(store.keySet());
+		}
+
+		@Override
+		public byte[] get(String name, byte[] key) {
+			return store.get(new String(key, StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+			return CompletableFuture.completedFuture(get(name, key));
+		}
+
+		@Override
+		public void put(String name, byte[] key, byte[] value, Duration ttl) {
+			store.put(new String(key, StandardCharsets.UTF_8), value);
+		}
+
+		@Override
+		public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+			put(name, key, value, ttl);
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+			return store.putIfAbsent(new String(key, StandardCharsets.UTF_8), value);
+		}
+
+		@Override
+		public void remove(String name, byte[] key) {
+			store.remove(new String(key, StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public void clean(String name, byte[] pattern) {
+			String glob = new String(pattern, StandardCharsets.UTF_8);
+			// the evictor only issues "prefix*" patterns
+			assertTrue(glob.endsWith("*") && glob.indexOf('*') == glob.length() - 1, "unexpected pattern " + glob);
+			String prefix = glob.substring(0, glob.length() - 1);
+			store.keySet().removeIf(key -> key.startsWith(prefix));
+		}
+
+		@Override
+		public void clearStatistics(String name) {
+		}
+
+		@Override
+		public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector collector) {
+			return this;
+		}
+
+		@Override
+		public CacheStatistics getCacheStatistics(String cacheName) {
+			return null;
+		}
+	}
+
+	private static class RecordingPublisher extends CacheInvalidationPublisher {
+
+		private final List<String> messages = new ArrayList<>();
+
+		RecordingPublisher() {
+			super(null);
+		}
+
+		@Override
+		public void publishEvict(String cacheName, String key) {
+			messages.add(cacheName + "|" + key);
+		}
+
+		@Override
+		public void publishEvictPrefix(String cacheName, String keyPrefix) {
+			messages.add(cacheName + "|" + keyPrefix + "*");
+		}
+
+		@Override
+		public void publishClear(String cacheName) {
+			messages.add(cacheName + "|");
+		}
+	}
+}
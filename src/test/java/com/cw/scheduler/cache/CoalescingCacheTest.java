@@ -0,0 +1,99 @@
+package com.cw.scheduler.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentMissesRunTheLoaderOnce() throws Exception {
+		CoalescingCache cache = cache(0);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> cache.get("page:0:size:10", () -> {
+					loads.incrementAndGet();
+					loading.countDown();
+					release.await();
+					return "services";
+				})));
+			}
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			// let every other caller reach the in-flight load before it completes
+			Thread.sleep(200);
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("services", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(1, meterRegistry.get("cache.loads").tag("cache", "allOfferedServices").tag("result", "success").timer().count());
+		assertEquals(7.0, meterRegistry.get("cache.loads.coalesced").tag("cache", "allOfferedServices").counter().count());
+	}
+
+	@Test
+	void failedLoadIsNotCachedAndIsRetried() {
+		CoalescingCache cache = cache(0);
+
+		assertThrows(Cache.ValueRetrievalException.class,
+				() -> cache.get(1L, () -> { throw new IllegalStateException("database down"); }));
+		assertEquals("recovered", cache.get(1L, () -> "recovered"));
+	}
+
+	@Test
+	void earlyRefreshRecomputesBeforeExpiryAndServesStaleOnFailure() {
+		// a huge beta makes the refresh certain on every hit
+		CoalescingCache eager = cache(1e12);
+		AtomicInteger loads = new AtomicInteger();
+		eager.get(1L, () -> "v" + loads.incrementAndGet());
+
+		assertEquals("v2", eager.get(1L, () -> "v" + loads.incrementAndGet()));
+		assertEquals("v2", eager.get(1L, () -> { throw new IllegalStateException("database down"); }));
+		assertEquals(2.0, meterRegistry.get("cache.refreshes.early").tag("cache", "allOfferedServices").counter().count());
+
+		CoalescingCache lazy = new CoalescingCache(new ConcurrentMapCache("providerAppointments"), Duration.ofMinutes(30),
+				0, 100, meterRegistry);
+		lazy.get(1L, () -> "first");
+		assertEquals("first", lazy.get(1L, () -> "second"));
+	}
+
+	@Test
+	void hitsAndMissesAreCountedPerCache() {
+		CoalescingCache cache = cache(0);
+		cache.get(1L, () -> "a");
+		cache.get(1L, () -> "a");
+		cache.get(2L);
+
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "allOfferedServices").tag("result", "hit").counter().count());
+		assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "allOfferedServices").tag("result", "miss").counter().count());
+	}
+
+	private CoalescingCache cache(double beta) {
+		return new CoalescingCache(new ConcurrentMapCache("allOfferedServices"), Duration.ofHours(3), beta, 100, meterRegistry);
+	}
+}
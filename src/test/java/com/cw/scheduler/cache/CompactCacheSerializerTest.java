@@ -0,0 +1,120 @@
+package com.cw.scheduler.cache;
+
+import com.cw.scheduler.advice.ApiResponse;
+import com.cw.scheduler.dto.response.AppointmentResponseDTO;
+import com.cw.scheduler.dto.response.CategoryResponseDTO;
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.entity.Authority;
+import com.cw.scheduler.entity.Role;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheSerializerTest {
+
+	private final CacheTypeRegistry registry = new CacheTypeRegistry()
+			.register(1, AppointmentResponseDTO.class)
+			.register(2, CategoryResponseDTO.class);
+	private final RedisSerializer<Object> compact = CacheSerializers.compact(registry, 1024);
+
+	@Test
+	void roundTripsListResponses() {
+		ApiResponse<List<AppointmentResponseDTO>> response = ApiResponse.success(appointments(50), "Appointments");
+
+		assertEquals(response, compact.deserialize(compact.serialize(response)));
+		assertEquals(ApiResponse.success(List.of(), "None"),
+				compact.deserialize(compact.serialize(ApiResponse.success(List.of(), "None"))));
+	}
+
+	@Test
+	void roundTripsPagesAndSingleValues() {
+		Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("name").ignoreCase().nullsLast());
+		Page<CategoryResponseDTO> page = new PageImpl<>(
+				List.of(new CategoryResponseDTO(1L, "Hair"), new CategoryResponseDTO(2L, "Nails")),
+				PageRequest.of(1, 2, sort), 7);
+		@SuppressWarnings("unchecked")
+		ApiResponse<Page<CategoryResponseDTO>> decoded =
+				(ApiResponse<Page<CategoryResponseDTO>>) compact.deserialize(compact.serialize(ApiResponse.success(page, "Page")));
+
+		assertEquals(page.getContent(), decoded.getData().getContent());
+		assertEquals(7, decoded.getData().getTotalElements());
+		assertEquals(1, decoded.getData().getNumber());
+		assertEquals(sort, decoded.getData().getSort());
+		assertEquals(page.getPageable(), decoded.getData().getPageable());
+		assertEquals(new CategoryResponseDTO(3L, "Spa"), compact.deserialize(compact.serialize(new CategoryResponseDTO(3L, "Spa"))));
+	}
+
+	@Test
+	void roundTripsCursorPages() {
+		ApiResponse<CursorPageResponseDTO<AppointmentResponseDTO>> response =
+				ApiResponse.success(new CursorPageResponseDTO<>(appointments(20), "next-token", true), "Page");
+
+		assertEquals(response, compact.deserialize(compact.serialize(response)));
+	}
+
+	@Test
+	void unregisteredTypesFallBackToTypedJson() {
+		ApiResponse<Map<String, Long>> response = ApiResponse.success(Map.of("count", 3L), "Counts");
+
+		assertEquals(response, compact.deserialize(compact.serialize(response)));
+	}
+
+	@Test
+	void entriesFromAnotherLayoutReadAsMiss() {
+		CacheTypeRegistry reassigned = new CacheTypeRegistry().register(1, CategoryResponseDTO.class);
+		RedisSerializer<Object> other = CacheSerializers.compact(reassigned, 1024);
+		byte[] bytes = compact.serialize(ApiResponse.success(appointments(3), "Appointments"));
+
+		assertNull(other.deserialize(bytes));
+		assertNull(compact.deserialize("{\"@class\":\"x\"}".getBytes()));
+	}
+
+	@Test
+	void entriesWithChangedNestedLayoutReadAsMiss() {
+		CacheTypeRegistry roles = new CacheTypeRegistry().register(13, Role.class).register(14, Authority.class);
+		RedisSerializer<Object> writer = CacheSerializers.compact(roles, 1024);
+		// Authority no longer registered, so it is written by name instead of by position inside a Role
+		RedisSerializer<Object> reader = CacheSerializers.compact(new CacheTypeRegistry().register(13, Role.class), 1024);
+		Role role = new Role(1L, "ADMIN", Set.of(new Authority(2L, "VIEW_SCHEDULE")));
+		byte[] bytes = writer.serialize(ApiResponse.success(role, "Role"));
+
+		assertEquals(ApiResponse.success(role, "Role"), writer.deserialize(bytes));
+		assertNull(reader.deserialize(bytes));
+	}
+
+	@Test
+	void muchSmallerThanDefaultTypedJson() {
+		RedisSerializer<Object> json = CacheSerializers.defaultTypedJson();
+		RedisSerializer<Object> uncompressed = CacheSerializers.compact(registry, Integer.MAX_VALUE);
+		ApiResponse<List<AppointmentResponseDTO>> response = ApiResponse.success(appointments(200), "Appointments");
+
+		int jsonBytes = json.serialize(response).length;
+		int positionalBytes = uncompressed.serialize(response).length;
+		int compactBytes = compact.serialize(response).length;
+
+		assertTrue(positionalBytes < jsonBytes / 2);
+		assertTrue(compactBytes < positionalBytes / 2);
+	}
+
+	private static List<AppointmentResponseDTO> appointments(int count) {
+		List<AppointmentResponseDTO> appointments = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+		for (long i = 0; i < count; i++) {
+			appointments.add(new AppointmentResponseDTO(i, 7L, 100 + i, "Haircut", "Jane Provider",
+					start.plusMinutes(30 * i), AppointmentStatus.CONFIRMED));
+		}
+		return appointments;
+	}
+}
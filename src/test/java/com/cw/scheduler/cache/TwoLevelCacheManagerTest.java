@@ -0,0 +1,100 @@
+package com.cw.scheduler.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheManagerTest {
+
+	private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager("roles", "userProfiles");
+	private final RecordingPublisher publisher = new RecordingPublisher();
+	private final TwoLevelCacheManager manager = new TwoLevelCacheManager(remote,
+			Map.of("roles", new LocalCachePolicy(10, Duration.ofMinutes(5))), publisher);
+
+	@Test
+	void servesFromLocalCopyAfterFirstRead() {
+		remote.getCache("roles").put(1L, "ADMIN");
+		Cache roles = manager.getCache("roles");
+
+		assertEquals("ADMIN", roles.get(1L).get());
+		remote.getCache("roles").put(1L, "CHANGED_BEHIND_OUR_BACK");
+		assertEquals("ADMIN", roles.get(1L).get());
+	}
+
+	@Test
+	void everyLocalHitIsAFreshCopy() {
+		Cache roles = manager.getCache("roles");
+		roles.get(2L, () -> new ArrayList<>(List.of("APPOINTMENT_BOOK")));
+
+		@SuppressWarnings("unchecked")
+		List<String> first = (List<String>) roles.get(2L).get();
+		first.add("CHANGED_BY_ONE_CALLER");
+
+		assertEquals(List.of("APPOINTMENT_BOOK"), roles.get(2L).get());
+		assertNotSame(first, roles.get(2L).get());
+	}
+
+	@Test
+	void evictionReachesBothLevelsAndIsBroadcast() {
+		Cache roles = manager.getCache("roles");
+		roles.put(1L, "ADMIN");
+		roles.evict(1L);
+
+		assertNull(roles.get(1L));
+		assertNull(remote.getCache("roles").get(1L));
+		assertEquals(List.of("roles|1", "roles|1"), publisher.messages);
+	}
+
+	@Test
+	void remoteInvalidationDropsLocalCopy() {
+		remote.getCache("roles").put(1L, "ADMIN");
+		Cache roles = manager.getCache("roles");
+		roles.get(1L);
+		remote.getCache("roles").put(1L, "USER");
+
+		manager.onMessage(message("other-node|roles|1"), null);
+		assertEquals("USER", roles.get(1L).get());
+
+		remote.getCache("roles").put(1L, "PROVIDER");
+		manager.onMessage(message(publisher.getNodeId() + "|roles|1"), null);
+		assertEquals("USER", roles.get(1L).get());
+	}
+
+	@Test
+	void cachesWithoutPolicyAreNotWrapped() {
+		assertSame(remote.getCache("userProfiles"), manager.getCache("userProfiles"));
+	}
+
+	private static DefaultMessage message(String body) {
+		byte[] channel = CacheInvalidationPublisher.CHANNEL.getBytes(StandardCharsets.UTF_8);
+		return new DefaultMessage(channel, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static class RecordingPublisher extends CacheInvalidationPublisher {
+
+		private final List<String> messages = new ArrayList<>();
+
+		RecordingPublisher() {
+			super(null);
+		}
+
+		@Override
+		public void publishEvict(String cacheName, String key) {
+			messages.add(cacheName + "|" + key);
+		}
+
+		@Override
+		public void publishClear(String cacheName) {
+			messages.add(cacheName + "|");
+		}
+	}
+}
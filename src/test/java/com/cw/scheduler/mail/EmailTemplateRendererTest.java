@@ -0,0 +1,56 @@
+package com.cw.scheduler.mail;
+
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateRendererTest {
+
+	private final EmailTemplateRenderer renderer = new EmailTemplateRenderer(engine());
+
+	EmailTemplateRendererTest() {
+		renderer.preload();
+	}
+
+	@Test
+	void preRenderedOutputMatchesThymeleaf() {
+		for (EmailTemplate template : EmailTemplate.values()) {
+			assertTrue(renderer.isPrecompiled(template), template.name());
+
+			Map<String, Object> variables = variables(template, "<O'Brien & \"Sons\">");
+			assertEquals(renderer.renderWithThymeleaf(template, variables), renderer.render(template, variables));
+		}
+	}
+
+	@Test
+	void missingVariablesAreRejected() {
+		Map<String, Object> variables = variables(EmailTemplate.WELCOME, "x");
+		variables.remove("loginUrl");
+
+		assertThrows(IllegalArgumentException.class, () -> renderer.render(EmailTemplate.WELCOME, variables));
+	}
+
+	private static Map<String, Object> variables(EmailTemplate template, String value) {
+		Map<String, Object> variables = new HashMap<>();
+		template.getVariables().forEach(name -> variables.put(name, value + " " + name));
+		return variables;
+	}
+
+	private static SpringTemplateEngine engine() {
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix("templates/");
+		resolver.setSuffix(".html");
+		resolver.setTemplateMode(TemplateMode.HTML);
+		resolver.setCharacterEncoding("UTF-8");
+
+		SpringTemplateEngine engine = new SpringTemplateEngine();
+		engine.setTemplateResolver(resolver);
+		return engine;
+	}
+}
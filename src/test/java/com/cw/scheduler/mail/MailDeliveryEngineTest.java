@@ -0,0 +1,64 @@
+package com.cw.scheduler.mail;
+
+import com.cw.scheduler.entity.MailMessage;
+import com.cw.scheduler.service.interfaces.MailQueueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MailDeliveryEngineTest {
+
+	private final MailQueueService mailQueueService = mock(MailQueueService.class);
+	private final SmtpConnection connection = mock(SmtpConnection.class);
+	private final MailDeliveryEngine engine = new MailDeliveryEngine(mailQueueService, new JavaMailSenderImpl(),
+			Runnable::run, new SimpleMeterRegistry(), "noreply@example.com", 1, 50, 100);
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// the server drops the connection while sending to user2
+		doAnswer(invocation -> {
+			MimeMessage message = invocation.getArgument(0);
+			if (message.getAllRecipients()[0].toString().equals("user2@example.com")) {
+				throw new MailSendException("Connection reset");
+			}
+			return null;
+		}).when(connection).send(any(MimeMessage.class));
+	}
+
+	@Test
+	void unexpectedSendFailureOnlyFailsThatMessage() {
+		engine.deliver(List.of(message(1L, "user1"), message(2L, "user2"), message(3L, "user3")), connection);
+
+		verify(mailQueueService).markFailed(eq(2L), eq("Connection reset"), eq(false));
+		verify(mailQueueService).markSent(List.of(1L, 3L));
+	}
+
+	@Test
+	void deliveredMessagesAreMarkedSentWhenTheBatchAborts() {
+		doThrow(new IllegalStateException("database unavailable"))
+				.when(mailQueueService).markFailed(anyLong(), anyString(), anyBoolean());
+
+		assertThrows(IllegalStateException.class, () -> engine.deliver(
+				List.of(message(1L, "user1"), message(2L, "user2"), message(3L, "user3")), connection));
+
+		verify(mailQueueService).markSent(List.of(1L));
+	}
+
+	private static MailMessage message(Long id, String user) {
+		MailMessage message = new MailMessage();
+		message.setId(id);
+		message.setRecipient(user + "@example.com");
+		message.setSubject("Your appointment");
+		message.setBody("See you soon");
+		return message;
+	}
+}
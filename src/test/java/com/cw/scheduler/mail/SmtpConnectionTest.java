@@ -0,0 +1,153 @@
+package com.cw.scheduler.mail;
+
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpConnectionTest {
+
+	@Test
+	void sendsManyMessagesOverOneConnection() throws Exception {
+		try (LocalSmtpServer server = new LocalSmtpServer()) {
+			assertEquals(1, sendFive(server, 100));
+
+			server.awaitMessages(5);
+			assertEquals(1, server.connections.get());
+			assertTrue(server.recipients.contains("<user4@example.com>"));
+		}
+	}
+
+	@Test
+	void reconnectsOnceTheServerCapIsReached() throws Exception {
+		try (LocalSmtpServer server = new LocalSmtpServer()) {
+			assertEquals(3, sendFive(server, 2));
+
+			server.awaitMessages(5);
+			assertEquals(3, server.connections.get());
+		}
+	}
+
+	private static int sendFive(LocalSmtpServer server, int maxMessagesPerConnection) throws Exception {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		sender.setHost("localhost");
+		sender.setPort(server.port());
+
+		try (SmtpConnection connection = new SmtpConnection(sender, maxMessagesPerConnection)) {
+			for (int i = 0; i < 5; i++) {
+				connection.send(message(sender, "user" + i + "@example.com"));
+			}
+			return connection.getConnectionsOpened();
+		}
+	}
+
+	private static MimeMessage message(JavaMailSenderImpl sender, String to) throws Exception {
+		MimeMessage message = sender.createMimeMessage();
+		message.setFrom(new InternetAddress("noreply@example.com"));
+		message.setRecipients(MimeMessage.RecipientType.TO, to);
+		message.setSubject("Your appointment");
+		message.setText("See you soon");
+		return message;
+	}
+
+	/**
+	 * Just enough of RFC 5321 for a client that sends and quits.
+	 */
+	private static class LocalSmtpServer implements Closeable {
+
+		private final ServerSocket socket;
+		private final AtomicInteger connections = new AtomicInteger();
+		private final AtomicInteger messages = new AtomicInteger();
+		private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+		LocalSmtpServer() {
+			try {
+				socket = new ServerSocket(0);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Thread acceptor = new Thread(this::accept, "local-smtp");
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		int port() {
+			return socket.getLocalPort();
+		}
+
+		void awaitMessages(int expected) throws InterruptedException {
+			for (int i = 0; i < 100 && messages.get() < expected; i++) {
+				Thread.sleep(20);
+			}
+			assertEquals(expected, messages.get());
+		}
+
+		private void accept() {
+			while (!socket.isClosed()) {
+				try {
+					Socket client = socket.accept();
+					connections.incrementAndGet();
+					Thread session = new Thread(() -> serve(client), "local-smtp-session");
+					session.setDaemon(true);
+					session.start();
+				} catch (IOException e) {
+					return;
+				}
+			}
+		}
+
+		private void serve(Socket client) {
+			try (client;
+			     BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+			     Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII)) {
+				reply(out, "220 localhost ready");
+				String line;
+				while ((line = in.readLine()) != null) {
+					String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+					switch (command) {
+						case "EHLO", "HELO" -> reply(out, "250 localhost");
+						case "RCPT" -> {
+							recipients.add(line.substring(line.indexOf(':') + 1).trim());
+							reply(out, "250 OK");
+						}
+						case "DATA" -> {
+							reply(out, "354 End data with <CR><LF>.<CR><LF>");
+							while ((line = in.readLine()) != null && !line.equals(".")) {
+								// body is not inspected
+							}
+							messages.incrementAndGet();
+							reply(out, "250 OK queued");
+						}
+						case "QUIT" -> {
+							reply(out, "221 Bye");
+							return;
+						}
+						default -> reply(out, "250 OK");
+					}
+				}
+			} catch (IOException ignored) {
+				// client went away
+			}
+		}
+
+		private static void reply(Writer out, String line) throws IOException {
+			out.write(line + "\r\n");
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.cw.scheduler.notification;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.entity.enums.NotificationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The inbox logic lives in Lua scripts, so this runs against the Redis named by TEST_REDIS_HOST
+ * (and TEST_REDIS_PORT, default 6379).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_REDIS_HOST", matches = ".+")
+class NotificationInboxStoreTest {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+	private LettuceConnectionFactory connectionFactory;
+	private StringRedisTemplate redisTemplate;
+	private NotificationInboxStore store;
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		String port = System.getenv("TEST_REDIS_PORT");
+		connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+				System.getenv("TEST_REDIS_HOST"), port != null ? Integer.parseInt(port) : 6379));
+		connectionFactory.afterPropertiesSet();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		store = new NotificationInboxStore(redisTemplate, new ObjectMapper().findAndRegisterModules(), Duration.ofMinutes(5));
+		// keys of one test never collide with another run against the same server
+		userId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+	}
+
+	@AfterEach
+	void tearDown() {
+		store.invalidate(userId);
+		redisTemplate.delete("notifications:inbox:" + userId + ":version");
+		connectionFactory.destroy();
+	}
+
+	@Test
+	void nothingIsCachedUntilARebuildIsInstalled() {
+		assertNull(store.load(userId));
+
+		// a push must not create a partial inbox that hides the older notifications
+		store.push(userId, List.of(notification(1)));
+
+		assertNull(store.load(userId));
+	}
+
+	@Test
+	void installedInboxIsServedUntilInvalidated() {
+		store.install(userId, store.version(userId), new InboxSnapshot(1, List.of(notification(2), notification(1))));
+
+		InboxSnapshot loaded = store.load(userId);
+		assertEquals(1, loaded.unreadCount());
+		assertEquals(List.of(2L, 1L), ids(loaded));
+
+		store.invalidate(userId);
+		assertNull(store.load(userId));
+	}
+
+	@Test
+	void pushAddsNewestFirstAndCountsThemUnread() {
+		store.install(userId, store.version(userId), new InboxSnapshot(1, List.of(notification(1))));
+
+		store.push(userId, List.of(notification(2), notification(3)));
+
+		InboxSnapshot loaded = store.load(userId);
+		assertEquals(3, loaded.unreadCount());
+		assertEquals(List.of(3L, 2L, 1L), ids(loaded));
+	}
+
+	@Test
+	void ringKeepsOnlyTheLatestNotifications() {
+		store.install(userId, store.version(userId), new InboxSnapshot(0, List.of()));
+
+		List<NotificationResponseDTO> pushed = new ArrayList<>();
+		for (int i = 1; i <= NotificationInboxStore.RING_SIZE + 5; i++) {
+			pushed.add(notification(i));
+		}
+		store.push(userId, pushed);
+
+		InboxSnapshot loaded = store.load(userId);
+		assertEquals(NotificationInboxStore.RING_SIZE, loaded.recent().size());
+		assertEquals(NotificationInboxStore.RING_SIZE + 5, loaded.recent().get(0).getId());
+		assertEquals(6L, loaded.recent().get(NotificationInboxStore.RING_SIZE - 1).getId());
+		// the unread count is not capped by the ring
+		assertEquals(NotificationInboxStore.RING_SIZE + 5, loaded.unreadCount());
+	}
+
+	@Test
+	void rebuildRacingAPushIsNotInstalled() {
+		// the rebuild reads the version, then queries the database ...
+		String version = store.version(userId);
+		InboxSnapshot fromDatabase = new InboxSnapshot(1, List.of(notification(1)));
+
+		// ... while a new notification is written and pushed
+		store.push(userId, List.of(notification(2)));
+		store.install(userId, version, fromDatabase);
+
+		assertNull(store.load(userId), "a stale rebuild would hide notification 2");
+	}
+
+	@Test
+	void rebuildRacingAnInvalidationIsNotInstalled() {
+		String version = store.version(userId);
+		InboxSnapshot fromDatabase = new InboxSnapshot(1, List.of(notification(1)));
+
+		store.invalidate(userId);
+		store.install(userId, version, fromDatabase);
+
+		assertNull(store.load(userId), "a stale rebuild would show read notifications as unread");
+	}
+
+	private static NotificationResponseDTO notification(long id) {
+		return new NotificationResponseDTO(id, "message " + id, NOON.plusMinutes(id), NotificationType.APPOINTMENT_REMINDER, false);
+	}
+
+	private static List<Long> ids(InboxSnapshot snapshot) {
+		return snapshot.recent().stream().map(NotificationResponseDTO::getId).toList();
+	}
+}
@@ -0,0 +1,174 @@
+package com.cw.scheduler.notification;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.entity.Notification;
+import com.cw.scheduler.entity.User;
+import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.repository.NotificationRepository;
+import com.cw.scheduler.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationWriteBehindQueueTest {
+
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final NotificationInboxStore inboxStore = mock(NotificationInboxStore.class);
+	private final Session session = mock(Session.class);
+
+	private final AtomicLong ids = new AtomicLong();
+	private final List<Integer> insertedBatchSizes = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(transactionTemplate.execute(any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(userRepository.getReferenceById(anyLong()))
+				.thenAnswer(invocation -> User.builder().id(invocation.getArgument(0)).build());
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<Notification> notifications = invocation.getArgument(0);
+			for (Notification notification : notifications) {
+				if (notification.getUser().getId() == 2L) {
+					throw new IllegalStateException("user 2 was deleted");
+				}
+			}
+			notifications.forEach(notification -> notification.setId(ids.incrementAndGet()));
+			insertedBatchSizes.add(notifications.size());
+			return notifications;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void flushInsertsInBatchesAndPushesOncePerUserPerBatch() throws Exception {
+		NotificationWriteBehindQueue queue = queue(100, 2);
+		queue.enqueue(1L, "a", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(1L, "b", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(3L, "c", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(1L, "d", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(3L, "e", NotificationType.APPOINTMENT_REMINDER);
+		verify(notificationRepository, never()).saveAll(anyList());
+
+		queue.flush();
+
+		assertEquals(List.of(2, 2, 1), insertedBatchSizes);
+		verify(session, times(3)).setJdbcBatchSize(2);
+		ArgumentCaptor<List> pushed = ArgumentCaptor.forClass(List.class);
+		verify(inboxStore, times(2)).push(eq(1L), pushed.capture());
+		verify(inboxStore, times(2)).push(eq(3L), anyList());
+		assertEquals(2, pushed.getAllValues().get(0).size());
+		assertEquals("a", ((NotificationResponseDTO) pushed.getAllValues().get(0).get(0)).getMessage());
+		assertEquals(0, queue.pendingCount());
+	}
+
+	@Test
+	void notificationsRaisedInATransactionWaitForTheCommit() throws Exception {
+		NotificationWriteBehindQueue queue = queue(100, 10);
+		TransactionSynchronizationManager.initSynchronization();
+
+		queue.enqueue(1L, "committed", NotificationType.APPOINTMENT_REMINDER);
+		assertEquals(0, queue.pendingCount());
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+		assertEquals(1, queue.pendingCount());
+	}
+
+	@Test
+	void rolledBackNotificationsAreNeverQueued() throws Exception {
+		NotificationWriteBehindQueue queue = queue(100, 10);
+		TransactionSynchronizationManager.initSynchronization();
+
+		queue.enqueue(1L, "rolled back", NotificationType.APPOINTMENT_REMINDER);
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		TransactionSynchronizationManager.clearSynchronization();
+		queue.flush();
+
+		assertEquals(0, queue.pendingCount());
+		verify(notificationRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	void failedBatchIsRetriedOneByOneAndOnlyTheBadRowIsDropped() throws Exception {
+		NotificationWriteBehindQueue queue = queue(100, 10);
+		queue.enqueue(1L, "a", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(2L, "b", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(3L, "c", NotificationType.APPOINTMENT_REMINDER);
+
+		queue.flush();
+
+		// the batch of three, then each row on its own
+		verify(transactionTemplate, times(4)).execute(any());
+		assertEquals(List.of(1, 1), insertedBatchSizes);
+		verify(inboxStore).push(eq(1L), anyList());
+		verify(inboxStore).push(eq(3L), anyList());
+		verify(inboxStore, never()).push(eq(2L), anyList());
+	}
+
+	@Test
+	void fullQueueIsFlushedByTheCaller() throws Exception {
+		NotificationWriteBehindQueue queue = queue(2, 10);
+		queue.enqueue(1L, "a", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(1L, "b", NotificationType.APPOINTMENT_REMINDER);
+
+		queue.enqueue(1L, "c", NotificationType.APPOINTMENT_REMINDER);
+
+		assertEquals(List.of(2), insertedBatchSizes);
+		assertEquals(1, queue.pendingCount());
+	}
+
+	@Test
+	void shutdownFlushesWhatIsLeftAndAnythingRaisedAfterwards() throws Exception {
+		NotificationWriteBehindQueue queue = queue(100, 10);
+		queue.enqueue(1L, "a", NotificationType.APPOINTMENT_REMINDER);
+		queue.enqueue(3L, "b", NotificationType.APPOINTMENT_REMINDER);
+
+		queue.shutdown();
+		assertEquals(List.of(2), insertedBatchSizes);
+		assertEquals(0, queue.pendingCount());
+
+		// e.g. a transaction that commits while the context is closing
+		queue.enqueue(1L, "late", NotificationType.APPOINTMENT_REMINDER);
+		assertEquals(List.of(2, 1), insertedBatchSizes);
+		assertEquals(0, queue.pendingCount());
+	}
+
+	private NotificationWriteBehindQueue queue(int capacity, int batchSize) throws Exception {
+		NotificationWriteBehindQueue queue = new NotificationWriteBehindQueue(notificationRepository, userRepository,
+				transactionTemplate, inboxStore, capacity, batchSize);
+		EntityManager entityManager = mock(EntityManager.class);
+		when(entityManager.unwrap(Session.class)).thenReturn(session);
+		Field field = NotificationWriteBehindQueue.class.getDeclaredField("entityManager");
+		field.setAccessible(true);
+		field.set(queue, entityManager);
+		return queue;
+	}
+}
@@ -0,0 +1,46 @@
+package com.cw.scheduler.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimitBucketStoreTest {
+
+	private static final BucketConfiguration ONE_PER_MINUTE = BucketConfiguration.builder()
+			.addLimit(Bandwidth.classic(1, Refill.intervally(1, Duration.ofMinutes(1))))
+			.build();
+
+	@Test
+	void bucketsAreSeparatePerKey() {
+		LocalRateLimitBucketStore store = new LocalRateLimitBucketStore(100);
+
+		assertTrue(store.resolveBucket("USER_1:AuthController.login", ONE_PER_MINUTE, Duration.ofMinutes(1)).tryConsume(1));
+		assertFalse(store.resolveBucket("USER_1:AuthController.login", ONE_PER_MINUTE, Duration.ofMinutes(1)).tryConsume(1));
+		assertTrue(store.resolveBucket("USER_1:AppointmentController.getMyAppointments", ONE_PER_MINUTE, Duration.ofMinutes(1)).tryConsume(1));
+	}
+
+	@Test
+	void idleBucketsAreEvicted() {
+		LocalRateLimitBucketStore store = new LocalRateLimitBucketStore(100);
+		store.resolveBucket("IP_10.0.0.1:AuthController.login", ONE_PER_MINUTE, Duration.ZERO);
+		store.resolveBucket("IP_10.0.0.2:AuthController.login", ONE_PER_MINUTE, Duration.ofMinutes(1));
+
+		store.evictIdle();
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	void sizeIsCapped() {
+		LocalRateLimitBucketStore store = new LocalRateLimitBucketStore(50);
+		for (int i = 0; i < 1_000; i++) {
+			store.resolveBucket("IP_10.0." + i + ":AuthController.login", ONE_PER_MINUTE, Duration.ofMinutes(1));
+		}
+
+		assertTrue(store.size() <= 50);
+	}
+}
@@ -0,0 +1,108 @@
+package com.cw.scheduler.reminder;
+
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.outbox.OutboxDispatcher;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentReminderSchedulerTest {
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final OutboxService outboxService = mock(OutboxService.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final AppointmentReminderScheduler scheduler = new AppointmentReminderScheduler(appointmentRepository,
+			outboxService, mock(OutboxDispatcher.class), transactionTemplate, 24, Duration.ofHours(6), 2);
+
+	@BeforeEach
+	void setUp() {
+		when(transactionTemplate.execute(any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(appointmentRepository.claimReminder(anyLong(), any())).thenReturn(1);
+		when(appointmentRepository.findVersionById(anyLong())).thenReturn(2L);
+	}
+
+	@Test
+	void windowIsLoadedOutsideTheMonitorInPages() {
+		LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).plusHours(2);
+		when(appointmentRepository.findReminderCandidates(any(), anyLong(), any(), any(Pageable.class))).thenAnswer(invocation -> {
+			assertFalse(Thread.holdsLock(scheduler), "the wheel stays usable while the database is read");
+			long afterId = invocation.getArgument(1);
+			// two full pages, then the rest
+			return afterId == Long.MAX_VALUE
+					? List.of(candidate(1L, tomorrow), candidate(2L, tomorrow))
+					: afterId == 2L ? List.of(candidate(3L, tomorrow)) : List.of();
+		});
+
+		scheduler.start();
+
+		verify(appointmentRepository, times(2)).findReminderCandidates(any(), anyLong(), any(), any(Pageable.class));
+		verify(appointmentRepository, never()).claimReminder(anyLong(), any());
+	}
+
+	@Test
+	void resyncOnlyReadsChangesSinceThePreviousRun() {
+		scheduler.start();
+		LocalDateTime started = LocalDateTime.now();
+
+		scheduler.resync();
+		scheduler.resync();
+
+		ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(appointmentRepository, times(2)).findReminderCandidatesUpdatedSince(
+				since.capture(), any(), anyLong(), any(Pageable.class));
+		assertFalse(since.getAllValues().get(0).isAfter(started.minusMinutes(1)));
+		assertTrue(since.getAllValues().get(1).isAfter(since.getAllValues().get(0)));
+		// the loaded window itself is not read again
+		verify(appointmentRepository, times(1)).findReminderCandidates(any(), anyLong(), any(), any(Pageable.class));
+	}
+
+	@Test
+	void resyncSendsReminderOfAppointmentBookedElsewhere() {
+		scheduler.start();
+		// booked two days ago through another node for tomorrow morning, so the reminder is already due
+		ReminderCandidate bookedElsewhere = new ReminderCandidate(9L, LocalDateTime.now().plusHours(12),
+				LocalDateTime.now().minusDays(2));
+		when(appointmentRepository.findReminderCandidatesUpdatedSince(any(), any(), anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					assertFalse(Thread.holdsLock(scheduler));
+					return invocation.<Long>getArgument(2) == 0L ? List.of(bookedElsewhere) : List.of();
+				});
+
+		scheduler.resync();
+
+		verify(appointmentRepository).claimReminder(eq(9L), any());
+		verify(outboxService).enqueue(OutboxEventType.APPOINTMENT_REMINDER, 9L, 2L);
+	}
+
+	@Test
+	void failedSendIsRetriedOnTheNextTick() {
+		scheduler.start();
+		when(appointmentRepository.findReminderCandidatesUpdatedSince(any(), any(), anyLong(), any(Pageable.class)))
+				.thenReturn(List.of(new ReminderCandidate(9L, LocalDateTime.now().plusHours(12), LocalDateTime.now().minusDays(2))));
+		when(appointmentRepository.claimReminder(eq(9L), any())).thenThrow(new IllegalStateException("database unavailable"));
+		scheduler.resync();
+
+		doReturn(1).when(appointmentRepository).claimReminder(eq(9L), any());
+		scheduler.tick();
+
+		verify(outboxService).enqueue(OutboxEventType.APPOINTMENT_REMINDER, 9L, 2L);
+	}
+
+	private static ReminderCandidate candidate(Long id, LocalDateTime appointmentTime) {
+		return new ReminderCandidate(id, appointmentTime, LocalDateTime.now().minusDays(3));
+	}
+}
@@ -0,0 +1,70 @@
+package com.cw.scheduler.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@Test
+	void firesWithinOneTickOfExpiration() {
+		TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 60, 0);
+		wheel.schedule("soon", 5 * MINUTE);
+		wheel.schedule("later", 5 * MINUTE + 30_000);
+
+		List<String> due = new ArrayList<>();
+		wheel.advance(4 * MINUTE, due::add);
+		assertTrue(due.isEmpty());
+
+		wheel.advance(5 * MINUTE, due::add);
+		assertEquals(List.of("soon", "later"), due);
+	}
+
+	@Test
+	void cascadesFromCoarserLevelsInOrder() {
+		TimingWheel<Long> wheel = new TimingWheel<>(MINUTE, 60, 0);
+		Random random = new Random(42);
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			// spread over ten days, well past the second level
+			long minute = 1 + random.nextInt(14_400);
+			wheel.schedule(minute, minute * MINUTE);
+			expected.add(minute);
+		}
+		expected.sort(null);
+
+		List<Long> fired = new ArrayList<>();
+		for (long now = 0; now <= 14_400 * MINUTE; now += MINUTE) {
+			long tick = now;
+			wheel.advance(now, minute -> {
+				assertEquals(tick, minute * MINUTE, "fired at the wrong tick");
+				fired.add(minute);
+			});
+		}
+		assertEquals(expected, fired);
+	}
+
+	@Test
+	void cancelledEntriesNeverFire() {
+		TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 60, 0);
+		wheel.schedule("kept", 90 * MINUTE);
+		wheel.schedule("cancelled", 90 * MINUTE).cancel();
+
+		List<String> due = new ArrayList<>();
+		wheel.advance(120 * MINUTE, due::add);
+		assertEquals(List.of("kept"), due);
+	}
+
+	@Test
+	void pastExpirationsAreNotScheduled() {
+		TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 60, 10 * MINUTE);
+		assertNull(wheel.schedule("late", 10 * MINUTE + 1));
+		assertNotNull(wheel.schedule("next tick", 11 * MINUTE));
+	}
+}
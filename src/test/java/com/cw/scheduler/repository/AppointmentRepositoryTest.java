@@ -0,0 +1,113 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.dto.response.AppointmentResponseDTO;
+import com.cw.scheduler.entity.*;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AppointmentRepositoryTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private ServiceProvider provider;
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		User providerUser = entityManager.persist(User.builder().name("Jane").email("jane@example.com").active(true).build());
+		provider = entityManager.persist(ServiceProvider.builder().fullName("Jane Provider").user(providerUser).build());
+		customer = entityManager.persist(User.builder().name("Carl").email("carl@example.com").active(true).build());
+
+		Category category = entityManager.persist(new Category(null, "Hair", null));
+		OfferedService offered = new OfferedService();
+		offered.setName("Hair care");
+		offered.setCategory(category);
+		offered.setProvider(provider);
+		entityManager.persist(offered);
+
+		IndividualService haircut = new IndividualService();
+		haircut.setName("Haircut");
+		haircut.setDurationMinutes(30);
+		haircut.setOfferedService(offered);
+		entityManager.persist(haircut);
+
+		for (int i = 0; i < 25; i++) {
+			Appointment appointment = new Appointment();
+			appointment.setProvider(provider);
+			appointment.setUser(customer);
+			appointment.setIndividualService(haircut);
+			// pairs share a start time, so the id breaks ties
+			appointment.setAppointmentTime(START.plusHours(i / 2));
+			appointment.setAppointmentEndTime(START.plusHours(i / 2).plusMinutes(30));
+			appointment.setStatus(AppointmentStatus.CONFIRMED);
+			entityManager.persist(appointment);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void pageIsOneQueryWithoutEntityLoads() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<AppointmentResponseDTO> page = appointmentRepository.findProviderPageAfter(
+				provider.getId(), START.minusDays(1), 0L, PageRequest.ofSize(10));
+
+		assertEquals(10, page.size());
+		assertEquals("Haircut", page.get(0).getIndividualServiceName());
+		assertEquals("Jane Provider", page.get(0).getProviderFullName());
+		assertEquals(customer.getId(), page.get(0).getUserId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void keysetPagesCoverEveryRowOnceInOrder() {
+		LocalDateTime afterTime = START.minusDays(1);
+		long afterId = 0L;
+		List<AppointmentResponseDTO> all = new ArrayList<>();
+		List<AppointmentResponseDTO> page;
+		do {
+			page = appointmentRepository.findUserPageAfter(customer.getId(), afterTime, afterId, PageRequest.ofSize(4));
+			all.addAll(page);
+			if (!page.isEmpty()) {
+				afterTime = page.get(page.size() - 1).getAppointmentTime();
+				afterId = page.get(page.size() - 1).getId();
+			}
+		} while (page.size() == 4);
+
+		assertEquals(25, all.size());
+		assertEquals(25, all.stream().map(AppointmentResponseDTO::getId).distinct().count());
+		for (int i = 1; i < all.size(); i++) {
+			AppointmentResponseDTO previous = all.get(i - 1);
+			AppointmentResponseDTO current = all.get(i);
+			assertTrue(previous.getAppointmentTime().isBefore(current.getAppointmentTime())
+					|| previous.getAppointmentTime().equals(current.getAppointmentTime()) && previous.getId() < current.getId());
+		}
+	}
+}
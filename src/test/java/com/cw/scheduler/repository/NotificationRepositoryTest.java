@@ -0,0 +1,97 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
+import com.cw.scheduler.entity.Notification;
+import com.cw.scheduler.entity.User;
+import com.cw.scheduler.entity.enums.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class NotificationRepositoryTest {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 7, 12, 0);
+	private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private User customer;
+	private User otherCustomer;
+
+	@BeforeEach
+	void setUp() {
+		customer = entityManager.persist(User.builder().name("Carl").email("carl@example.com").active(true).build());
+		otherCustomer = entityManager.persist(User.builder().name("Dana").email("dana@example.com").active(true).build());
+
+		notification(customer, NotificationType.APPOINTMENT_CONFIRMED, 1, true);
+		notification(customer, NotificationType.APPOINTMENT_REMINDER, 2, false);
+		notification(customer, NotificationType.APPOINTMENT_CONFIRMED, 3, false);
+		notification(customer, NotificationType.APPOINTMENT_CONFIRMED, 4, false);
+		notification(otherCustomer, NotificationType.APPOINTMENT_CONFIRMED, 5, false);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void typedPageOnlyReturnsTheRequestedType() {
+		List<NotificationResponseDTO> page = notificationRepository.findTypePageBefore(
+				customer.getId(), NotificationType.APPOINTMENT_CONFIRMED, END, Long.MAX_VALUE, PageRequest.ofSize(10));
+
+		assertEquals(List.of("message 4", "message 3", "message 1"),
+				page.stream().map(NotificationResponseDTO::getMessage).toList());
+		assertTrue(page.stream().allMatch(notification -> notification.getType() == NotificationType.APPOINTMENT_CONFIRMED));
+		assertTrue(notificationRepository.findTypePageBefore(customer.getId(), NotificationType.REGISTRATION,
+				END, Long.MAX_VALUE, PageRequest.ofSize(10)).isEmpty());
+	}
+
+	@Test
+	void typedPagesContinueAfterTheCursor() {
+		List<NotificationResponseDTO> first = notificationRepository.findTypePageBefore(
+				customer.getId(), NotificationType.APPOINTMENT_CONFIRMED, END, Long.MAX_VALUE, PageRequest.ofSize(2));
+		NotificationResponseDTO last = first.get(first.size() - 1);
+
+		List<NotificationResponseDTO> second = notificationRepository.findTypePageBefore(
+				customer.getId(), NotificationType.APPOINTMENT_CONFIRMED, last.getSentAt(), last.getId(), PageRequest.ofSize(2));
+
+		assertEquals(List.of("message 4", "message 3"), first.stream().map(NotificationResponseDTO::getMessage).toList());
+		assertEquals(List.of("message 1"), second.stream().map(NotificationResponseDTO::getMessage).toList());
+	}
+
+	@Test
+	void countsAreGroupedByTypeForOneUser() {
+		Map<NotificationType, NotificationTypeCountDTO> counts = notificationRepository.countByType(customer.getId())
+				.stream().collect(Collectors.toMap(NotificationTypeCountDTO::getType, count -> count));
+
+		assertEquals(2, counts.size());
+		assertEquals(3L, counts.get(NotificationType.APPOINTMENT_CONFIRMED).getTotal());
+		assertEquals(2L, counts.get(NotificationType.APPOINTMENT_CONFIRMED).getUnread());
+		assertEquals(1L, counts.get(NotificationType.APPOINTMENT_REMINDER).getTotal());
+		assertEquals(1L, counts.get(NotificationType.APPOINTMENT_REMINDER).getUnread());
+	}
+
+	private void notification(User user, NotificationType type, int minute, boolean read) {
+		Notification notification = new Notification();
+		notification.setUser(user);
+		notification.setType(type);
+		notification.setMessage("message " + minute);
+		notification.setSentAt(NOON.plusMinutes(minute));
+		notification.setReadAt(read ? NOON.plusHours(1) : null);
+		entityManager.persist(notification);
+	}
+}
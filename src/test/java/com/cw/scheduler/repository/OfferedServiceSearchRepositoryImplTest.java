@@ -0,0 +1,59 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.repository.OfferedServiceSearchRepositoryImpl.SearchQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfferedServiceSearchRepositoryImplTest {
+
+	@Test
+	void unusedFiltersAddNoPredicates() {
+		SearchQuery query = OfferedServiceSearchRepositoryImpl.buildQuery(
+				new ServiceSearchFilter(null, null, null, null, 0.0, null, null));
+
+		assertFalse(query.sql().contains("LIKE"));
+		assertFalse(query.sql().contains("category_id ="));
+		assertFalse(query.sql().contains("lower(p.city) ="));
+		assertFalse(query.sql().contains("pin_code"));
+		assertFalse(query.sql().contains("EXISTS"));
+		assertEquals(Map.of("minRating", 0.0), query.parameters());
+		assertTrue(query.sql().endsWith("ORDER BY p.rating DESC, s.id ASC"));
+	}
+
+	@Test
+	void textSearchMatchesTheTrigramIndexExpressions() {
+		SearchQuery query = OfferedServiceSearchRepositoryImpl.buildQuery(
+				new ServiceSearchFilter("%hair%", null, null, null, 0.0, null, null));
+
+		// must stay in step with the indexes created by DatabaseSchemaInitializer
+		assertTrue(query.sql().contains("lower(coalesce(ts.name, '') || ' ' || coalesce(ts.description, '')) LIKE :pattern"));
+		assertTrue(query.sql().contains("lower(coalesce(sp.specialization, '')) LIKE :pattern"));
+		assertFalse(query.sql().contains(":pattern ="), "no catch-all comparison on the pattern");
+		assertEquals("%hair%", query.parameters().get("pattern"));
+	}
+
+	@Test
+	void everyGivenFilterIsBound() {
+		SearchQuery query = OfferedServiceSearchRepositoryImpl.buildQuery(
+				new ServiceSearchFilter(null, 4L, "pune", "411001", 3.5, 100.0, 500.0));
+
+		assertTrue(query.sql().contains("s.category_id = :categoryId"));
+		assertTrue(query.sql().contains("lower(p.city) = :city"));
+		assertTrue(query.sql().contains("p.pin_code = :pinCode"));
+		assertTrue(query.sql().contains("i.price >= :minPrice AND i.price <= :maxPrice"));
+		assertEquals(Map.of("minRating", 3.5, "categoryId", 4L, "city", "pune", "pinCode", "411001",
+				"minPrice", 100.0, "maxPrice", 500.0), query.parameters());
+	}
+
+	@Test
+	void priceBoundsAreIndependent() {
+		SearchQuery onlyMax = OfferedServiceSearchRepositoryImpl.buildQuery(
+				new ServiceSearchFilter(null, null, null, null, 0.0, null, 200.0));
+
+		assertTrue(onlyMax.sql().contains("EXISTS (SELECT 1 FROM individual_services i WHERE i.offered_service_id = s.id AND i.price <= :maxPrice)"));
+		assertFalse(onlyMax.parameters().containsKey("minPrice"));
+	}
+}
@@ -0,0 +1,123 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.*;
+import com.cw.scheduler.entity.enums.RatingScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The aggregate statements are PostgreSQL upserts, so this runs against the database named by
+ * TEST_POSTGRES_URL (with TEST_POSTGRES_USER and TEST_POSTGRES_PASSWORD) instead of H2.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class RatingAggregateRepositoryTest {
+
+	@Autowired
+	private RatingAggregateRepository ratingAggregateRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private ServiceProvider provider;
+	private OfferedService haircuts;
+	private OfferedService colouring;
+	private User customer;
+
+	@DynamicPropertySource
+	static void postgres(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("TEST_POSTGRES_URL"));
+		registry.add("spring.datasource.username", () -> System.getenv("TEST_POSTGRES_USER"));
+		registry.add("spring.datasource.password", () -> System.getenv("TEST_POSTGRES_PASSWORD"));
+	}
+
+	@BeforeEach
+	void setUp() {
+		User providerUser = entityManager.persist(User.builder().name("Jane").email("jane@example.com").active(true).build());
+		provider = entityManager.persist(ServiceProvider.builder().fullName("Jane Provider").user(providerUser).build());
+		customer = entityManager.persist(User.builder().name("Carl").email("carl@example.com").active(true).build());
+		haircuts = offeredService("Haircuts");
+		colouring = offeredService("Colouring");
+		entityManager.flush();
+	}
+
+	@Test
+	void addRatingCountsEveryStar() {
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), haircuts.getId(), 5);
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), haircuts.getId(), 4);
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), haircuts.getId(), 5);
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), colouring.getId(), 1);
+		entityManager.clear();
+
+		RatingAggregate aggregate = aggregate(RatingScope.SERVICE, haircuts.getId());
+		assertEquals(3, aggregate.getReviewCount());
+		assertEquals(14, aggregate.getRatingSum());
+		assertEquals(0, aggregate.getStars1());
+		assertEquals(1, aggregate.getStars4());
+		assertEquals(2, aggregate.getStars5());
+
+		RatingAggregate other = aggregate(RatingScope.SERVICE, colouring.getId());
+		assertEquals(1, other.getReviewCount());
+		assertEquals(1, other.getStars1());
+		assertTrue(ratingAggregateRepository.findByScopeAndTargetId(RatingScope.PROVIDER, provider.getId()).isEmpty());
+	}
+
+	@Test
+	void rebuildFromReviewsReplacesDriftedTotals() {
+		review(haircuts, 5);
+		review(haircuts, 3);
+		review(colouring, 2);
+		// totals that no longer match the reviews, plus one whose reviews are gone
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), haircuts.getId(), 1);
+		ratingAggregateRepository.addRating(RatingScope.SERVICE.name(), 9999L, 4);
+		entityManager.flush();
+
+		ratingAggregateRepository.lockReviews();
+		ratingAggregateRepository.rebuildFromReviews();
+		ratingAggregateRepository.deleteOrphans();
+		ratingAggregateRepository.refreshAllProviderRatings();
+		entityManager.clear();
+
+		RatingAggregate service = aggregate(RatingScope.SERVICE, haircuts.getId());
+		assertEquals(2, service.getReviewCount());
+		assertEquals(8, service.getRatingSum());
+		assertEquals(0, service.getStars1());
+		assertEquals(1, service.getStars3());
+		assertEquals(1, service.getStars5());
+
+		RatingAggregate providerTotals = aggregate(RatingScope.PROVIDER, provider.getId());
+		assertEquals(3, providerTotals.getReviewCount());
+		assertEquals(10, providerTotals.getRatingSum());
+		assertEquals(1, providerTotals.getStars2());
+
+		assertTrue(ratingAggregateRepository.findByScopeAndTargetId(RatingScope.SERVICE, 9999L).isEmpty());
+		assertEquals(10.0 / 3, entityManager.find(ServiceProvider.class, provider.getId()).getRating(), 1e-9);
+	}
+
+	private OfferedService offeredService(String name) {
+		OfferedService offered = new OfferedService();
+		offered.setName(name);
+		offered.setProvider(provider);
+		return entityManager.persist(offered);
+	}
+
+	private void review(OfferedService service, int rating) {
+		entityManager.persist(new Review(null, customer, service, rating, "review", LocalDateTime.now()));
+	}
+
+	private RatingAggregate aggregate(RatingScope scope, Long targetId) {
+		return ratingAggregateRepository.findByScopeAndTargetId(scope, targetId).orElseThrow();
+	}
+}
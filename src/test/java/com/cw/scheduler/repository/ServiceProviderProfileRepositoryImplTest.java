@@ -0,0 +1,36 @@
+package com.cw.scheduler.repository;
+
+import com.cw.scheduler.entity.enums.ApplicationStatus;
+import com.cw.scheduler.repository.ServiceProviderProfileRepositoryImpl.ProfileQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceProviderProfileRepositoryImplTest {
+
+	@Test
+	void unusedFiltersAddNoPredicates() {
+		ProfileQuery query = ServiceProviderProfileRepositoryImpl.buildQuery(
+				ProviderProfileFilter.of(ApplicationStatus.APPROVED, null, "  "));
+
+		assertFalse(query.jpql().contains(":city"));
+		assertFalse(query.jpql().contains(":specialization"));
+		assertEquals(Map.of("status", ApplicationStatus.APPROVED), query.parameters());
+		assertTrue(query.jpql().endsWith("ORDER BY p.id ASC"));
+	}
+
+	@Test
+	void givenFiltersAreNormalizedAndBound() {
+		ProfileQuery query = ServiceProviderProfileRepositoryImpl.buildQuery(
+				ProviderProfileFilter.of(ApplicationStatus.APPROVED, " Delhi ", "Dentist"));
+
+		// must stay in step with the indexes created by DatabaseSchemaInitializer
+		assertTrue(query.jpql().contains("lower(p.city) = :city"));
+		assertTrue(query.jpql().contains("lower(p.specialization) = :specialization"));
+		assertFalse(query.jpql().contains("= ''"), "no catch-all comparison");
+		assertEquals(Map.of("status", ApplicationStatus.APPROVED, "city", "delhi", "specialization", "dentist"),
+				query.parameters());
+	}
+}
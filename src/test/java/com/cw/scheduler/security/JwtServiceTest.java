@@ -0,0 +1,91 @@
+package com.cw.scheduler.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+	private JwtService jwtService;
+	private UserDetails customer;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService();
+		jwtService.SECRET_KEY = "0123456789abcdef0123456789abcdef0123456789abcdef";
+		jwtService.EXPIRATION_TIME = 60_000;
+		jwtService.REFRESH_EXPIRATION_TIME = 120_000;
+		jwtService.init();
+
+		customer = new User("jane@example.com", "", List.of(
+				new SimpleGrantedAuthority("ROLE_CUSTOMER"),
+				new SimpleGrantedAuthority("APPOINTMENT_BOOK")));
+	}
+
+	@Test
+	void parsesAllClaimsOnce() {
+		String token = jwtService.generateToken(customer, 7L, 3L);
+
+		JwtClaims claims = jwtService.parseToken(token);
+		assertEquals("jane@example.com", claims.username());
+		assertEquals(7L, claims.userId());
+		assertEquals(3L, claims.providerId());
+		assertEquals(List.of("ROLE_CUSTOMER"), claims.roles());
+		assertEquals(List.of("APPOINTMENT_BOOK"), claims.authorities());
+
+		// a repeat request is answered from the verified-token cache
+		assertSame(claims, jwtService.parseToken(token));
+	}
+
+	@Test
+	void missingProviderClaimIsNull() {
+		assertNull(jwtService.parseToken(jwtService.generateToken(customer, 7L, null)).providerId());
+	}
+
+	@Test
+	void tokenSignedWithAnotherKeyIsRejected() {
+		JwtService other = new JwtService();
+		other.SECRET_KEY = "fedcba9876543210fedcba9876543210fedcba9876543210";
+		other.EXPIRATION_TIME = 60_000;
+		other.init();
+		String foreign = other.generateToken(customer, 7L, null);
+
+		assertThrows(JwtException.class, () -> jwtService.parseToken(foreign));
+	}
+
+	@Test
+	void malformedIdClaimIsAnInvalidToken() {
+		String text = Jwts.builder().subject("jane@example.com").claim("userId", "seven")
+				.expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key()).compact();
+		String decimal = Jwts.builder().subject("jane@example.com").claim("userId", 7.5)
+				.expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key()).compact();
+
+		assertThrows(JwtException.class, () -> jwtService.parseToken(text));
+		assertThrows(JwtException.class, () -> jwtService.parseToken(decimal));
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		jwtService.EXPIRATION_TIME = -1_000;
+		String token = jwtService.generateToken(customer, 7L, null);
+
+		assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(token));
+	}
+
+	private SecretKey key() {
+		return Keys.hmacShaKeyFor(jwtService.SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+	}
+}
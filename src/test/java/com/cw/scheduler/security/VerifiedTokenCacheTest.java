@@ -0,0 +1,41 @@
+package com.cw.scheduler.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+	private static final Instant NOW = Instant.parse("2030-01-07T10:00:00Z");
+
+	@Test
+	void entriesExpireWithTheToken() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10, Clock.fixed(NOW, ZoneOffset.UTC));
+		cache.put("live", claims(NOW.plusSeconds(60)));
+		cache.put("dead", claims(NOW));
+
+		assertNotNull(cache.get("live"));
+		assertNull(cache.get("dead"));
+		assertNull(cache.get("unknown"));
+	}
+
+	@Test
+	void staysWithinItsBound() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, Clock.fixed(NOW, ZoneOffset.UTC));
+		for (int i = 0; i < 1_000; i++) {
+			cache.put("token-" + i, claims(NOW.plusSeconds(60)));
+		}
+
+		assertTrue(cache.size() <= 100);
+		assertNotNull(cache.get("token-999"));
+	}
+
+	private static JwtClaims claims(Instant expiresAt) {
+		return new JwtClaims("jane@example.com", 7L, null, List.of("ROLE_CUSTOMER"), List.of(), expiresAt);
+	}
+}
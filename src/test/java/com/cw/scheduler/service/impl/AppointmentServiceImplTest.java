@@ -0,0 +1,178 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.availability.AvailabilityInvalidationChannel;
+import com.cw.scheduler.cache.AppointmentCacheCoordinator;
+import com.cw.scheduler.cache.CacheDependencyTracker;
+import com.cw.scheduler.dto.request.AppointmentRequestDTO;
+import com.cw.scheduler.entity.*;
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.exception.BadRequestException;
+import com.cw.scheduler.exception.ScheduleConflictException;
+import com.cw.scheduler.outbox.OutboxDispatcher;
+import com.cw.scheduler.reminder.AppointmentReminderScheduler;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.repository.IndividualServiceRepository;
+import com.cw.scheduler.repository.ProviderScheduleOverrideRepository;
+import com.cw.scheduler.repository.ProviderScheduleRepository;
+import com.cw.scheduler.repository.ServiceProviderRepository;
+import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.service.interfaces.AvailabilityService;
+import com.cw.scheduler.service.interfaces.OutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AppointmentServiceImplTest {
+
+	private static final Long PROVIDER_ID = 7L;
+	private static final LocalDateTime NINE_AM = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final IndividualServiceRepository individualServiceRepository = mock(IndividualServiceRepository.class);
+	private final AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
+	private final OutboxService outboxService = mock(OutboxService.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	private final ServiceProvider provider = ServiceProvider.builder().id(PROVIDER_ID).build();
+	private final IndividualService haircut = new IndividualService();
+
+	@BeforeEach
+	void setUp() {
+		OfferedService offered = new OfferedService();
+		offered.setProvider(provider);
+		haircut.setId(3L);
+		haircut.setDurationMinutes(30);
+		haircut.setOfferedService(offered);
+
+		when(individualServiceRepository.findById(3L)).thenReturn(Optional.of(haircut));
+		when(authenticationFacade.getCurrentUser()).thenReturn(User.builder().id(5L).build());
+		when(transactionTemplate.execute(any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void concurrentBookingsOfOneProviderNeverOverlap() throws Exception {
+		// the real availability index over mocked repositories: Mondays 09:00-17:00, nothing booked yet
+		ProviderScheduleRepository scheduleRepository = mock(ProviderScheduleRepository.class);
+		ProviderSchedule monday = new ProviderSchedule();
+		monday.setDayOfWeek(DayOfWeek.MONDAY);
+		monday.setStartTime(LocalTime.of(9, 0));
+		monday.setEndTime(LocalTime.of(17, 0));
+		monday.setStatus(AvailabilityStatus.AVAILABLE);
+		when(scheduleRepository.findByProviderId(PROVIDER_ID)).thenReturn(List.of(monday));
+		AppointmentServiceImpl service = service(new AvailabilityServiceImpl(
+				scheduleRepository, appointmentRepository, mock(ProviderScheduleOverrideRepository.class),
+				mock(AvailabilityInvalidationChannel.class), Duration.ofMinutes(5)));
+
+		AtomicLong ids = new AtomicLong();
+		List<Appointment> saved = Collections.synchronizedList(new ArrayList<>());
+		when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenAnswer(invocation -> {
+			Appointment appointment = invocation.getArgument(0);
+			// widen the window between the availability check and the insert
+			Thread.yield();
+			appointment.setId(ids.incrementAndGet());
+			saved.add(appointment);
+			return appointment;
+		});
+
+		int threads = 16;
+		int attemptsPerThread = 40;
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < attemptsPerThread; i++) {
+					// 30-minute bookings at any 5-minute offset of the day, so most attempts collide
+					AppointmentRequestDTO request = new AppointmentRequestDTO();
+					request.setIndividualServiceId(3L);
+					request.setAppointmentTime(NINE_AM.plusMinutes(5L * random.nextInt(90)));
+					try {
+						service.bookAppointmentAndReturnEntity(request);
+					} catch (BadRequestException e) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		try {
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertFalse(saved.isEmpty());
+		assertEquals(threads * attemptsPerThread, saved.size() + rejected.get());
+		verify(outboxService, times(saved.size())).enqueue(eq(OutboxEventType.APPOINTMENT_BOOKED), anyLong(), anyLong());
+
+		List<Appointment> sorted = new ArrayList<>(saved);
+		sorted.sort(Comparator.comparing(Appointment::getAppointmentTime));
+		for (int i = 1; i < sorted.size(); i++) {
+			assertFalse(sorted.get(i).getAppointmentTime().isBefore(sorted.get(i - 1).getAppointmentEndTime()),
+					"overlapping bookings at " + sorted.get(i).getAppointmentTime());
+		}
+	}
+
+	@Test
+	void overlapRejectedByTheDatabaseIsAScheduleConflict() {
+		AvailabilityService availabilityService = mock(AvailabilityService.class);
+		AppointmentServiceImpl service = service(availabilityService);
+		when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+				new SQLException("conflicting key value violates exclusion constraint \"appointments_provider_no_overlap\"", "23P01")));
+
+		assertThrows(ScheduleConflictException.class, () -> service.bookAppointmentAndReturnEntity(request()));
+		// booked through another node, so the local index is rebuilt
+		verify(availabilityService).invalidate(PROVIDER_ID);
+	}
+
+	@Test
+	void otherIntegrityViolationsAreNotScheduleConflicts() {
+		AvailabilityService availabilityService = mock(AvailabilityService.class);
+		AppointmentServiceImpl service = service(availabilityService);
+		when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+				new SQLException("insert or update violates foreign key constraint \"fk_appointments_user\"", "23503")));
+
+		assertThrows(DataIntegrityViolationException.class, () -> service.bookAppointmentAndReturnEntity(request()));
+		verify(availabilityService, never()).invalidate(anyLong());
+	}
+
+	private AppointmentRequestDTO request() {
+		AppointmentRequestDTO request = new AppointmentRequestDTO();
+		request.setIndividualServiceId(3L);
+		request.setAppointmentTime(NINE_AM);
+		return request;
+	}
+
+	private AppointmentServiceImpl service(AvailabilityService availabilityService) {
+		return new AppointmentServiceImpl(appointmentRepository, individualServiceRepository,
+				mock(ServiceProviderRepository.class), availabilityService, authenticationFacade, outboxService,
+				mock(OutboxDispatcher.class), mock(AppointmentReminderScheduler.class), transactionTemplate,
+				mock(CacheDependencyTracker.class), mock(AppointmentCacheCoordinator.class), new ObjectMapper());
+	}
+}
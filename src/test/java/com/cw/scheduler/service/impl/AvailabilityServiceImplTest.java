@@ -0,0 +1,105 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.availability.AvailabilityInvalidationChannel;
+import com.cw.scheduler.entity.Appointment;
+import com.cw.scheduler.entity.IndividualService;
+import com.cw.scheduler.entity.ProviderSchedule;
+import com.cw.scheduler.entity.ServiceProvider;
+import com.cw.scheduler.entity.enums.AppointmentStatus;
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import com.cw.scheduler.repository.AppointmentRepository;
+import com.cw.scheduler.repository.ProviderScheduleOverrideRepository;
+import com.cw.scheduler.repository.ProviderScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceImplTest {
+
+	private static final Long PROVIDER_ID = 7L;
+	private static final LocalDateTime NINE_AM = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+	private final ProviderScheduleRepository scheduleRepository = mock(ProviderScheduleRepository.class);
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final AvailabilityInvalidationChannel channel = mock(AvailabilityInvalidationChannel.class);
+
+	@BeforeEach
+	void setUp() {
+		when(scheduleRepository.findByProviderId(PROVIDER_ID)).thenReturn(List.of(monday(9, 17)));
+	}
+
+	@Test
+	void localChangesArePublishedToTheOtherNodes() {
+		AvailabilityServiceImpl service = service(Duration.ofMinutes(5));
+
+		service.onAppointmentChanged(appointment(AppointmentStatus.CONFIRMED));
+		service.refreshSchedule(PROVIDER_ID);
+
+		verify(channel, times(2)).publish(PROVIDER_ID);
+	}
+
+	@Test
+	void changeOnAnotherNodeReloadsTheIndex() {
+		AvailabilityServiceImpl service = service(Duration.ofMinutes(5));
+		ArgumentCaptor<LongConsumer> listener = ArgumentCaptor.forClass(LongConsumer.class);
+		service.subscribeToRemoteChanges();
+		verify(channel).subscribe(listener.capture());
+		assertTrue(service.isAvailableAt(PROVIDER_ID, NINE_AM, 30));
+
+		// the schedule was narrowed through another node
+		when(scheduleRepository.findByProviderId(PROVIDER_ID)).thenReturn(List.of(monday(12, 17)));
+		assertTrue(service.isAvailableAt(PROVIDER_ID, NINE_AM, 30));
+		listener.getValue().accept(PROVIDER_ID);
+
+		assertFalse(service.isAvailableAt(PROVIDER_ID, NINE_AM, 30));
+	}
+
+	@Test
+	void indexOlderThanTheMaxAgeIsReloaded() {
+		AvailabilityServiceImpl service = service(Duration.ZERO);
+		assertTrue(service.isAvailableAt(PROVIDER_ID, NINE_AM, 30));
+
+		// an invalidation that never arrived
+		when(scheduleRepository.findByProviderId(PROVIDER_ID)).thenReturn(List.of(monday(12, 17)));
+
+		assertFalse(service.isAvailableAt(PROVIDER_ID, NINE_AM, 30));
+		verify(appointmentRepository, times(2)).findBookedIntervals(any(), any());
+	}
+
+	private AvailabilityServiceImpl service(Duration maxAge) {
+		return new AvailabilityServiceImpl(scheduleRepository, appointmentRepository,
+				mock(ProviderScheduleOverrideRepository.class), channel, maxAge);
+	}
+
+	private Appointment appointment(AppointmentStatus status) {
+		IndividualService service = new IndividualService();
+		service.setDurationMinutes(30);
+		Appointment appointment = new Appointment();
+		appointment.setId(1L);
+		appointment.setProvider(ServiceProvider.builder().id(PROVIDER_ID).build());
+		appointment.setIndividualService(service);
+		appointment.setAppointmentTime(NINE_AM);
+		appointment.setStatus(status);
+		return appointment;
+	}
+
+	private static ProviderSchedule monday(int startHour, int endHour) {
+		ProviderSchedule schedule = new ProviderSchedule();
+		schedule.setDayOfWeek(DayOfWeek.MONDAY);
+		schedule.setStartTime(LocalTime.of(startHour, 0));
+		schedule.setEndTime(LocalTime.of(endHour, 0));
+		schedule.setStatus(AvailabilityStatus.AVAILABLE);
+		return schedule;
+	}
+}
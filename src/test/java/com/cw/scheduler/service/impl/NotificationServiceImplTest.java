@@ -0,0 +1,211 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.dto.response.CursorPageResponseDTO;
+import com.cw.scheduler.dto.response.NotificationInboxResponseDTO;
+import com.cw.scheduler.dto.response.NotificationResponseDTO;
+import com.cw.scheduler.dto.response.NotificationTypeCountDTO;
+import com.cw.scheduler.entity.enums.NotificationType;
+import com.cw.scheduler.exception.BadRequestException;
+import com.cw.scheduler.notification.InboxSnapshot;
+import com.cw.scheduler.notification.NotificationInboxStore;
+import com.cw.scheduler.notification.NotificationWriteBehindQueue;
+import com.cw.scheduler.repository.NotificationRepository;
+import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.strategy.notification.NotificationContext;
+import com.cw.scheduler.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceImplTest {
+
+	private static final Long USER_ID = 5L;
+	private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
+	private final NotificationInboxStore inboxStore = mock(NotificationInboxStore.class);
+
+	private final NotificationServiceImpl service = new NotificationServiceImpl(mock(NotificationContext.class),
+			notificationRepository, authenticationFacade, mock(NotificationWriteBehindQueue.class), inboxStore);
+
+	@BeforeEach
+	void setUp() {
+		when(authenticationFacade.getCurrentUserId()).thenReturn(USER_ID);
+	}
+
+	@Test
+	void firstPageIsServedFromTheCachedInbox() {
+		when(inboxStore.load(USER_ID)).thenReturn(new InboxSnapshot(2, notifications(3, 2, 1)));
+
+		NotificationInboxResponseDTO inbox = service.getInbox(null, 2).getData();
+
+		assertEquals(2, inbox.getUnreadCount());
+		assertEquals(List.of(3L, 2L), ids(inbox.getItems()));
+		assertTrue(inbox.isHasNext());
+		assertEquals(new KeysetCursor(NOON.plusMinutes(2), 2L), KeysetCursor.decode(inbox.getNextCursor()));
+		verifyNoDatabaseReads();
+	}
+
+	@Test
+	void lastCachedPageHasNoCursor() {
+		when(inboxStore.load(USER_ID)).thenReturn(new InboxSnapshot(0, notifications(2, 1)));
+
+		NotificationInboxResponseDTO inbox = service.getInbox(null, 5).getData();
+
+		assertEquals(List.of(2L, 1L), ids(inbox.getItems()));
+		assertFalse(inbox.isHasNext());
+		assertNull(inbox.getNextCursor());
+	}
+
+	@Test
+	void missingInboxIsRebuiltAgainstTheVersionReadBeforeTheQuery() {
+		List<String> calls = new ArrayList<>();
+		when(inboxStore.load(USER_ID)).thenReturn(null);
+		when(inboxStore.version(USER_ID)).thenAnswer(invocation -> {
+			calls.add("version");
+			return "4";
+		});
+		when(notificationRepository.countByUserIdAndReadAtIsNull(USER_ID)).thenAnswer(invocation -> {
+			calls.add("count");
+			return 7L;
+		});
+		when(notificationRepository.findInboxPageBefore(eq(USER_ID), any(), anyLong(), any())).thenAnswer(invocation -> {
+			calls.add("page");
+			return notifications(3, 2, 1);
+		});
+
+		NotificationInboxResponseDTO inbox = service.getInbox(null, 10).getData();
+
+		assertEquals(List.of("version", "count", "page"), calls);
+		ArgumentCaptor<InboxSnapshot> installed = ArgumentCaptor.forClass(InboxSnapshot.class);
+		verify(inboxStore).install(eq(USER_ID), eq("4"), installed.capture());
+		assertEquals(7, installed.getValue().unreadCount());
+		assertEquals(List.of(3L, 2L, 1L), ids(installed.getValue().recent()));
+		ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+		verify(notificationRepository).findInboxPageBefore(eq(USER_ID), any(), anyLong(), page.capture());
+		assertEquals(NotificationInboxStore.RING_SIZE, page.getValue().getPageSize());
+
+		assertEquals(7, inbox.getUnreadCount());
+		assertEquals(List.of(3L, 2L, 1L), ids(inbox.getItems()));
+	}
+
+	@Test
+	void olderPagesAreReadByKeysetAfterTheCursor() {
+		when(inboxStore.load(USER_ID)).thenReturn(new InboxSnapshot(1, notifications(9, 8)));
+		String cursor = new KeysetCursor(NOON.plusMinutes(8), 8L).encode();
+		when(notificationRepository.findInboxPageBefore(eq(USER_ID), eq(NOON.plusMinutes(8)), eq(8L), any()))
+				.thenReturn(notifications(7, 6, 5));
+
+		NotificationInboxResponseDTO inbox = service.getInbox(cursor, 2).getData();
+
+		// one row more than asked for tells whether another page follows
+		ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+		verify(notificationRepository).findInboxPageBefore(eq(USER_ID), eq(NOON.plusMinutes(8)), eq(8L), page.capture());
+		assertEquals(3, page.getValue().getPageSize());
+		assertEquals(1, inbox.getUnreadCount());
+		assertEquals(List.of(7L, 6L), ids(inbox.getItems()));
+		assertEquals(new KeysetCursor(NOON.plusMinutes(6), 6L), KeysetCursor.decode(inbox.getNextCursor()));
+	}
+
+	@Test
+	void pagesLargerThanTheRingAreReadFromTheDatabase() {
+		when(inboxStore.load(USER_ID)).thenReturn(new InboxSnapshot(0, notifications(2, 1)));
+		when(notificationRepository.findInboxPageBefore(eq(USER_ID), any(), anyLong(), any())).thenReturn(notifications(2, 1));
+
+		service.getInbox(null, NotificationInboxStore.RING_SIZE);
+
+		verify(notificationRepository).findInboxPageBefore(eq(USER_ID), any(), eq(Long.MAX_VALUE), any());
+	}
+
+	@Test
+	void readingANotificationDropsTheCachedInbox() {
+		when(notificationRepository.existsByIdAndUserId(3L, USER_ID)).thenReturn(true);
+		when(notificationRepository.markRead(eq(3L), eq(USER_ID), any())).thenReturn(1);
+
+		service.markAsRead(3L);
+
+		verify(inboxStore).invalidate(USER_ID);
+	}
+
+	@Test
+	void nothingNewlyReadKeepsTheCachedInbox() {
+		when(notificationRepository.existsByIdAndUserId(3L, USER_ID)).thenReturn(true);
+		when(notificationRepository.markRead(eq(3L), eq(USER_ID), any())).thenReturn(0);
+		when(notificationRepository.markAllRead(eq(USER_ID), any())).thenReturn(0);
+
+		service.markAsRead(3L);
+		service.markAllAsRead();
+
+		verify(inboxStore, never()).invalidate(anyLong());
+	}
+
+	@Test
+	void typedPageIsQueriedWithTheEnum() {
+		when(notificationRepository.findTypePageBefore(eq(USER_ID), eq(NotificationType.APPOINTMENT_REMINDER), any(), anyLong(), any()))
+				.thenReturn(notifications(4, 3));
+
+		CursorPageResponseDTO<NotificationResponseDTO> page =
+				service.getNotificationsForUserByType(NotificationType.APPOINTMENT_REMINDER, null, 1).getData();
+
+		verify(notificationRepository).findTypePageBefore(eq(USER_ID), eq(NotificationType.APPOINTMENT_REMINDER),
+				any(), eq(Long.MAX_VALUE), any());
+		assertEquals(List.of(4L), ids(page.getItems()));
+		assertTrue(page.isHasNext());
+	}
+
+	@Test
+	void summaryReportsZeroForTypesNeverReceived() {
+		when(notificationRepository.countByType(USER_ID)).thenReturn(List.of(
+				new NotificationTypeCountDTO(NotificationType.APPOINTMENT_REMINDER, 3L, 1L)));
+
+		List<NotificationTypeCountDTO> summary = service.getNotificationSummary().getData();
+
+		assertEquals(NotificationType.values().length, summary.size());
+		for (NotificationTypeCountDTO count : summary) {
+			if (count.getType() == NotificationType.APPOINTMENT_REMINDER) {
+				assertEquals(3L, count.getTotal());
+				assertEquals(1L, count.getUnread());
+			} else {
+				assertEquals(new NotificationTypeCountDTO(count.getType(), 0L, 0L), count);
+			}
+		}
+		assertEquals(List.of(NotificationType.values()), summary.stream().map(NotificationTypeCountDTO::getType).toList());
+	}
+
+	@Test
+	void pageSizeIsBounded() {
+		assertThrows(BadRequestException.class, () -> service.getInbox(null, 0));
+		assertThrows(BadRequestException.class, () -> service.getInbox(null, 101));
+	}
+
+	private void verifyNoDatabaseReads() {
+		verify(notificationRepository, never()).countByUserIdAndReadAtIsNull(anyLong());
+		verify(notificationRepository, never()).findInboxPageBefore(anyLong(), any(), anyLong(), any());
+		verify(inboxStore, never()).install(anyLong(), any(), any());
+	}
+
+	private static List<NotificationResponseDTO> notifications(long... ids) {
+		List<NotificationResponseDTO> notifications = new ArrayList<>();
+		for (long id : ids) {
+			notifications.add(new NotificationResponseDTO(id, "message " + id, NOON.plusMinutes(id),
+					NotificationType.APPOINTMENT_REMINDER, false));
+		}
+		return notifications;
+	}
+
+	private static List<Long> ids(List<NotificationResponseDTO> notifications) {
+		return notifications.stream().map(NotificationResponseDTO::getId).toList();
+	}
+}
@@ -0,0 +1,53 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.entity.enums.OutboxEventType;
+import com.cw.scheduler.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OutboxServiceImplTest {
+
+	private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+	private final OutboxServiceImpl outboxService = new OutboxServiceImpl(outboxEventRepository);
+
+	// the keys in outbox_events, with its unique index
+	private final List<String> recorded = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(outboxEventRepository.insertIfAbsent(anyString(), anyString(), anyLong(), any())).thenAnswer(invocation -> {
+			String key = invocation.getArgument(0);
+			if (recorded.contains(key)) {
+				return 0;
+			}
+			recorded.add(key);
+			return 1;
+		});
+	}
+
+	@Test
+	void sameTransitionIsRecordedOnce() {
+		outboxService.enqueue(OutboxEventType.APPOINTMENT_CANCELLED, 42L, 3L);
+		outboxService.enqueue(OutboxEventType.APPOINTMENT_CANCELLED, 42L, 3L);
+
+		assertEquals(List.of("APPOINTMENT_CANCELLED:42:3"), recorded);
+	}
+
+	@Test
+	void cancellingAgainAfterReactivationIsRecordedAgain() {
+		// cancelled at version 3, reactivated at version 4, cancelled again at version 5
+		outboxService.enqueue(OutboxEventType.APPOINTMENT_CANCELLED, 42L, 3L);
+		outboxService.enqueue(OutboxEventType.APPOINTMENT_CANCELLED, 42L, 5L);
+
+		assertEquals(List.of("APPOINTMENT_CANCELLED:42:3", "APPOINTMENT_CANCELLED:42:5"), recorded);
+	}
+}
@@ -0,0 +1,243 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.cache.CachePrefixEvictor;
+import com.cw.scheduler.dto.request.BulkScheduleRequestDTO;
+import com.cw.scheduler.dto.request.ProviderScheduleRequestDTO;
+import com.cw.scheduler.dto.response.ProviderScheduleResponseDTO;
+import com.cw.scheduler.entity.OfferedService;
+import com.cw.scheduler.entity.ProviderSchedule;
+import com.cw.scheduler.entity.ServiceProvider;
+import com.cw.scheduler.entity.User;
+import com.cw.scheduler.entity.enums.AvailabilityStatus;
+import com.cw.scheduler.exception.BadRequestException;
+import com.cw.scheduler.exception.ResourceNotFoundException;
+import com.cw.scheduler.repository.IndividualServiceRepository;
+import com.cw.scheduler.repository.OfferedServiceRepository;
+import com.cw.scheduler.repository.ProviderScheduleOverrideRepository;
+import com.cw.scheduler.repository.ProviderScheduleRepository;
+import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.service.interfaces.AvailabilityService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProviderScheduleServiceImplTest {
+
+	private static final Long PROVIDER_ID = 7L;
+
+	private final ProviderScheduleRepository scheduleRepository = mock(ProviderScheduleRepository.class);
+	private final OfferedServiceRepository offeredServiceRepository = mock(OfferedServiceRepository.class);
+	private final AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
+	private final AvailabilityService availabilityService = mock(AvailabilityService.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final CacheManager cacheManager = mock(CacheManager.class);
+	private final CachePrefixEvictor cachePrefixEvictor = mock(CachePrefixEvictor.class);
+	private final Cache allSchedulesByDay = mock(Cache.class);
+	private final Session session = mock(Session.class);
+
+	private final ServiceProvider provider = ServiceProvider.builder().id(PROVIDER_ID).build();
+	private final Map<Long, OfferedService> services = new HashMap<>();
+	private final List<ProviderSchedule> existing = new ArrayList<>();
+
+	private ProviderScheduleServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		services.put(1L, offeredService(1L, "Haircut", provider));
+		services.put(2L, offeredService(2L, "Colouring", provider));
+		services.put(3L, offeredService(3L, "Someone else's", ServiceProvider.builder().id(8L).build()));
+
+		when(authenticationFacade.getCurrentUser()).thenReturn(User.builder().id(5L).serviceProvider(provider).build());
+		when(offeredServiceRepository.findAllById(any())).thenAnswer(invocation -> {
+			List<OfferedService> found = new ArrayList<>();
+			for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+				if (services.containsKey(id)) {
+					found.add(services.get(id));
+				}
+			}
+			return found;
+		});
+		when(scheduleRepository.findByProviderId(PROVIDER_ID)).thenReturn(existing);
+		when(scheduleRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(transactionTemplate.execute(any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(cacheManager.getCache("allSchedulesByDay")).thenReturn(allSchedulesByDay);
+
+		service = new ProviderScheduleServiceImpl(scheduleRepository, offeredServiceRepository, authenticationFacade,
+				availabilityService, mock(ProviderScheduleOverrideRepository.class), mock(IndividualServiceRepository.class),
+				transactionTemplate, cacheManager, cachePrefixEvictor);
+		EntityManager entityManager = mock(EntityManager.class);
+		when(entityManager.unwrap(Session.class)).thenReturn(session);
+		Field field = ProviderScheduleServiceImpl.class.getDeclaredField("entityManager");
+		field.setAccessible(true);
+		field.set(service, entityManager);
+	}
+
+	@Test
+	void overlapWithAKeptWindowIsRejected() {
+		existing.add(schedule(1L, DayOfWeek.MONDAY, 9, 12));
+
+		BulkScheduleRequestDTO request = request(false, entry(1L, DayOfWeek.MONDAY, 11, 13));
+
+		BadRequestException e = assertThrows(BadRequestException.class, () -> service.saveWeeklySchedule(request));
+		assertTrue(e.getMessage().contains("09:00-12:00"), e.getMessage());
+		verifyNothingWritten();
+	}
+
+	@Test
+	void replacedWindowsDoNotCountAsOverlaps() {
+		existing.add(schedule(1L, DayOfWeek.MONDAY, 9, 12));
+
+		service.saveWeeklySchedule(request(true, entry(1L, DayOfWeek.MONDAY, 11, 13)));
+
+		verify(scheduleRepository).deleteAllInBatch(existing);
+		verify(scheduleRepository).saveAll(anyList());
+	}
+
+	@Test
+	void overlapsWithinTheRequestAreRejected() {
+		BulkScheduleRequestDTO request = request(true,
+				entry(1L, DayOfWeek.TUESDAY, 14, 17),
+				entry(1L, DayOfWeek.TUESDAY, 9, 12),
+				entry(1L, DayOfWeek.TUESDAY, 11, 15));
+
+		assertThrows(BadRequestException.class, () -> service.saveWeeklySchedule(request));
+		verifyNothingWritten();
+	}
+
+	@Test
+	void backToBackWindowsAndOtherServicesAtTheSameTimeAreFine() {
+		List<ProviderScheduleResponseDTO> saved = service.saveWeeklySchedule(request(true,
+				entry(1L, DayOfWeek.TUESDAY, 9, 12),
+				entry(1L, DayOfWeek.TUESDAY, 12, 15),
+				entry(2L, DayOfWeek.TUESDAY, 9, 15))).getData();
+
+		assertEquals(3, saved.size());
+	}
+
+	@Test
+	void servicesOfAnotherProviderAreRejected() {
+		BulkScheduleRequestDTO request = request(true,
+				entry(1L, DayOfWeek.MONDAY, 9, 12),
+				entry(3L, DayOfWeek.MONDAY, 9, 12));
+
+		assertThrows(BadRequestException.class, () -> service.saveWeeklySchedule(request));
+		verifyNothingWritten();
+	}
+
+	@Test
+	void unknownServicesAreRejected() {
+		BulkScheduleRequestDTO request = request(true, entry(42L, DayOfWeek.MONDAY, 9, 12));
+
+		assertThrows(ResourceNotFoundException.class, () -> service.saveWeeklySchedule(request));
+		verifyNothingWritten();
+	}
+
+	@Test
+	void invalidEntryIsReportedByIndex() {
+		BulkScheduleRequestDTO request = request(true,
+				entry(1L, DayOfWeek.MONDAY, 9, 12),
+				entry(1L, DayOfWeek.MONDAY, 15, 13));
+
+		BadRequestException e = assertThrows(BadRequestException.class, () -> service.saveWeeklySchedule(request));
+		assertTrue(e.getMessage().startsWith("Entry 1: "), e.getMessage());
+		verifyNothingWritten();
+	}
+
+	@Test
+	void replaceSwapsOnlyTheNamedServicesInOneBatchedTransaction() {
+		ProviderSchedule oldMonday = schedule(1L, DayOfWeek.MONDAY, 9, 17);
+		ProviderSchedule oldTuesday = schedule(1L, DayOfWeek.TUESDAY, 9, 17);
+		ProviderSchedule otherService = schedule(2L, DayOfWeek.WEDNESDAY, 9, 17);
+		existing.addAll(List.of(oldMonday, oldTuesday, otherService));
+
+		service.saveWeeklySchedule(request(true,
+				entry(1L, DayOfWeek.MONDAY, 10, 14),
+				entry(1L, DayOfWeek.FRIDAY, 10, 14)));
+
+		verify(transactionTemplate, times(1)).execute(any());
+		verify(scheduleRepository).deleteAllInBatch(List.of(oldMonday, oldTuesday));
+		verify(session).setJdbcBatchSize(anyInt());
+		ArgumentCaptor<List> saved = ArgumentCaptor.forClass(List.class);
+		verify(scheduleRepository).saveAll(saved.capture());
+		assertEquals(2, saved.getValue().size());
+
+		verify(availabilityService).refreshSchedule(PROVIDER_ID);
+		verify(cachePrefixEvictor).evictByPrefix("providerDaySchedules", PROVIDER_ID + "-");
+		// the days that lost or gained a window, not the untouched Wednesday
+		verify(allSchedulesByDay).evict(DayOfWeek.MONDAY);
+		verify(allSchedulesByDay).evict(DayOfWeek.TUESDAY);
+		verify(allSchedulesByDay).evict(DayOfWeek.FRIDAY);
+		verify(allSchedulesByDay, never()).evict(DayOfWeek.WEDNESDAY);
+	}
+
+	@Test
+	void addingKeepsTheExistingWindows() {
+		existing.add(schedule(1L, DayOfWeek.MONDAY, 9, 12));
+
+		service.saveWeeklySchedule(request(false, entry(1L, DayOfWeek.MONDAY, 13, 17)));
+
+		verify(scheduleRepository, never()).deleteAllInBatch(any());
+		verify(scheduleRepository).saveAll(anyList());
+	}
+
+	private void verifyNothingWritten() {
+		verify(transactionTemplate, never()).execute(any());
+		verify(scheduleRepository, never()).deleteAllInBatch(any());
+		verify(scheduleRepository, never()).saveAll(anyList());
+		verify(availabilityService, never()).refreshSchedule(any());
+	}
+
+	private static OfferedService offeredService(Long id, String name, ServiceProvider owner) {
+		OfferedService offered = new OfferedService();
+		offered.setId(id);
+		offered.setName(name);
+		offered.setProvider(owner);
+		return offered;
+	}
+
+	private ProviderSchedule schedule(Long serviceId, DayOfWeek day, int startHour, int endHour) {
+		ProviderSchedule schedule = new ProviderSchedule();
+		schedule.setProvider(provider);
+		schedule.setService(services.get(serviceId));
+		schedule.setDayOfWeek(day);
+		schedule.setStartTime(LocalTime.of(startHour, 0));
+		schedule.setEndTime(LocalTime.of(endHour, 0));
+		schedule.setStatus(AvailabilityStatus.AVAILABLE);
+		return schedule;
+	}
+
+	private static ProviderScheduleRequestDTO entry(Long serviceId, DayOfWeek day, int startHour, int endHour) {
+		ProviderScheduleRequestDTO entry = new ProviderScheduleRequestDTO();
+		entry.setOfferedServiceId(serviceId);
+		entry.setDayOfWeek(day);
+		entry.setStartTime(LocalTime.of(startHour, 0));
+		entry.setEndTime(LocalTime.of(endHour, 0));
+		entry.setStatus(AvailabilityStatus.AVAILABLE);
+		return entry;
+	}
+
+	private static BulkScheduleRequestDTO request(boolean replaceExisting, ProviderScheduleRequestDTO... entries) {
+		BulkScheduleRequestDTO request = new BulkScheduleRequestDTO();
+		request.setReplaceExisting(replaceExisting);
+		request.setEntries(List.of(entries));
+		return request;
+	}
+}
@@ -0,0 +1,128 @@
+package com.cw.scheduler.service.impl;
+
+import com.cw.scheduler.cache.CachePrefixEvictor;
+import com.cw.scheduler.dto.request.ReviewRequestDTO;
+import com.cw.scheduler.dto.response.ReviewResponseDTO;
+import com.cw.scheduler.entity.OfferedService;
+import com.cw.scheduler.entity.Review;
+import com.cw.scheduler.entity.ServiceProvider;
+import com.cw.scheduler.entity.User;
+import com.cw.scheduler.exception.ResourceNotFoundException;
+import com.cw.scheduler.repository.OfferedServiceRepository;
+import com.cw.scheduler.repository.ReviewRepository;
+import com.cw.scheduler.repository.ServiceProviderRepository;
+import com.cw.scheduler.security.AuthenticationFacade;
+import com.cw.scheduler.service.interfaces.RatingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReviewServiceImplTest {
+
+	private final ReviewRepository reviewRepository = mock(ReviewRepository.class);
+	private final AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
+	private final OfferedServiceRepository offeredServiceRepository = mock(OfferedServiceRepository.class);
+	private final RatingService ratingService = mock(RatingService.class);
+	private final CachePrefixEvictor cachePrefixEvictor = mock(CachePrefixEvictor.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	private final ReviewServiceImpl service = new ReviewServiceImpl(reviewRepository, authenticationFacade,
+			offeredServiceRepository, mock(ServiceProviderRepository.class), ratingService, cachePrefixEvictor,
+			transactionTemplate);
+
+	private final AtomicBoolean inTransaction = new AtomicBoolean();
+	private final OfferedService haircuts = new OfferedService();
+
+	@BeforeEach
+	void setUp() {
+		haircuts.setId(3L);
+		haircuts.setName("Haircuts");
+		haircuts.setProvider(ServiceProvider.builder().id(7L).build());
+
+		when(authenticationFacade.getCurrentUser()).thenReturn(User.builder().id(5L).name("Carl").build());
+		when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+			inTransaction.set(true);
+			try {
+				return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+			} finally {
+				inTransaction.set(false);
+			}
+		});
+		when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+			assertTrue(inTransaction.get(), "review saved outside the transaction");
+			Review review = invocation.getArgument(0);
+			review.setId(11L);
+			return review;
+		});
+		doAnswer(invocation -> {
+			assertTrue(inTransaction.get(), "rating recorded outside the review's transaction");
+			return null;
+		}).when(ratingService).recordRating(any(), any(), anyInt());
+	}
+
+	@Test
+	void reviewAndRatingsAreWrittenTogether() {
+		when(offeredServiceRepository.findById(3L)).thenReturn(Optional.of(haircuts));
+
+		ReviewResponseDTO response = service.createReview(request(4)).getData();
+
+		ArgumentCaptor<Review> saved = ArgumentCaptor.forClass(Review.class);
+		verify(reviewRepository).save(saved.capture());
+		assertEquals(4, saved.getValue().getRating());
+		assertEquals(5L, saved.getValue().getUser().getId());
+		assertSame(haircuts, saved.getValue().getService());
+		assertNotNull(saved.getValue().getCreatedAt());
+		verify(ratingService).recordRating(3L, 7L, 4);
+
+		assertEquals(11L, response.getId());
+		assertEquals("Carl", response.getUserName());
+		assertEquals("Haircuts", response.getServiceName());
+		assertEquals(4, response.getRating());
+	}
+
+	@Test
+	void cachedListingsOfTheServiceAndTheUserAreEvicted() {
+		when(offeredServiceRepository.findById(3L)).thenReturn(Optional.of(haircuts));
+
+		service.createReview(request(5));
+
+		verify(cachePrefixEvictor).evictByPrefix("serviceReviews", "3:");
+		verify(cachePrefixEvictor).evictByPrefix("userReviews", "5:");
+	}
+
+	@Test
+	void serviceWithoutProviderOnlyRatesTheService() {
+		haircuts.setProvider(null);
+		when(offeredServiceRepository.findById(3L)).thenReturn(Optional.of(haircuts));
+
+		service.createReview(request(2));
+
+		verify(ratingService).recordRating(3L, null, 2);
+	}
+
+	@Test
+	void unknownServiceIsRejectedBeforeAnyWrite() {
+		when(offeredServiceRepository.findById(3L)).thenReturn(Optional.empty());
+
+		assertThrows(ResourceNotFoundException.class, () -> service.createReview(request(5)));
+		verify(reviewRepository, never()).save(any(Review.class));
+		verify(ratingService, never()).recordRating(any(), any(), anyInt());
+	}
+
+	private ReviewRequestDTO request(int rating) {
+		ReviewRequestDTO request = new ReviewRequestDTO();
+		request.setServiceId(3L);
+		request.setRating(rating);
+		request.setComment("Great cut");
+		return request;
+	}
+}
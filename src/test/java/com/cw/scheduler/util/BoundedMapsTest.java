@@ -0,0 +1,60 @@
+package com.cw.scheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedMapsTest {
+
+	@Test
+	void mapBelowTheCapIsLeftAlone() {
+		Map<Integer, Boolean> map = map(9, 0);
+
+		assertEquals(0, BoundedMaps.makeRoom(map, 10, stale -> stale));
+		assertEquals(9, map.size());
+	}
+
+	@Test
+	void staleEntriesGoFirst() {
+		Map<Integer, Boolean> map = map(7, 3);
+
+		assertEquals(0, BoundedMaps.makeRoom(map, 10, stale -> stale));
+		assertEquals(7, map.size());
+		assertFalse(map.containsValue(true));
+	}
+
+	@Test
+	void fullOfLiveEntriesDropsATenth() {
+		Map<Integer, Boolean> map = map(100, 0);
+
+		assertEquals(10, BoundedMaps.makeRoom(map, 100, stale -> stale));
+		assertEquals(90, map.size());
+	}
+
+	@Test
+	void overshootIsDroppedToo() {
+		Map<Integer, Boolean> map = map(105, 0);
+
+		assertEquals(15, BoundedMaps.makeRoom(map, 100, stale -> stale));
+		assertEquals(90, map.size());
+	}
+
+	@Test
+	void tinyMapsStillMakeRoom() {
+		Map<Integer, Boolean> map = map(3, 0);
+
+		assertEquals(1, BoundedMaps.makeRoom(map, 3, stale -> stale));
+		assertEquals(2, map.size());
+	}
+
+	private static Map<Integer, Boolean> map(int live, int stale) {
+		Map<Integer, Boolean> map = new ConcurrentHashMap<>();
+		for (int i = 0; i < live + stale; i++) {
+			map.put(i, i >= live);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,26 @@
+package com.cw.scheduler.util;
+
+import com.cw.scheduler.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+	@Test
+	void roundTripsThroughOpaqueToken() {
+		KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2030, 1, 7, 10, 30, 15), 4711L);
+		String token = cursor.encode();
+
+		assertFalse(token.contains("2030"));
+		assertEquals(cursor, KeysetCursor.decode(token));
+	}
+
+	@Test
+	void rejectsTamperedTokens() {
+		assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor"));
+		assertThrows(BadRequestException.class, () -> KeysetCursor.decode("bm8tc2VwYXJhdG9y"));
+	}
+}